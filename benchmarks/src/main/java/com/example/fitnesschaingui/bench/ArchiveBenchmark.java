@@ -0,0 +1,107 @@
+package com.example.fitnesschaingui.bench;
+
+import com.example.fitnesschaingui.Member;
+import com.example.fitnesschaingui.MemberStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks fetching archived members from the on-disk member store.
+ * The members are written to runs and merged before measuring. With a
+ * small page cache nearly every fetch reads its page from the file, with
+ * a large one the pages stay in memory.
+ * @author Albert Zou, Rishabh Patel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArchiveBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"16", "8192"})
+    public int cachePages;
+
+    private static final int TABLE_LIMIT = 100_000;
+
+    private Path dir;
+    private MemberStore store;
+    private Member[] archived;
+    private Member[] missing;
+    private int next;
+
+    /**
+     * Archives the members and merges the runs.
+     * @throws IOException if the store can't be written.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("archive");
+        store = new MemberStore(dir, cachePages, TABLE_LIMIT);
+        Member[] members = BenchmarkData.members(size * 2, BenchmarkData.SEED);
+        archived = Arrays.copyOfRange(members, 0, size);
+        missing = Arrays.copyOfRange(members, size, size * 2);
+        store.putAll(Arrays.asList(archived));
+        store.compact();
+        Collections.shuffle(Arrays.asList(archived), new Random(BenchmarkData.SEED));
+    }
+
+    /**
+     * Closes the store and deletes its files.
+     * @throws IOException if the files can't be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try ( Stream<Path> files = Files.walk(dir) ) {
+            for ( Path p : files.sorted(Comparator.reverseOrder()).toArray(Path[]::new) ) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * Fetches the next archived member in a random order.
+     * @return the archived member.
+     */
+    @Benchmark
+    public Member getArchived() {
+        next = next + 1 == size ? 0 : next + 1;
+        return store.get(archived[next]);
+    }
+
+    /**
+     * Looks up a member that was never archived, which the Bloom filters
+     * usually answer without reading a page.
+     * @return null.
+     */
+    @Benchmark
+    public Member getMissing() {
+        next = next + 1 == size ? 0 : next + 1;
+        return store.get(missing[next]);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.fitnesschaingui.bench;
+
+import com.example.fitnesschaingui.Date;
+import com.example.fitnesschaingui.Family;
+import com.example.fitnesschaingui.Location;
+import com.example.fitnesschaingui.Member;
+import com.example.fitnesschaingui.MemberDatabase;
+import com.example.fitnesschaingui.Premium;
+import com.example.fitnesschaingui.Time;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Generates deterministic data sets for the benchmarks.
+ * Members get unique names so every generated member is distinct, and
+ * the same seed always produces the same data.
+ * @author Albert Zou, Rishabh Patel
+ */
+public final class BenchmarkData {
+    private static final String[] FIRST_NAMES = {"John", "Jane", "April", "Mary",
+            "Duke", "Roy", "Kate", "Carl", "Paul", "Bill", "Emma", "Denise"};
+    private static final String[] LAST_NAMES = {"Doe", "March", "Lindsey",
+            "Ellington", "Brooks", "Brown", "Siegel", "Scanlan", "Davis", "Kim"};
+    private static final String[] CLASS_NAMES = {"Pilates", "Spinning", "Cardio"};
+    private static final int LETTERS = 26;
+    private static final int MIN_BIRTH_YEAR = 1950;
+    private static final int BIRTH_YEARS = 50;
+    private static final int MIN_EXPIRE_YEAR = 2020;
+    private static final int EXPIRE_YEARS = 10;
+    private static final int MONTHS = 12;
+    private static final int DAYS = 28;
+    private static final int FAMILY_PERCENT = 20;
+    private static final int PREMIUM_PERCENT = 10;
+    private static final int PERCENT = 100;
+
+    public static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates members with unique names.
+     * Mixes standard, family, and premium memberships.
+     * @param count of members to generate.
+     * @param seed for the random generator.
+     * @return the generated members.
+     */
+    public static Member[] members(int count, long seed) {
+        Random random = new Random(seed);
+        Member[] members = new Member[count];
+        for ( int i = 0; i < count; i++ ) {
+            members[i] = member(i, random);
+        }
+        return members;
+    }
+
+    /**
+     * Generates the member with the given sequence number.
+     * @param i sequence number making the name unique.
+     * @param random generator for the remaining properties.
+     * @return the generated member.
+     */
+    public static Member member(int i, Random random) {
+        String fName = FIRST_NAMES[i % FIRST_NAMES.length];
+        String lName = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + suffix(i);
+        Date dob = date(random, MIN_BIRTH_YEAR, BIRTH_YEARS);
+        Location location = location(random);
+        int type = random.nextInt(PERCENT);
+        Member m;
+        if ( type < PREMIUM_PERCENT ) {
+            m = new Premium(fName, lName, dob, location);
+        } else if ( type < PREMIUM_PERCENT + FAMILY_PERCENT ) {
+            m = new Family(fName, lName, dob, location);
+        } else {
+            m = new Member(fName, lName, dob, location);
+        }
+        m.setExpire(date(random, MIN_EXPIRE_YEAR, EXPIRE_YEARS));
+        return m;
+    }
+
+    /**
+     * Builds a database holding the given members in order.
+     * @param members to add.
+     * @return the database.
+     */
+    public static MemberDatabase database(Member[] members) {
+        MemberDatabase db = new MemberDatabase();
+        for ( Member m : members ) {
+            db.add(m);
+        }
+        return db;
+    }
+
+    /**
+     * Writes a members file in the format read by MemberDatabase.loadMembers.
+     * @param f file to write.
+     * @param count of rows to write.
+     * @throws IOException if writing fails.
+     */
+    public static void writeMembers(File f, int count) throws IOException {
+        Random random = new Random(SEED);
+        try ( BufferedWriter out = new BufferedWriter(new FileWriter(f)) ) {
+            for ( int i = 0; i < count; i++ ) {
+                Member m = member(i, random);
+                out.write(m.getFName() + " " + m.getLName() + " " + m.getDOB()
+                        + " " + m.getExpire() + " " + m.getLocation().name());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Writes a schedule file in the format read by ClassSchedule.loadSchedule.
+     * Every row has a unique instructor so every class is distinct.
+     * @param f file to write.
+     * @param count of rows to write.
+     * @throws IOException if writing fails.
+     */
+    public static void writeSchedule(File f, int count) throws IOException {
+        Random random = new Random(SEED);
+        try ( BufferedWriter out = new BufferedWriter(new FileWriter(f)) ) {
+            for ( int i = 0; i < count; i++ ) {
+                out.write(CLASS_NAMES[random.nextInt(CLASS_NAMES.length)]
+                        + " Instructor" + suffix(i) + " "
+                        + Time.values()[random.nextInt(Time.values().length)].name()
+                        + " " + location(random).name());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Picks a random location.
+     * @param random generator to use.
+     * @return the location.
+     */
+    public static Location location(Random random) {
+        return Location.values()[random.nextInt(Location.values().length)];
+    }
+
+    /**
+     * Picks a random valid date.
+     * @param random generator to use.
+     * @param minYear earliest year.
+     * @param years number of years to pick from.
+     * @return the date.
+     */
+    public static Date date(Random random, int minYear, int years) {
+        return new Date((random.nextInt(MONTHS) + 1) + "/"
+                + (random.nextInt(DAYS) + 1) + "/"
+                + (minYear + random.nextInt(years)));
+    }
+
+    /**
+     * Encodes a sequence number as letters.
+     * @param i sequence number.
+     * @return letters unique to the number.
+     */
+    private static String suffix(int i) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('a' + i % LETTERS));
+            i /= LETTERS;
+        } while ( i > 0 );
+        return sb.toString();
+    }
+}
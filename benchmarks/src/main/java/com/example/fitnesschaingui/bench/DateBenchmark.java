@@ -0,0 +1,101 @@
+package com.example.fitnesschaingui.bench;
+
+import com.example.fitnesschaingui.Date;
+import com.example.fitnesschaingui.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks date parsing, comparison, and fee computation.
+ * @author Albert Zou, Rishabh Patel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateBenchmark {
+    public String text = "12/31/2023";
+    public String local = "2023-12-31";
+
+    private Date first;
+    private Date second;
+    private Member[] members;
+    private int next;
+
+    /**
+     * Prepares dates and members of every membership type.
+     */
+    @Setup
+    public void setup() {
+        first = new Date("3/31/2023");
+        second = new Date("3/30/2023");
+        members = BenchmarkData.members(100, BenchmarkData.SEED);
+    }
+
+    /**
+     * Parses a date string.
+     * @return the date.
+     */
+    @Benchmark
+    public Date parse() {
+        return new Date(text);
+    }
+
+    /**
+     * Converts a DatePicker date string.
+     * @return the converted string.
+     */
+    @Benchmark
+    public String convertFromLocal() {
+        return Date.convertFromLocal(local);
+    }
+
+    /**
+     * Gets the current date, as isExpired and isAdult do.
+     * @return the date.
+     */
+    @Benchmark
+    public Date today() {
+        return new Date();
+    }
+
+    /**
+     * Compares two dates in the same month.
+     * @return the comparison.
+     */
+    @Benchmark
+    public int compareTo() {
+        return first.compareTo(second);
+    }
+
+    /**
+     * Validates a date at the end of a month.
+     * @return the result of the check.
+     */
+    @Benchmark
+    public boolean isValid() {
+        return first.isValid();
+    }
+
+    /**
+     * Computes the fee of the next member, alternating first bills.
+     * @return the fee.
+     */
+    @Benchmark
+    public double membershipFee() {
+        next = (next + 1) % members.length;
+        return members[next].membershipFee(next % 2 == 0);
+    }
+}
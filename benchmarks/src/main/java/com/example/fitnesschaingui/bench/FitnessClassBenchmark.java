@@ -0,0 +1,127 @@
+package com.example.fitnesschaingui.bench;
+
+import com.example.fitnesschaingui.ClassSchedule;
+import com.example.fitnesschaingui.Date;
+import com.example.fitnesschaingui.FitnessClass;
+import com.example.fitnesschaingui.Location;
+import com.example.fitnesschaingui.Member;
+import com.example.fitnesschaingui.MemberDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks class rosters and time conflict checks.
+ * The default schedule is loaded and each class at the target location is
+ * filled with the given number of active participants, all of them in the
+ * member database the schedule checks in from.
+ * @author Albert Zou, Rishabh Patel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FitnessClassBenchmark {
+    @Param({"10", "1000"})
+    public int roster;
+
+    private static final String SCHEDULE = "Pilates Emma afternoon Edison\n"
+            + "Pilates Davis afternoon Edison\n"
+            + "Cardio Emma evening Edison\n"
+            + "Spinning Denise evening Edison\n";
+
+    private ClassSchedule classes;
+    private FitnessClass course;
+    private Member member;
+
+    /**
+     * Loads the schedule and fills the rosters.
+     * @throws IOException if the schedule can't be written.
+     */
+    @Setup
+    public void setup() throws IOException {
+        File f = File.createTempFile("classSchedule", ".txt");
+        Files.writeString(f.toPath(), SCHEDULE);
+        MemberDatabase db = new MemberDatabase();
+        Member[] members = active(roster + 1);
+        for ( Member m : members ) {
+            db.add(m);
+        }
+        classes = new ClassSchedule(db);
+        classes.loadSchedule(f);
+        f.delete();
+        course = classes.getClass("Pilates", "Emma", Location.EDISON);
+        FitnessClass other = classes.getClass("Pilates", "Davis", Location.EDISON);
+        for ( int i = 0; i < roster; i++ ) {
+            course.checkIn(members[i]);
+            other.checkIn(members[i]);
+        }
+        member = members[roster];
+    }
+
+    /**
+     * Generates active standard members at the benchmarked location.
+     * @param count of members.
+     * @return the members.
+     */
+    private static Member[] active(int count) {
+        Member[] members = BenchmarkData.members(count, BenchmarkData.SEED);
+        for ( int i = 0; i < count; i++ ) {
+            members[i] = new Member(members[i].getFName(), members[i].getLName(),
+                    members[i].getDOB(), Location.EDISON);
+        }
+        return members;
+    }
+
+    /**
+     * Checks a member in at the end of a full roster and back out.
+     * @return the result of checking out.
+     */
+    @Benchmark
+    public boolean checkInThenDone() {
+        course.checkIn(member);
+        return course.done(member);
+    }
+
+    /**
+     * Checks for a conflict for a member in neither class.
+     * @return null.
+     */
+    @Benchmark
+    public FitnessClass isTimeConflictMiss() {
+        return classes.isTimeConflict(member, course);
+    }
+
+    /**
+     * Checks whether a membership is expired, which every check-in does.
+     * @return the result of the check.
+     */
+    @Benchmark
+    public boolean isExpired() {
+        return member.isExpired();
+    }
+
+    /**
+     * Checks the expiration date against a fixed date.
+     * @return the comparison.
+     */
+    @Benchmark
+    public int expireCompare() {
+        return member.getExpire().compareTo(new Date("1/1/2024"));
+    }
+}
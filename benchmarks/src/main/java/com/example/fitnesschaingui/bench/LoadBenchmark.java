@@ -0,0 +1,83 @@
+package com.example.fitnesschaingui.bench;
+
+import com.example.fitnesschaingui.ClassSchedule;
+import com.example.fitnesschaingui.MemberDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading generated member and schedule files.
+ * Each load runs once per iteration since a load of a large file takes
+ * far longer than a timer tick.
+ * @author Albert Zou, Rishabh Patel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private File members;
+    private File schedule;
+
+    /**
+     * Writes the generated files.
+     * @throws IOException if writing fails.
+     */
+    @Setup
+    public void setup() throws IOException {
+        members = File.createTempFile("memberList", ".txt");
+        schedule = File.createTempFile("classSchedule", ".txt");
+        BenchmarkData.writeMembers(members, rows);
+        BenchmarkData.writeSchedule(schedule, rows);
+    }
+
+    /**
+     * Deletes the generated files.
+     */
+    @TearDown
+    public void tearDown() {
+        members.delete();
+        schedule.delete();
+    }
+
+    /**
+     * Loads the members file into an empty database.
+     * @return the database.
+     */
+    @Benchmark
+    public MemberDatabase loadMembers() {
+        MemberDatabase db = new MemberDatabase();
+        db.loadMembers(members);
+        return db;
+    }
+
+    /**
+     * Loads the schedule file into an empty schedule.
+     * @return the schedule.
+     */
+    @Benchmark
+    public ClassSchedule loadSchedule() {
+        ClassSchedule classes = new ClassSchedule(new MemberDatabase());
+        classes.loadSchedule(schedule);
+        return classes;
+    }
+}
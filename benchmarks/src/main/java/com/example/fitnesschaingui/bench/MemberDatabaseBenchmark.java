@@ -0,0 +1,91 @@
+package com.example.fitnesschaingui.bench;
+
+import com.example.fitnesschaingui.Member;
+import com.example.fitnesschaingui.MemberDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks adding, removing, and looking up members.
+ * @author Albert Zou, Rishabh Patel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberDatabaseBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Member[] members;
+    private MemberDatabase db;
+    private Member extra;
+    private Member missing;
+    private Random random;
+
+    /**
+     * Fills the database and prepares members outside of it.
+     */
+    @Setup
+    public void setup() {
+        members = BenchmarkData.members(size, BenchmarkData.SEED);
+        db = BenchmarkData.database(members);
+        Random outside = new Random(BenchmarkData.SEED + 1);
+        extra = BenchmarkData.member(size, outside);
+        missing = BenchmarkData.member(size + 1, outside);
+        random = new Random(BenchmarkData.SEED);
+    }
+
+    /**
+     * Adds a new member, then removes it from the end of the list.
+     * @return the result of the removal.
+     */
+    @Benchmark
+    public boolean addThenRemove() {
+        db.add(extra);
+        return db.remove(extra);
+    }
+
+    /**
+     * Removes a random member and adds it back at the end of the list.
+     * @return the result of adding the member back.
+     */
+    @Benchmark
+    public boolean removeThenAdd() {
+        Member m = members[random.nextInt(size)];
+        db.remove(m);
+        return db.add(m);
+    }
+
+    /**
+     * Looks up a random member in the database.
+     * @return the member found.
+     */
+    @Benchmark
+    public Member getMemberDataHit() {
+        return db.getMemberData(members[random.nextInt(size)]);
+    }
+
+    /**
+     * Looks up a member that isn't in the database.
+     * @return null.
+     */
+    @Benchmark
+    public Member getMemberDataMiss() {
+        return db.getMemberData(missing);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.fitnesschaingui.bench;
+
+import com.example.fitnesschaingui.Member;
+import com.example.fitnesschaingui.MemberDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the print paths of the member database.
+ * The sorted prints leave the database sorted, so every invocation starts
+ * from a freshly shuffled database.
+ * @author Albert Zou, Rishabh Patel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportBenchmark {
+    @Param({"100", "1000"})
+    public int size;
+
+    private List<Member> members;
+    private Random random;
+    private MemberDatabase db;
+
+    /**
+     * Generates the members.
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        members = Arrays.asList(BenchmarkData.members(size, BenchmarkData.SEED));
+        random = new Random(BenchmarkData.SEED);
+    }
+
+    /**
+     * Rebuilds the database in a random order.
+     */
+    @Setup(Level.Invocation)
+    public void shuffle() {
+        Collections.shuffle(members, random);
+        db = BenchmarkData.database(members.toArray(new Member[0]));
+    }
+
+    /**
+     * Prints the database in its current order.
+     * @return the print string.
+     */
+    @Benchmark
+    public String getPrint() {
+        return db.getPrint();
+    }
+
+    /**
+     * Sorts and prints the database by county.
+     * @return the print string.
+     */
+    @Benchmark
+    public String getPrintByCounty() {
+        return db.getPrintByCounty();
+    }
+
+    /**
+     * Sorts and prints the database by expiration date.
+     * @return the print string.
+     */
+    @Benchmark
+    public String getPrintByExpiration() {
+        return db.getPrintByExpiration();
+    }
+
+    /**
+     * Sorts and prints the database by name.
+     * @return the print string.
+     */
+    @Benchmark
+    public String getPrintByName() {
+        return db.getPrintByName();
+    }
+
+    /**
+     * Prints the database with first bill fees.
+     * @return the print string.
+     */
+    @Benchmark
+    public String toStringWithFirstFees() {
+        return db.toStringWithFees(true);
+    }
+
+    /**
+     * Prints the database with next bill fees.
+     * @return the print string.
+     */
+    @Benchmark
+    public String toStringWithNextFees() {
+        return db.toStringWithFees(false);
+    }
+}
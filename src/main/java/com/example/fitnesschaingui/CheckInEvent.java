@@ -0,0 +1,33 @@
+package com.example.fitnesschaingui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when a member or guest is checked in or
+ * out of a fitness class.
+ * @author Albert Zou, Rishabh Patel
+ */
+@Name("com.example.fitnesschaingui.CheckIn")
+@Label("Check In")
+@Category("Gym Manager")
+@Description("Check-in or check-out of a member or guest")
+class CheckInEvent extends Event {
+    @Label("Check Out")
+    boolean done;
+
+    @Label("Guest")
+    boolean guest;
+
+    @Label("Class")
+    String course;
+
+    @Label("Location")
+    String location;
+
+    @Label("Outcome")
+    String outcome;
+}
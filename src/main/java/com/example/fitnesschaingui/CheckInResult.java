@@ -0,0 +1,183 @@
+package com.example.fitnesschaingui;
+
+/**
+ * Represents the result of checking a member or guest in or out of a class.
+ * Stores the outcome along with the member and class that were resolved,
+ * the class causing a time conflict, and the message shown to the user.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class CheckInResult {
+    private final Outcome outcome;
+    private final Member member;
+    private final FitnessClass course;
+    private final FitnessClass conflict;
+    private final String message;
+
+    /**
+     * Possible outcomes of a check-in or check-out, in the order the rules
+     * are applied.
+     */
+    public enum Outcome {
+        /**
+         * No date of birth was given.
+         */
+        MISSING_DATE,
+        /**
+         * The class location does not exist.
+         */
+        INVALID_LOCATION,
+        /**
+         * The first or last name is missing.
+         */
+        MISSING_NAME,
+        /**
+         * The date of birth is not a calendar date.
+         */
+        INVALID_DATE,
+        /**
+         * The member is not in the database.
+         */
+        NOT_IN_DATABASE,
+        /**
+         * The membership is expired.
+         */
+        EXPIRED,
+        /**
+         * No class is taught by the instructor.
+         */
+        NO_INSTRUCTOR,
+        /**
+         * No class has the given name.
+         */
+        NO_CLASS,
+        /**
+         * The class is not taught by the instructor at the location.
+         */
+        NOT_AT_LOCATION,
+        /**
+         * Standard members can only check in at their own location.
+         */
+        LOCATION_RESTRICTION,
+        /**
+         * The member is in another class at the same time.
+         */
+        TIME_CONFLICT,
+        /**
+         * The member was already checked in.
+         */
+        ALREADY_CHECKED_IN,
+        /**
+         * The member was checked in.
+         */
+        CHECKED_IN,
+        /**
+         * Standard members can't bring guests.
+         */
+        GUEST_NOT_ALLOWED,
+        /**
+         * Guests can only check in at their host's location.
+         */
+        GUEST_LOCATION_RESTRICTION,
+        /**
+         * The member has no guest passes left.
+         */
+        NO_GUEST_PASS,
+        /**
+         * The member's guest was checked in.
+         */
+        GUEST_CHECKED_IN,
+        /**
+         * The member was not checked in to the class.
+         */
+        NOT_CHECKED_IN,
+        /**
+         * The member was checked out of the class.
+         */
+        DONE,
+        /**
+         * The member's guest was not checked in to the class.
+         */
+        GUEST_NOT_CHECKED_IN,
+        /**
+         * The member's guest was checked out of the class.
+         */
+        GUEST_DONE
+    }
+
+    /**
+     * Constructs CheckInResult object.
+     * @param outcome of the operation.
+     * @param member resolved from the database, null if not found.
+     * @param course resolved from the schedule, null if not found.
+     * @param conflict class at the same time the member is in, or null.
+     * @param message to show the user, ending in a newline.
+     */
+    public CheckInResult(Outcome outcome, Member member, FitnessClass course,
+                         FitnessClass conflict, String message) {
+        this.outcome = outcome;
+        this.member = member;
+        this.course = course;
+        this.conflict = conflict;
+        this.message = message;
+    }
+
+    /**
+     * Checks if the member or guest was checked in or out.
+     * @return true if the operation changed a roster, false otherwise.
+     */
+    public boolean isSuccess() {
+        return outcome == Outcome.CHECKED_IN
+                || outcome == Outcome.GUEST_CHECKED_IN
+                || outcome == Outcome.DONE
+                || outcome == Outcome.GUEST_DONE;
+    }
+
+    /**
+     * Gets the outcome of the operation.
+     * @return the outcome property.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Gets the member resolved from the database.
+     * @return the member property, null if not resolved.
+     */
+    public Member getMember() {
+        return member;
+    }
+
+    /**
+     * Gets the class resolved from the schedule.
+     * @return the course property, null if not resolved.
+     */
+    public FitnessClass getCourse() {
+        return course;
+    }
+
+    /**
+     * Gets the class that caused a time conflict.
+     * @return the conflict property, null if there was no conflict.
+     */
+    public FitnessClass getConflict() {
+        return conflict;
+    }
+
+    /**
+     * Gets the message shown to the user.
+     * @return the message property.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Represents the result as a string.
+     * @return the message without the trailing newline.
+     */
+    @Override
+    public String toString() {
+        return message.stripTrailing();
+    }
+}
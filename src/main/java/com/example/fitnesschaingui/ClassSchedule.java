@@ -1,16 +1,29 @@
 package com.example.fitnesschaingui;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 /**
  * Represents fitness classes between all the facilities.
  * Stores fitnessClass objects in an array and provides functionality
  * to manipulate them.
+ * The classes are published as immutable snapshots: readers use whichever
+ * snapshot is current without locking, and loading or reloading a schedule
+ * builds a new snapshot and swaps it in at once, so a check-in never sees a
+ * half-loaded schedule.
  * @author Albert Zou, Rishabh Patel
  */
 public class ClassSchedule {
-    private FitnessClass[] classes;
-    private int numClasses;
+    private final MemberDatabase members;
+    private volatile Snapshot current;
 
     private static final int EMPTY = 0;
     private static final int START = 0;
@@ -25,26 +38,126 @@ public class ClassSchedule {
 
     /**
      * Constructor for the ClassSchedule class.
-     * initializes the empty FitnessClass array and
-     * numclasses variable.
+     * initializes the schedule with an empty snapshot.
+     * @param members the database of the members checking in to the classes.
      */
-    public ClassSchedule() {
-        classes = new FitnessClass[START_SIZE];
-        numClasses = EMPTY;
+    public ClassSchedule(MemberDatabase members) {
+        this.members = members;
+        current = new Builder().build();
     }
 
     /**
-     * Resizes classes array when full.
-     * Creates a new array with 4 more elements and
-     * copies over elements from old array.
+     * An immutable set of classes along with the lookups built from them.
      */
-    private void grow() {
-        FitnessClass[] newList = new FitnessClass[classes.length
-                + START_SIZE];
-        for ( int i = START; i < numClasses; i++ ) {
-            newList[i] = classes[i];
+    private static final class Snapshot {
+        private final FitnessClass[] classes;
+        private final Map<String, FitnessClass> index;
+        private final Set<String> instructors;
+        private final Set<String> names;
+        private final Map<Time, List<FitnessClass>> byTime;
+
+        /**
+         * Constructs Snapshot object.
+         * @param classes in the order they were loaded.
+         * @param index from the key of each class to the class.
+         * @param instructors upper case names of every instructor.
+         * @param names upper case names of every class.
+         * @param byTime the classes at each time.
+         */
+        private Snapshot(FitnessClass[] classes, Map<String, FitnessClass> index,
+                         Set<String> instructors, Set<String> names,
+                         Map<Time, List<FitnessClass>> byTime) {
+            this.classes = classes;
+            this.index = index;
+            this.instructors = instructors;
+            this.names = names;
+            this.byTime = byTime;
+        }
+    }
+
+    /**
+     * Collects classes for a new snapshot.
+     */
+    private static final class Builder {
+        private FitnessClass[] classes;
+        private int numClasses;
+        private final HashMap<String, FitnessClass> index;
+        private final HashSet<String> instructors;
+        private final HashSet<String> names;
+        private final EnumMap<Time, ArrayList<FitnessClass>> byTime;
+
+        /**
+         * Constructs an empty Builder.
+         */
+        private Builder() {
+            classes = new FitnessClass[START_SIZE];
+            numClasses = EMPTY;
+            index = new HashMap<>();
+            instructors = new HashSet<>();
+            names = new HashSet<>();
+            byTime = new EnumMap<>(Time.class);
+            for ( Time time : Time.values() ) {
+                byTime.put(time, new ArrayList<>());
+            }
+        }
+
+        /**
+         * Resizes classes array when full.
+         * Creates a new array with 4 more elements and
+         * copies over elements from old array.
+         */
+        private void grow() {
+            classes = Arrays.copyOf(classes, classes.length + START_SIZE);
+        }
+
+        /**
+         * Adds a new FitnessClass to the classes array.
+         * First resizes the array if necessary, then inserts the new
+         * FitnessClass at the end of the list of FitnessClasses.
+         * @param c class to be added
+         * @return false if class exists in schedule,
+         * true if successfully added.
+         */
+        private boolean add(FitnessClass c) {
+            String key = key(c.getName(), c.getInstructor(), c.getLocation());
+            if ( index.putIfAbsent(key, c) != null ) return false;
+            if ( numClasses >= classes.length ) {
+                grow();
+            }
+            classes[numClasses] = c;
+            numClasses++;
+            instructors.add(c.getInstructor().toUpperCase());
+            names.add(c.getName().toUpperCase());
+            byTime.get(c.getTime()).add(c);
+            return true;
+        }
+
+        /**
+         * Freezes the collected classes into a snapshot.
+         * @return the new snapshot.
+         */
+        private Snapshot build() {
+            EnumMap<Time, List<FitnessClass>> times = new EnumMap<>(Time.class);
+            for ( Map.Entry<Time, ArrayList<FitnessClass>> e : byTime.entrySet() ) {
+                times.put(e.getKey(), Collections.unmodifiableList(e.getValue()));
+            }
+            return new Snapshot(Arrays.copyOf(classes, numClasses),
+                    Collections.unmodifiableMap(index), Collections.unmodifiableSet(instructors),
+                    Collections.unmodifiableSet(names), Collections.unmodifiableMap(times));
         }
-        classes = newList;
+    }
+
+    /**
+     * Builds the key identifying a class in the index.
+     * Classes are identified by name and instructor regardless of case,
+     * and by location.
+     * @param name of the class.
+     * @param instructor of the class.
+     * @param loc location of the class.
+     * @return the index key of the class.
+     */
+    private static String key(String name, String instructor, Location loc) {
+        return name.toUpperCase() + " " + instructor.toUpperCase() + " " + loc.name();
     }
 
     /**
@@ -55,9 +168,10 @@ public class ClassSchedule {
      */
     @Override
     public String toString() {
-        if ( isEmpty() ) return "Fitness class schedule is empty.";
+        FitnessClass[] classes = current.classes;
+        if ( classes.length == EMPTY ) return "Fitness class schedule is empty.";
         String output = "";
-        for ( int i = START; i < numClasses; i++ ) {
+        for ( int i = START; i < classes.length; i++ ) {
             output += classes[i].toString() + "\n";
         }
         return output.substring(START, output.length() - LAST);
@@ -65,76 +179,34 @@ public class ClassSchedule {
 
     /**
      * Checks to see if the given name is an instructor.
-     * Iterates through the elements of classes array to check
-     * if any of them have the instructor.
+     * Looks the instructor up in the set of instructors regardless of case.
      * @param instructor to search for
      * @return true if the instructor is found, false otherwise.
      */
     public boolean instructorExists(String instructor) {
-        for ( int i = 0; i < numClasses; i++ ) {
-            FitnessClass c = classes[i];
-            if ( c.getInstructor().toUpperCase().equals(
-                    instructor.toUpperCase())) {
-                return true;
-            }
-        }
-        return false;
+        return current.instructors.contains(instructor.toUpperCase());
     }
 
     /**
      * Checks to see if given class exists anywhere.
-     * Iterates through the elements of classes array to check
-     * if any of them have the same name.
+     * Looks the name up in the set of class names regardless of case.
      * @param name of the class to search for.
      * @return true if the class exists, false otherwise.
      */
     public boolean classExists(String name) {
-        for ( int i = 0; i < numClasses; i++ ) {
-            FitnessClass c = classes[i];
-            if ( c.getName().toUpperCase().equals(name.toUpperCase())) {
-                return true;
-            }
-        }
-        return false;
+        return current.names.contains(name.toUpperCase());
     }
 
     /**
      * Searches for a FitnessClass object matching the given parameters.
-     * Iterates through the classes array, comparing the name of each
-     * FitnessClass, instructor, and location to the parameters.
+     * Looks the name, instructor, and location up in the class index.
      * @param name of the class
      * @param instructor of the class
      * @param loc location of the class
      * @return the FitnessClass if it was found, null if there was none.
      */
     public FitnessClass getClass(String name, String instructor, Location loc) {
-        for ( int i = 0; i < numClasses; i++ ) {
-            FitnessClass c = classes[i];
-            if ( name.toUpperCase().equals(c.getName().toUpperCase())
-                    && instructor.toUpperCase().equals(c.getInstructor().toUpperCase())
-                    && loc.equals(c.getLocation())) {
-                return c;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Adds a new FitnessClass to the classes array.
-     * First resizes the array if necessary, then inserts the new
-     * FitnessClass at the end of the list of FitnessClasses.
-     * @param c class to be added
-     * @return false if class exists in schedule,
-     * true if successfully added.
-     */
-    private boolean add(FitnessClass c) {
-        if ( getClass(c.getName(), c.getInstructor(), c.getLocation()) != null ) return false;
-        if ( numClasses >= classes.length ) {
-            grow();
-        }
-        classes[numClasses] = c;
-        numClasses++;
-        return true;
+        return current.index.get(key(name, instructor, loc));
     }
 
     /**
@@ -144,54 +216,149 @@ public class ClassSchedule {
      * Handles FileNotFoundException.
      */
     public void loadSchedule() {
-        File f = new File(SCHEDULE_FILE);
+        loadSchedule(new File(SCHEDULE_FILE));
+    }
+
+    /**
+     * Reads in a schedule of FitnessClasses from the given text file.
+     * Each line holds the name, instructor, time, and location of a class
+     * separated by spaces. The classes are added after the classes already
+     * in the schedule, skipping classes that already exist.
+     * Does nothing if the file doesn't exist.
+     * @param f file to load the schedule from.
+     */
+    public synchronized void loadSchedule(File f) {
+        load(f, false);
+    }
+
+    /**
+     * Replaces the schedule with the classes of the schedule file.
+     * Keeps the roster of every class that is still in the schedule.
+     * Handles FileNotFoundException.
+     * @return the number of classes that kept their roster.
+     */
+    public int reloadSchedule() {
+        return reloadSchedule(new File(SCHEDULE_FILE));
+    }
+
+    /**
+     * Replaces the schedule with the classes of the given text file.
+     * A class with the same name, instructor, and location as a class in
+     * the old schedule keeps its roster: the same FitnessClass object is
+     * kept if its time didn't change, so check-ins that already found it
+     * still count, otherwise the roster is moved to the class at its new
+     * time. Classes that are no longer in the file are dropped.
+     * Does nothing if the file doesn't exist.
+     * @param f file to load the schedule from.
+     * @return the number of classes that kept their roster.
+     */
+    public synchronized int reloadSchedule(File f) {
+        return load(f, true);
+    }
+
+    /**
+     * Reads a schedule file into a new snapshot and publishes it.
+     * Callers hold the lock of this schedule, so loads don't overlap.
+     * @param f file to load the schedule from.
+     * @param replace true to replace the current classes, false to add to
+     * them.
+     * @return the number of classes that kept their roster when replacing,
+     * 0 otherwise.
+     */
+    private int load(File f, boolean replace) {
+        ScheduleLoadEvent event = new ScheduleLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Snapshot old = current;
+        Builder next = new Builder();
+        if ( !replace ) {
+            for ( FitnessClass c : old.classes ) {
+                next.add(c);
+            }
+        }
+        int before = next.numClasses;
+        int rows = 0;
+        int kept = 0;
         Scanner scan;
         try {
             scan = new Scanner(f);
         } catch ( FileNotFoundException e ) {
-            return;
+            return kept;
         }
         while ( scan.hasNextLine() ) {
             String[] input = scan.nextLine().split(" ");
-            add(new FitnessClass(
+            rows++;
+            FitnessClass c = new FitnessClass(
+                    members,
                     input[NAME],
                     input[INSTRUCTOR],
                     Time.valueOf(input[TIME].toUpperCase()),
                     Location.valueOf(input[LOCATION].toUpperCase())
-            ));
+            );
+            String key = key(c.getName(), c.getInstructor(), c.getLocation());
+            FitnessClass same = replace && !next.index.containsKey(key) ? old.index.get(key) : null;
+            if ( same != null ) {
+                if ( same.getTime() == c.getTime() ) {
+                    c = same;
+                } else {
+                    c.takeRoster(same);
+                }
+                kept++;
+            }
+            next.add(c);
+        }
+        scan.close();
+        current = next.build();
+        GymMetrics.get().recordScheduleLoad(next.numClasses - before, start);
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.file = f.getPath();
+            event.rows = rows;
+            event.added = next.numClasses - before;
+            event.commit();
         }
+        return kept;
+    }
+
+    /**
+     * Gets the classes in the schedule in the order they were loaded.
+     * @return a read-only list of the classes in the current snapshot.
+     */
+    List<FitnessClass> classes() {
+        return Collections.unmodifiableList(Arrays.asList(current.classes));
     }
 
     /**
      * Checks if there are any classes currently stored.
-     * Compares numClasses to zero.
+     * Checks the number of classes in the current snapshot.
      * @return true if there are no classes, false otherwise.
      */
     public boolean isEmpty() {
-        return numClasses == EMPTY;
+        return current.classes.length == EMPTY;
     }
 
     /**
      * Searches for other classes the member is signed up for at the same time
      * as the given class.
-     * Iterates through all the other FitnessClass objects to see if they are
-     * at the same time as the given class and the given member is in the
-     * participants list for that class.
+     * Iterates through only the other FitnessClass objects at the same time
+     * as the given class to see if the given member is in the participants
+     * list for that class.
      * @param member to look for in conflicting classes.
      * @param course to find conflicts for.
      * @return FitnessClass that is conflicting, null if there are none.
      */
     public FitnessClass isTimeConflict(Member member, FitnessClass course) {
-        for (int i = START; i < numClasses; i++) {
-            if ( classes[i] != course ) {
-                if ( classes[i].getTime().equals(course.getTime()) ) {
-                    if ( classes[i].findMember(member) != NOT_FOUND ) {
-                        return classes[i];
-                    }
-                }
+        int id = members.id(member);
+        if ( id == MemberDatabase.NO_ID ) {
+            return null;
+        }
+        int generation = members.generation(id);
+        for ( FitnessClass c : current.byTime.get(course.getTime()) ) {
+            if ( c != course && c.findId(id, generation) != NOT_FOUND ) {
+                return c;
             }
         }
         return null;
     }
 
-}
\ No newline at end of file
+}
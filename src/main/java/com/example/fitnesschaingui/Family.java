@@ -1,11 +1,16 @@
 package com.example.fitnesschaingui;
+
+import java.util.Map;
+
 /**
  * Represents Family memberships at the fitness chain.
  * Inherits from Member class and adds functionality for guest passes.
+ * Guest passes are kept in the GuestPassLedger, which gives the member
+ * their allowance again at the start of every billing period.
  * @author Albert Zou, Rishabh Patel
  */
 public class Family extends Member {
-    protected int guestPasses;
+    private final GuestPassLedger.Account guestPasses;
     protected static final double FAMILY_FEE = 59.99;
     private static final int FAMILY_PASSES = 1;
     private static final int EMPTY = 0;
@@ -13,7 +18,7 @@ public class Family extends Member {
     /**
      * Constructs Family object.
      * Calls super to construct Member object, then sets expiration date
-     * to the correct value and initializes guestPasses.
+     * to the correct value and opens the guest pass account.
      * @param fName first name of the membership holder.
      * @param lName last name of the membership holder.
      * @param dob date of birth of the membership holder.
@@ -25,9 +30,21 @@ public class Family extends Member {
             Date dob,
             Location location
     ) {
+        this(fName, lName, dob, location, GuestPassLedger.get());
+    }
+
+    /**
+     * Constructs Family object with an account in the given ledger.
+     * @param fName first name of the membership holder.
+     * @param lName last name of the membership holder.
+     * @param dob date of birth of the membership holder.
+     * @param location where the membership is held.
+     * @param ledger to open the guest pass account in.
+     */
+    Family(String fName, String lName, Date dob, Location location, GuestPassLedger ledger) {
         super(fName, lName, dob, new Date(), location);
         expire.addMonths(MONTHS_QUARTER);
-        guestPasses = FAMILY_PASSES;
+        guestPasses = ledger.open();
     }
 
     /**
@@ -39,7 +56,7 @@ public class Family extends Member {
     @Override
     public String toString() {
         return super.toString() + " (Family) Guest-pass remaining: "
-                + guestPasses;
+                + getGuestPasses();
     }
 
     /**
@@ -55,22 +72,41 @@ public class Family extends Member {
     }
 
     /**
-     * Decrements the available number of guest passes.
-     * Checks whether the member has a guest pass currently is available
-     * and updates the number of available passes if so.
+     * Gets the number of guest passes the member gets per billing period.
+     * @return the family guest pass allowance.
+     */
+    protected int guestPassAllowance() {
+        return FAMILY_PASSES;
+    }
+
+    /**
+     * Uses one of the available guest passes.
+     * Checks whether the member has a guest pass available and uses it in
+     * one atomic step, so two kiosks can't both use the last pass.
+     * @return true if a pass was used, false if none was available.
      */
-    public void useGuestPass() {
-        if ( hasPass() ) {
-            guestPasses--;
+    public boolean useGuestPass() {
+        if ( !guestPasses.use(guestPassAllowance()) ) {
+            return false;
         }
+        changed();
+        GymMetrics.get().recordGuestPassUsed();
+        return true;
     }
 
     /**
      * Gives the member back a guest pass.
-     * Increases the number of available guest passes by one.
+     * Only gives back passes used in the current billing period, so the
+     * member never has more passes than the allowance.
+     * @return true if a pass was given back, false otherwise.
      */
-    public void returnPass() {
-        guestPasses++;
+    public boolean returnPass() {
+        if ( !guestPasses.giveBack() ) {
+            return false;
+        }
+        changed();
+        GymMetrics.get().recordGuestPassReturned();
+        return true;
     }
 
     /**
@@ -81,6 +117,33 @@ public class Family extends Member {
      * otherwise.
      */
     public boolean hasPass() {
-        return guestPasses > EMPTY;
+        return getGuestPasses() > EMPTY;
+    }
+
+    /**
+     * Checks if the member used any guest pass in the current billing
+     * period.
+     * @return true if fewer passes than the allowance are left.
+     */
+    boolean usedGuestPass() {
+        return getGuestPasses() < guestPassAllowance();
+    }
+
+    /**
+     * Gets the number of guest passes remaining in the current billing
+     * period.
+     * @return the guest passes left.
+     */
+    public int getGuestPasses() {
+        return guestPasses.remaining(guestPassAllowance());
+    }
+
+    /**
+     * Gets the number of guest passes used in each billing period.
+     * @return a map from billing period to passes used, leaving out periods
+     * without any.
+     */
+    public Map<Integer, Integer> getGuestPassHistory() {
+        return guestPasses.history();
     }
 }
@@ -1,13 +1,22 @@
 package com.example.fitnesschaingui;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 /**
  * Represents the fitness classes available at the gym.
  * Allows for managing rosters of each class.
+ * Rosters hold the IDs the member database gives its members rather
+ * than the members themselves, so finding a member on a roster compares
+ * integers. Each ID is stored with the generation it had when it was
+ * added, so once a member leaves the database their roster entries no
+ * longer match anyone, and are dropped the next time the roster fills up.
  * @author Albert Zou, Rishabh Patel
  */
 public class FitnessClass {
-    private ArrayList<Member> participants;
-    private ArrayList<Member> guests;
+    private final MemberDatabase members;
+    private final Roster participants;
+    private final Roster guests;
     private String name;
     private String instructor;
     private Time time;
@@ -15,26 +24,147 @@ public class FitnessClass {
     private static final int NOT_FOUND = -1;
     private static final int EMPTY = 0;
     private static final int START = 0;
+    private static final int START_SIZE = 4;
+    private static final int GROWTH = 2;
 
     /**
      * Constructs FitnessClass object.
      * Initializes time, instructor, location, and name of class.
-     * Initializes empty lists of participants and guests.
+     * Initializes empty rosters of participants and guests.
+     * @param members the database holding the members checked in.
      * @param name of the class.
      * @param instructor of the class.
      * @param time of the class.
      * @param location of the location.
      */
-    public FitnessClass(String name, String instructor, Time time,
+    public FitnessClass(MemberDatabase members, String name, String instructor, Time time,
                         Location location) {
-        participants = new ArrayList<Member>();
-        guests = new ArrayList<Member>();
+        this.members = members;
+        participants = new Roster();
+        guests = new Roster();
         this.name = name;
         this.instructor = instructor;
         this.time = time;
         this.location = location;
     }
 
+    /**
+     * IDs of members of the database along with their generations, in the
+     * order they were added.
+     */
+    private static final class Roster {
+        private int[] ids;
+        private int[] generations;
+        private int size;
+
+        /**
+         * Constructs an empty Roster.
+         */
+        private Roster() {
+            ids = new int[START_SIZE];
+            generations = new int[START_SIZE];
+        }
+
+        /**
+         * Finds an ID of a generation on the roster.
+         * @param id to search for.
+         * @param generation of the ID.
+         * @return index of the first match, -1 if not found.
+         */
+        private int indexOf(int id, int generation) {
+            if ( id == MemberDatabase.NO_ID ) {
+                return NOT_FOUND;
+            }
+            for ( int i = START; i < size; i++ ) {
+                if ( ids[i] == id && generations[i] == generation ) {
+                    return i;
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        /**
+         * Adds an ID at the end of the roster.
+         * When the roster is full, drops the entries of members that left
+         * the database before growing it.
+         * @param db the IDs belong to.
+         * @param id to add.
+         * @param generation of the ID.
+         */
+        private void add(MemberDatabase db, int id, int generation) {
+            if ( size == ids.length ) {
+                prune(db);
+            }
+            if ( size == ids.length ) {
+                ids = Arrays.copyOf(ids, size * GROWTH);
+                generations = Arrays.copyOf(generations, ids.length);
+            }
+            ids[size] = id;
+            generations[size] = generation;
+            size++;
+        }
+
+        /**
+         * Removes an entry, shifting the later ones down.
+         * @param index of the entry.
+         */
+        private void remove(int index) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(generations, index + 1, generations, index, size - index - 1);
+            size--;
+        }
+
+        /**
+         * Removes the entries of members that left the database, keeping
+         * the order of the rest.
+         * @param db the IDs belong to.
+         */
+        private void prune(MemberDatabase db) {
+            int kept = START;
+            for ( int i = START; i < size; i++ ) {
+                if ( db.member(ids[i], generations[i]) != null ) {
+                    ids[kept] = ids[i];
+                    generations[kept] = generations[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        /**
+         * Moves every entry of another roster to the end of this one.
+         * @param db the IDs belong to.
+         * @param other roster to empty.
+         */
+        private void take(MemberDatabase db, Roster other) {
+            for ( int i = START; i < other.size; i++ ) {
+                add(db, other.ids[i], other.generations[i]);
+            }
+            other.size = EMPTY;
+        }
+
+        /**
+         * Gets the members on the roster without changing it.
+         * Skips the entries of members that left the database.
+         * @param db the IDs belong to.
+         * @return the members in roster order.
+         */
+        private List<Member> members(MemberDatabase db) {
+            int count = size;
+            int[] snapshot = ids;
+            int[] snapshotGenerations = generations;
+            ArrayList<Member> found = new ArrayList<>(count);
+            for ( int i = START; i < count && i < snapshot.length
+                    && i < snapshotGenerations.length; i++ ) {
+                Member m = db.member(snapshot[i], snapshotGenerations[i]);
+                if ( m != null ) {
+                    found.add(m);
+                }
+            }
+            return found;
+        }
+    }
+
     /**
      * toString method for the class.
      * Generates a string containing participants and guests in the class.
@@ -44,12 +174,14 @@ public class FitnessClass {
     public String toString() {
         String output = "";
         output += name + " - " + instructor + ", " + time + ", " + location.name();
+        List<Member> participants = getParticipants();
         if ( participants.size() != EMPTY ) {
             output += "\n- Participants -";
             for (int i = START; i < participants.size(); i++) {
                 output += "\n\t" + participants.get(i);
             }
         }
+        List<Member> guests = getGuests();
         if ( guests.size() != EMPTY ) {
             output += "\n- Guests -";
             for (int i = START; i < guests.size(); i++) {
@@ -71,32 +203,34 @@ public class FitnessClass {
 
     /**
      * Locates a member in the given fitness class.
-     * Iterates through the participants list.
+     * Compares the member's ID with the IDs of the participants.
      * @param member to search for.
-     * @return index in the participants array if found, -1 if not found.
+     * @return index in the participants roster if found, -1 if not found.
      */
     public int findMember(Member member) {
-        for ( int i = START; i < participants.size(); i++ ) {
-            if ( member.equals(participants.get(i)) ) {
-                return i;
-            }
-        }
-        return NOT_FOUND;
+        int id = members.id(member);
+        return participants.indexOf(id, members.generation(id));
+    }
+
+    /**
+     * Locates a member in the given fitness class by ID.
+     * @param id of the member in the database.
+     * @param generation of the ID.
+     * @return index in the participants roster if found, -1 if not found.
+     */
+    int findId(int id, int generation) {
+        return participants.indexOf(id, generation);
     }
 
     /**
      * Locates a guest in the given fitness class.
-     * Iterates through the guests list.
+     * Compares the member's ID with the IDs of the guests' hosts.
      * @param member to search for as a host of the guest.
-     * @return index in the guests array if found, -1 if not found.
+     * @return index in the guests roster if found, -1 if not found.
      */
     private int findGuest(Member member) {
-        for ( int i = START; i < guests.size(); i++ ) {
-            if ( member.equals(guests.get(i)) ) {
-                return i;
-            }
-        }
-        return NOT_FOUND;
+        int id = members.id(member);
+        return guests.indexOf(id, members.generation(id));
     }
 
     /**
@@ -136,14 +270,36 @@ public class FitnessClass {
         } else if (!validLoc(member)) {
             return false;
         } else {
-            if (findMember(member) == NOT_FOUND) {
-                participants.add(member);
-                return true;
-            }
-            return false;
+            return enroll(member);
         }
     }
 
+    /**
+     * Adds a member to the participants list without validating them.
+     * Used by callers that already checked the membership and location.
+     * @param member to add, must be in the database.
+     * @return true if member was not checked in before, false otherwise.
+     */
+    boolean enroll(Member member) {
+        int id = members.id(member);
+        int generation = members.generation(id);
+        if ( id != MemberDatabase.NO_ID && participants.indexOf(id, generation) == NOT_FOUND ) {
+            participants.add(members, id, generation);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the roster of another class into this class.
+     * Used when a reloaded schedule changes the time of a class.
+     * @param other class whose participants and guests are moved.
+     */
+    void takeRoster(FitnessClass other) {
+        participants.take(members, other.participants);
+        guests.take(members, other.guests);
+    }
+
     /**
      * Checks in a guest into this class.
      * If the member is standard, they can't have a guest.
@@ -153,15 +309,15 @@ public class FitnessClass {
      * @return true if guest has been checked in successfully, false otherwise.
      */
     public boolean checkInGuest(Member member) {
-        if (! (member instanceof Family) ) {
+        int id = members.id(member);
+        if (! (member instanceof Family) || id == MemberDatabase.NO_ID ) {
             return false;
         } else if ( ! validGuestLoc(member) ) {
             return false;
-        } else if ( ! ((Family) member).hasPass() ) {
+        } else if ( ! ((Family) member).useGuestPass() ) {
             return false;
         }else {
-            guests.add(member);
-            ((Family) member).useGuestPass();
+            guests.add(members, id, members.generation(id));
             return true;
         }
     }
@@ -201,6 +357,22 @@ public class FitnessClass {
         return false;
     }
 
+    /**
+     * Gets the members checked in to the class.
+     * @return a read-only list of the participants.
+     */
+    List<Member> getParticipants() {
+        return Collections.unmodifiableList(participants.members(members));
+    }
+
+    /**
+     * Gets the hosts of the guests checked in to the class.
+     * @return a read-only list of the hosts, once for each guest.
+     */
+    List<Member> getGuests() {
+        return Collections.unmodifiableList(guests.members(members));
+    }
+
     /**
      * Gets name of the class.
      * @return the name of the class.
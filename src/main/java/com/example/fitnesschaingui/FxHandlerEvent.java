@@ -0,0 +1,24 @@
+package com.example.fitnesschaingui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for each GUI handler run on the JavaFX
+ * application thread.
+ * @author Albert Zou, Rishabh Patel
+ */
+@Name("com.example.fitnesschaingui.FxHandler")
+@Label("FX Handler")
+@Category("Gym Manager")
+@Description("Execution of a GUI handler on the JavaFX application thread")
+class FxHandlerEvent extends Event {
+    @Label("Handler")
+    String handler;
+
+    @Label("Output Length")
+    int output;
+}
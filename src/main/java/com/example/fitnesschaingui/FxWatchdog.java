@@ -0,0 +1,197 @@
+package com.example.fitnesschaingui;
+
+import javafx.application.Platform;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects stalls of the JavaFX application thread and measures how long
+ * each GUI handler takes.
+ * Handlers report when they begin and end, which only records the time
+ * in a histogram of the handler. A background thread checks ten times a
+ * second whether a handler has been running too long, and if so logs the
+ * handler, the number of members it works on, and a sample of the stack of
+ * the application thread while it is still stuck. The background thread
+ * also posts a heartbeat to the application thread and measures how late
+ * it runs, catching stalls outside the handlers such as layout and
+ * rendering. A single instance is shared by the whole application.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class FxWatchdog {
+    private static final FxWatchdog WATCHDOG = new FxWatchdog();
+
+    private final ConcurrentHashMap<String, LatencyHistogram> handlers;
+    private final LatencyHistogram gaps;
+    private final LongAdder stalls;
+    private volatile Running running;
+    private volatile Thread fxThread;
+    private volatile long heartbeat;
+    private boolean heartbeatReported;
+    private ScheduledExecutorService checker;
+
+    private static final long CHECK_MILLIS = 100;
+    private static final long STALL_MILLIS = 500;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    private static final long STALL_NANOS = STALL_MILLIS * NANOS_PER_MILLI;
+    private static final int MAX_FRAMES = 32;
+    private static final long IDLE = 0;
+
+    /**
+     * Constructs FxWatchdog object with nothing recorded.
+     */
+    private FxWatchdog() {
+        handlers = new ConcurrentHashMap<>();
+        gaps = new LatencyHistogram();
+        stalls = new LongAdder();
+    }
+
+    /**
+     * Gets the watchdog shared by the application.
+     * @return the FxWatchdog instance.
+     */
+    public static FxWatchdog get() {
+        return WATCHDOG;
+    }
+
+    /**
+     * A handler running on the application thread.
+     */
+    private static final class Running {
+        private final String handler;
+        private final int members;
+        private final long start;
+        private volatile boolean reported;
+
+        /**
+         * Constructs Running object.
+         * @param handler name of the handler.
+         * @param members in the database when the handler began.
+         * @param start value of System.nanoTime() when the handler began.
+         */
+        private Running(String handler, int members, long start) {
+            this.handler = handler;
+            this.members = members;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Starts watching the application thread.
+     * Called on the application thread; does nothing if already started.
+     */
+    public synchronized void start() {
+        if ( checker != null ) {
+            return;
+        }
+        fxThread = Thread.currentThread();
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        checker.scheduleAtFixedRate(this::check, CHECK_MILLIS, CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records that a handler began.
+     * @param handler name of the handler.
+     * @param members in the database the handler works on.
+     * @return value of System.nanoTime() when the handler began.
+     */
+    long begin(String handler, int members) {
+        long start = System.nanoTime();
+        running = new Running(handler, members, start);
+        return start;
+    }
+
+    /**
+     * Records that a handler ended, logging it if it stalled the
+     * application thread.
+     * @param start value returned by begin().
+     * @param output length of the text the handler printed.
+     */
+    void end(long start, int output) {
+        Running r = running;
+        running = null;
+        long nanos = System.nanoTime() - start;
+        if ( r == null ) {
+            return;
+        }
+        handlers.computeIfAbsent(r.handler, k -> new LatencyHistogram()).record(nanos);
+        if ( nanos >= STALL_NANOS ) {
+            System.err.printf("FX handler %s took %d ms with %d members, output %d chars%n",
+                    r.handler, nanos / NANOS_PER_MILLI, r.members, output);
+        }
+    }
+
+    /**
+     * Checks for a stalled handler and posts or checks the heartbeat.
+     * Runs on the watchdog thread.
+     */
+    private void check() {
+        long now = System.nanoTime();
+        Running r = running;
+        if ( r != null && !r.reported && now - r.start >= STALL_NANOS ) {
+            r.reported = true;
+            stalls.increment();
+            log("FX handler " + r.handler + " stalled for " + (now - r.start) / NANOS_PER_MILLI
+                    + " ms with " + r.members + " members");
+        }
+        long sent = heartbeat;
+        if ( sent == IDLE ) {
+            heartbeat = now;
+            heartbeatReported = false;
+            Platform.runLater(() -> beat(now));
+        } else if ( r == null && !heartbeatReported && now - sent >= STALL_NANOS ) {
+            heartbeatReported = true;
+            stalls.increment();
+            log("FX thread stalled for " + (now - sent) / NANOS_PER_MILLI + " ms outside handlers");
+        }
+    }
+
+    /**
+     * Records how late a heartbeat ran on the application thread.
+     * @param posted value of System.nanoTime() when the heartbeat was posted.
+     */
+    private void beat(long posted) {
+        gaps.recordSince(posted);
+        heartbeat = IDLE;
+    }
+
+    /**
+     * Logs a stall along with a sample of the application thread's stack.
+     * @param message describing the stall.
+     */
+    private void log(String message) {
+        StringBuilder sb = new StringBuilder(message);
+        Thread t = fxThread;
+        if ( t != null ) {
+            StackTraceElement[] stack = t.getStackTrace();
+            for ( int i = 0; i < stack.length && i < MAX_FRAMES; i++ ) {
+                sb.append("\n\tat ").append(stack[i]);
+            }
+        }
+        System.err.println(sb);
+    }
+
+    /**
+     * Represents the recorded latencies as a report.
+     * @return a line for each handler and for heartbeat delays, with the
+     * count and percentiles in microseconds, and the number of stalls.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder("\n-UI latency-\n");
+        for ( Map.Entry<String, LatencyHistogram> e : new TreeMap<>(handlers).entrySet() ) {
+            sb.append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+        }
+        sb.append("heartbeat delay: ").append(gaps).append('\n');
+        sb.append("stalls over ").append(STALL_MILLIS).append(" ms: ").append(stalls.sum()).append('\n');
+        return sb.append("-end of UI latency-\n").toString();
+    }
+}
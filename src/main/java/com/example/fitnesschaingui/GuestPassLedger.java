@@ -0,0 +1,246 @@
+package com.example.fitnesschaingui;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the guest passes used by each member in each billing period.
+ * A billing period is a calendar month: the first time the ledger is used
+ * in a new month, a new period starts, the same way the membership counts
+ * roll over when the day changes. A period can also be started early.
+ * Every family member has an account holding the billing period it was
+ * last used in and the passes used in that period, packed into one atomic
+ * word so kiosks can use and return passes concurrently without locks.
+ * Starting a new billing period only increments the current period, so it
+ * takes constant time however many members there are: an account from an
+ * older period counts as having used no passes, and its usage is moved to
+ * the account's history the next time it is used. Checking for a new
+ * month only compares the time with the cached start of the next month.
+ * A single instance is shared by the whole application.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class GuestPassLedger {
+    private static final GuestPassLedger LEDGER = new GuestPassLedger();
+
+    private final AtomicInteger period;
+    private final LongSupplier clock;
+    private volatile long nextMonth;
+
+    private static final int FIRST_DAY = 1;
+    private static final int PERIOD_SHIFT = 32;
+    private static final long USED_MASK = 0xffffffffL;
+    private static final int NONE = 0;
+
+    /**
+     * Constructs GuestPassLedger object in the first billing period,
+     * following the system clock.
+     */
+    private GuestPassLedger() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs GuestPassLedger object in the first billing period.
+     * @param clock giving the time in milliseconds since the epoch.
+     */
+    GuestPassLedger(LongSupplier clock) {
+        period = new AtomicInteger();
+        this.clock = clock;
+        nextMonth = nextMonth(clock.getAsLong());
+    }
+
+    /**
+     * Gets the ledger shared by the application.
+     * @return the GuestPassLedger instance.
+     */
+    public static GuestPassLedger get() {
+        return LEDGER;
+    }
+
+    /**
+     * Finds when the month after a time starts.
+     * @param time in milliseconds since the epoch.
+     * @return the start of the next month in milliseconds since the epoch.
+     */
+    private static long nextMonth(long time) {
+        ZoneId zone = ZoneId.systemDefault();
+        return Instant.ofEpochMilli(time).atZone(zone).toLocalDate().withDayOfMonth(FIRST_DAY)
+                .plusMonths(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Gets the current billing period, starting a new one first if the
+     * month changed since the current one started.
+     * @return the number of the period, starting at 0.
+     */
+    public int getPeriod() {
+        if ( clock.getAsLong() >= nextMonth ) {
+            advance();
+        }
+        return period.get();
+    }
+
+    /**
+     * Starts a new billing period if the month changed, once however many
+     * threads notice the change at the same time.
+     */
+    private synchronized void advance() {
+        long now = clock.getAsLong();
+        if ( now >= nextMonth ) {
+            nextMonth = nextMonth(now);
+            rollover();
+        }
+    }
+
+    /**
+     * Starts a new billing period, giving every member their full
+     * allowance of guest passes again.
+     * Happens on its own at the start of every month.
+     * @return the number of the new period.
+     */
+    public int rollover() {
+        int next = period.incrementAndGet();
+        Member.changed();
+        return next;
+    }
+
+    /**
+     * Opens an account for a member with no passes used.
+     * @return the new account.
+     */
+    Account open() {
+        return new Account(this);
+    }
+
+    /**
+     * The guest passes used by one member.
+     */
+    static final class Account {
+        private final GuestPassLedger ledger;
+        private final AtomicLong state;
+        private TreeMap<Integer, Integer> history;
+
+        /**
+         * Constructs Account object with no passes used.
+         * @param ledger keeping the billing periods of the account.
+         */
+        private Account(GuestPassLedger ledger) {
+            this.ledger = ledger;
+            state = new AtomicLong(pack(ledger.getPeriod(), NONE));
+        }
+
+        /**
+         * Gets the number of passes left in the current period.
+         * @param allowance passes per period.
+         * @return the passes left.
+         */
+        int remaining(int allowance) {
+            long s = state.get();
+            return periodOf(s) == ledger.getPeriod() ? allowance - usedOf(s) : allowance;
+        }
+
+        /**
+         * Uses a pass if any is left in the current period.
+         * @param allowance passes per period.
+         * @return true if a pass was used, false if none was left.
+         */
+        boolean use(int allowance) {
+            int current = ledger.getPeriod();
+            while ( true ) {
+                long s = state.get();
+                int used = periodOf(s) == current ? usedOf(s) : NONE;
+                if ( used >= allowance ) {
+                    return false;
+                }
+                if ( state.compareAndSet(s, pack(current, used + 1)) ) {
+                    if ( periodOf(s) != current ) {
+                        archive(periodOf(s), usedOf(s));
+                    }
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Gives back a pass used in the current period.
+         * Passes used in an earlier period aren't given back, since the
+         * allowance was already reset, so a member never has more passes
+         * than the allowance.
+         * @return true if a pass was given back, false otherwise.
+         */
+        boolean giveBack() {
+            int current = ledger.getPeriod();
+            while ( true ) {
+                long s = state.get();
+                if ( periodOf(s) != current || usedOf(s) == NONE ) {
+                    return false;
+                }
+                if ( state.compareAndSet(s, s - 1) ) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Records the passes used in a period that ended.
+         * @param period that ended.
+         * @param used passes in the period.
+         */
+        private synchronized void archive(int period, int used) {
+            if ( used == NONE ) {
+                return;
+            }
+            if ( history == null ) {
+                history = new TreeMap<>();
+            }
+            history.put(period, used);
+        }
+
+        /**
+         * Gets the passes used in every period any were used.
+         * @return a map from period to passes used, in period order.
+         */
+        synchronized Map<Integer, Integer> history() {
+            TreeMap<Integer, Integer> all = history == null ? new TreeMap<>() : new TreeMap<>(history);
+            long s = state.get();
+            if ( usedOf(s) != NONE ) {
+                all.put(periodOf(s), usedOf(s));
+            }
+            return Collections.unmodifiableMap(all);
+        }
+    }
+
+    /**
+     * Packs a period and the passes used in it into one word.
+     * @param period the billing period.
+     * @param used passes in the period.
+     * @return the packed state.
+     */
+    private static long pack(int period, int used) {
+        return (long) period << PERIOD_SHIFT | used;
+    }
+
+    /**
+     * Gets the period of a packed state.
+     * @param state packed by pack().
+     * @return the billing period.
+     */
+    private static int periodOf(long state) {
+        return (int) (state >>> PERIOD_SHIFT);
+    }
+
+    /**
+     * Gets the passes used of a packed state.
+     * @param state packed by pack().
+     * @return the passes used.
+     */
+    private static int usedOf(long state) {
+        return (int) (state & USED_MASK);
+    }
+}
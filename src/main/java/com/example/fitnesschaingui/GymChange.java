@@ -0,0 +1,123 @@
+package com.example.fitnesschaingui;
+
+/**
+ * Represents a single change to the memberships or class rosters.
+ * Published to the subscribers of a GymChangePublisher whenever a member
+ * is added or removed, a membership's expiration date changes, or a
+ * member or guest is checked in or out of a class.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class GymChange {
+    private final Type type;
+    private final Member member;
+    private final FitnessClass course;
+    private final Date expire;
+    private final long time;
+
+    /**
+     * Kinds of changes.
+     */
+    public enum Type {
+        /**
+         * A member was added to the database.
+         */
+        MEMBER_ADDED,
+        /**
+         * A member was removed from the database.
+         */
+        MEMBER_REMOVED,
+        /**
+         * The expiration date of a membership changed.
+         */
+        EXPIRATION_CHANGED,
+        /**
+         * A member was checked in to a class.
+         */
+        CHECKED_IN,
+        /**
+         * A member was checked out of a class.
+         */
+        CHECKED_OUT,
+        /**
+         * The guest of a member was checked in to a class.
+         */
+        GUEST_CHECKED_IN,
+        /**
+         * The guest of a member was checked out of a class.
+         */
+        GUEST_CHECKED_OUT
+    }
+
+    /**
+     * Constructs GymChange object stamped with the current time.
+     * The expiration date is copied from the member when the change is
+     * created, so later changes to the member don't alter the event.
+     * @param type of the change.
+     * @param member the change applies to.
+     * @param course the member was checked in to or out of, null for
+     * membership changes.
+     */
+    public GymChange(Type type, Member member, FitnessClass course) {
+        this.type = type;
+        this.member = member;
+        this.course = course;
+        this.expire = new Date(member.getExpire().toString());
+        this.time = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the kind of change.
+     * @return the type property.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the member the change applies to.
+     * @return the member property.
+     */
+    public Member getMember() {
+        return member;
+    }
+
+    /**
+     * Gets the class of a check-in or check-out.
+     * @return the course property, null for membership changes.
+     */
+    public FitnessClass getCourse() {
+        return course;
+    }
+
+    /**
+     * Gets the expiration date of the membership when the change happened.
+     * @return the expire property.
+     */
+    public Date getExpire() {
+        return expire;
+    }
+
+    /**
+     * Gets the time of the change.
+     * @return milliseconds since the epoch when the change happened.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Represents the change as a string.
+     * @return the type, the member's name, and the class if there is one.
+     */
+    @Override
+    public String toString() {
+        String output = type + " " + member.getFName() + " " + member.getLName()
+                + " " + member.getDOB();
+        if ( course != null ) {
+            output += " " + course.fullName();
+        } else if ( type == Type.EXPIRATION_CHANGED ) {
+            output += " expires " + expire;
+        }
+        return output;
+    }
+}
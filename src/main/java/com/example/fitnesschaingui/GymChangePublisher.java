@@ -0,0 +1,92 @@
+package com.example.fitnesschaingui;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the changes to the memberships and class rosters as a
+ * reactive stream.
+ * Each subscriber gets its own bounded buffer and receives changes on a
+ * worker thread at the rate it requests them. Publishing never blocks:
+ * when a subscriber's buffer is full the change is dropped for that
+ * subscriber and counted, so a slow consumer can't stall the front desk.
+ * Changes are only built while there are subscribers.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class GymChangePublisher implements Flow.Publisher<GymChange>, AutoCloseable {
+    private final SubmissionPublisher<GymChange> publisher;
+    private final LongAdder dropped;
+
+    /**
+     * Constructs GymChangePublisher object with the default buffer size.
+     */
+    public GymChangePublisher() {
+        this(Flow.defaultBufferSize());
+    }
+
+    /**
+     * Constructs GymChangePublisher object.
+     * @param bufferSize the most changes buffered for each subscriber,
+     * rounded up to a power of two.
+     */
+    public GymChangePublisher(int bufferSize) {
+        publisher = new SubmissionPublisher<>(
+                ForkJoinPool.commonPool(), bufferSize);
+        dropped = new LongAdder();
+    }
+
+    /**
+     * Adds a subscriber.
+     * The subscriber receives the changes published after it subscribes.
+     * @param subscriber to add.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super GymChange> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Checks if anyone is subscribed.
+     * @return true if there is at least one subscriber, false otherwise.
+     */
+    public boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    /**
+     * Publishes a change to every subscriber.
+     * Does nothing if there are no subscribers or the publisher is closed.
+     * @param type of the change.
+     * @param member the change applies to.
+     * @param course of a check-in or check-out, null for membership changes.
+     */
+    public void publish(GymChange.Type type, Member member, FitnessClass course) {
+        if ( publisher.isClosed() || !publisher.hasSubscribers() ) {
+            return;
+        }
+        publisher.offer(new GymChange(type, member, course), (subscriber, change) -> {
+            dropped.increment();
+            return false;
+        });
+    }
+
+    /**
+     * Gets the number of changes dropped because a buffer was full.
+     * A change dropped for several subscribers counts once for each.
+     * @return the number of dropped changes.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Completes the stream of every subscriber once their buffered changes
+     * are delivered.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
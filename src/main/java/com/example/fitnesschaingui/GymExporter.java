@@ -0,0 +1,412 @@
+package com.example.fitnesschaingui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports members, the class schedule, and class rosters to files.
+ * Rows are written as CSV with a header line or as JSON Lines, one object
+ * per line, optionally gzip-compressed. Each row is formatted into a
+ * reused buffer and streamed straight to the file channel, so memory use
+ * stays the same however many rows are exported.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class GymExporter {
+    private final Format format;
+    private final boolean gzip;
+
+    private static final String[] MEMBER_FIELDS = {"fname", "lname", "dob",
+            "expire", "expired", "location", "type", "guestPasses", "firstFee",
+            "nextFee"};
+    private static final String[] CLASS_FIELDS = {"name", "instructor", "time",
+            "location", "participants", "guests"};
+    private static final String[] ROSTER_FIELDS = {"name", "instructor", "time",
+            "location", "role", "fname", "lname", "dob"};
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int ROW_SIZE = 256;
+    private static final int MAX_BYTES_PER_CHAR = 3;
+    private static final char ASCII_END = 0x80;
+    private static final int ARG_KIND = 0;
+    private static final int ARG_FILE = 1;
+    private static final int ARG_FORMAT = 2;
+    private static final int ARG_MEMBERS = 3;
+    private static final int ARG_SCHEDULE = 4;
+    private static final int FIRST_FEE = 0;
+    private static final int NEXT_FEE = 1;
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double BYTES_PER_MB = 1_000_000.0;
+
+    /**
+     * File formats of the exports.
+     */
+    public enum Format {
+        /**
+         * Comma separated values with a header line.
+         */
+        CSV,
+        /**
+         * One JSON object per line.
+         */
+        JSON_LINES
+    }
+
+    /**
+     * Constructs GymExporter object.
+     * @param format of the exported files.
+     * @param gzip true to compress the exported files with gzip.
+     */
+    public GymExporter(Format format, boolean gzip) {
+        this.format = format;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Exports every member with their membership status and fees.
+     * Fees only depend on the membership type, so they are formatted once
+     * per type. Walks the slots of the database in place, skipping the
+     * slots of removed members.
+     * @param db to export the members of.
+     * @param file to write, replaced if it exists.
+     * @return the number of rows written.
+     * @throws IOException if writing fails.
+     */
+    public long exportMembers(MemberDatabase db, Path file) throws IOException {
+        Date today = new Date();
+        EnumMap<MembershipType, String[]> fees = new EnumMap<>(MembershipType.class);
+        List<Member> slots = db.slots();
+        try ( RowWriter rows = new RowWriter(open(file), MEMBER_FIELDS) ) {
+            for ( int i = 0; i < slots.size(); i++ ) {
+                Member m = slots.get(i);
+                if ( m == null ) {
+                    continue;
+                }
+                MembershipType type = MembershipType.of(m);
+                String[] fee = fees.computeIfAbsent(type, t -> new String[] {
+                        String.valueOf(m.membershipFee(true)),
+                        String.valueOf(m.membershipFee(false))});
+                rows.string(m.getFName());
+                rows.string(m.getLName());
+                rows.string(m.getDOB().toString());
+                rows.string(m.getExpire().toString());
+                rows.value(m.isExpired(today));
+                rows.string(m.getLocation().name());
+                rows.string(type.name());
+                rows.value(m instanceof Family ? ((Family) m).getGuestPasses() : 0);
+                rows.number(fee[FIRST_FEE]);
+                rows.number(fee[NEXT_FEE]);
+                rows.end();
+            }
+            return rows.count;
+        }
+    }
+
+    /**
+     * Exports every class in the schedule with the size of its roster.
+     * @param schedule to export.
+     * @param file to write, replaced if it exists.
+     * @return the number of rows written.
+     * @throws IOException if writing fails.
+     */
+    public long exportSchedule(ClassSchedule schedule, Path file) throws IOException {
+        try ( RowWriter rows = new RowWriter(open(file), CLASS_FIELDS) ) {
+            for ( FitnessClass c : schedule.classes() ) {
+                classFields(rows, c);
+                rows.value(c.getParticipants().size());
+                rows.value(c.getGuests().size());
+                rows.end();
+            }
+            return rows.count;
+        }
+    }
+
+    /**
+     * Exports the rosters of every class.
+     * Writes a row for each participant and for the host of each guest.
+     * @param schedule to export the rosters of.
+     * @param file to write, replaced if it exists.
+     * @return the number of rows written.
+     * @throws IOException if writing fails.
+     */
+    public long exportRosters(ClassSchedule schedule, Path file) throws IOException {
+        try ( RowWriter rows = new RowWriter(open(file), ROSTER_FIELDS) ) {
+            for ( FitnessClass c : schedule.classes() ) {
+                rosterRows(rows, c, "participant", c.getParticipants());
+                rosterRows(rows, c, "guest", c.getGuests());
+            }
+            return rows.count;
+        }
+    }
+
+    /**
+     * Writes the roster rows of one list of a class.
+     * @param rows to write to.
+     * @param c the class.
+     * @param role of the members in the list.
+     * @param members in the list.
+     * @throws IOException if writing fails.
+     */
+    private static void rosterRows(RowWriter rows, FitnessClass c, String role,
+                                   List<Member> members) throws IOException {
+        for ( Member m : members ) {
+            classFields(rows, c);
+            rows.string(role);
+            rows.string(m.getFName());
+            rows.string(m.getLName());
+            rows.string(m.getDOB().toString());
+            rows.end();
+        }
+    }
+
+    /**
+     * Writes the fields identifying a class.
+     * @param rows to write to.
+     * @param c the class.
+     */
+    private static void classFields(RowWriter rows, FitnessClass c) {
+        rows.string(c.getName());
+        rows.string(c.getInstructor());
+        rows.string(c.getTime().name());
+        rows.string(c.getLocation().name());
+    }
+
+    /**
+     * Opens a file for writing through its channel.
+     * Compresses at the fastest level, since exports are usually large and
+     * text compresses well even then.
+     * @param file to open, replaced if it exists.
+     * @return a stream to the file, compressing if enabled.
+     * @throws IOException if the file can't be opened.
+     */
+    private OutputStream open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        OutputStream out = Channels.newOutputStream(channel);
+        if ( gzip ) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            };
+        }
+        return out;
+    }
+
+    /**
+     * Formats rows into a reused buffer and writes them out in large
+     * blocks.
+     * Rows are encoded to UTF-8 straight into the output buffer, taking a
+     * fast path for the usual rows that are plain ASCII.
+     */
+    private final class RowWriter implements AutoCloseable {
+        private final OutputStream out;
+        private final String[] keys;
+        private final StringBuilder sb;
+        private final byte[] buffer;
+        private int position;
+        private int column;
+        private long count;
+
+        /**
+         * Constructs RowWriter object and writes the CSV header.
+         * @param out to write the rows to.
+         * @param fields names of the fields of each row.
+         * @throws IOException if writing fails.
+         */
+        private RowWriter(OutputStream out, String[] fields) throws IOException {
+            this.out = out;
+            sb = new StringBuilder(ROW_SIZE);
+            buffer = new byte[BUFFER_SIZE];
+            keys = new String[fields.length];
+            for ( int i = 0; i < fields.length; i++ ) {
+                keys[i] = Json.quote(new StringBuilder(), fields[i]).append(':').toString();
+            }
+            if ( format == Format.CSV ) {
+                sb.append(String.join(",", fields)).append('\n');
+                write();
+            }
+        }
+
+        /**
+         * Starts the next field of the row.
+         */
+        private void next() {
+            if ( format == Format.CSV ) {
+                if ( column > 0 ) {
+                    sb.append(',');
+                }
+            } else {
+                sb.append(column == 0 ? '{' : ',').append(keys[column]);
+            }
+            column++;
+        }
+
+        /**
+         * Adds a string field to the row.
+         * CSV fields are quoted when they contain a comma, quote, or line
+         * break.
+         * @param value of the field.
+         */
+        private void string(String value) {
+            next();
+            if ( format == Format.JSON_LINES ) {
+                Json.quote(sb, value);
+            } else if ( value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0 ) {
+                sb.append(value);
+            } else {
+                sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+        }
+
+        /**
+         * Adds a boolean field to the row.
+         * @param value of the field.
+         */
+        private void value(boolean value) {
+            next();
+            sb.append(value);
+        }
+
+        /**
+         * Adds an integer field to the row.
+         * @param value of the field.
+         */
+        private void value(int value) {
+            next();
+            sb.append(value);
+        }
+
+        /**
+         * Adds an already formatted number to the row.
+         * @param value of the field.
+         */
+        private void number(String value) {
+            next();
+            sb.append(value);
+        }
+
+        /**
+         * Ends the row and writes it out.
+         * @throws IOException if writing fails.
+         */
+        private void end() throws IOException {
+            if ( format == Format.JSON_LINES ) {
+                sb.append('}');
+            }
+            sb.append('\n');
+            write();
+            column = 0;
+            count++;
+        }
+
+        /**
+         * Moves the formatted text into the output buffer and clears it.
+         * Writes the buffer out first if the text might not fit, and writes
+         * text too large for the buffer out directly.
+         * @throws IOException if writing fails.
+         */
+        private void write() throws IOException {
+            int length = sb.length();
+            if ( position + length * MAX_BYTES_PER_CHAR > buffer.length ) {
+                flush();
+                if ( length * MAX_BYTES_PER_CHAR > buffer.length ) {
+                    out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+                    sb.setLength(0);
+                    return;
+                }
+            }
+            int start = position;
+            for ( int i = 0; i < length; i++ ) {
+                char c = sb.charAt(i);
+                if ( c >= ASCII_END ) {
+                    byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+                    System.arraycopy(bytes, 0, buffer, start, bytes.length);
+                    position = start + bytes.length;
+                    break;
+                }
+                buffer[position++] = (byte) c;
+            }
+            sb.setLength(0);
+        }
+
+        /**
+         * Writes out the output buffer.
+         * @throws IOException if writing fails.
+         */
+        private void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+        /**
+         * Flushes the remaining rows and closes the file.
+         * @throws IOException if writing fails.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Exports members, the schedule, or rosters to a file.
+     * Arguments are "members", "schedule", or "rosters", the file to write,
+     * optionally "csv" or "jsonl", and a member file and a schedule file to
+     * load instead of the bundled data files. Files ending in .gz are
+     * compressed.
+     * @param args from the command line.
+     * @throws IOException if reading or writing fails.
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args[ARG_FILE]);
+        Format format = args.length > ARG_FORMAT && args[ARG_FORMAT].equalsIgnoreCase("jsonl")
+                ? Format.JSON_LINES : Format.CSV;
+        GymManager gym = new GymManager();
+        if ( args.length > ARG_MEMBERS ) {
+            gym.getDatabase().loadMembers(new File(args[ARG_MEMBERS]));
+        } else {
+            gym.getDatabase().loadMembers();
+        }
+        if ( args.length > ARG_SCHEDULE ) {
+            gym.getSchedule().loadSchedule(new File(args[ARG_SCHEDULE]));
+        } else {
+            gym.getSchedule().loadSchedule();
+        }
+        GymExporter exporter = new GymExporter(format, file.toString().endsWith(GZIP_SUFFIX));
+        long start = System.nanoTime();
+        long rows;
+        switch ( args[ARG_KIND] ) {
+            case "members":
+                rows = exporter.exportMembers(gym.getDatabase(), file);
+                break;
+            case "schedule":
+                rows = exporter.exportSchedule(gym.getSchedule(), file);
+                break;
+            case "rosters":
+                rows = exporter.exportRosters(gym.getSchedule(), file);
+                break;
+            default:
+                System.err.println(args[ARG_KIND] + " is not members, schedule, or rosters!");
+                return;
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        long bytes = file.toFile().length();
+        System.err.printf("Exported %d rows, %d bytes in %.3f s (%.1f MB/s)%n",
+                rows, bytes, seconds, bytes / seconds / BYTES_PER_MB);
+    }
+}
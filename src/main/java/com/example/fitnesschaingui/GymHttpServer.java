@@ -0,0 +1,412 @@
+package com.example.fitnesschaingui;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Embedded HTTP API for turnstile kiosks.
+ * Serves member lookup, add, remove, check-in, check-out and batches of
+ * commands as JSON on the loopback interface. Each request runs on a
+ * virtual thread when the runtime supports them, and connections are kept
+ * alive between requests. Operations on the GymManager are serialized by
+ * holding its lock, which unlike synchronizing on it doesn't pin the
+ * carrier thread of a waiting virtual thread. Requests that are rejected
+ * respond with a 4xx status: 400 for missing or invalid input, 403 when
+ * the membership doesn't allow it, 404 when the member, class, or
+ * check-in doesn't exist, and 409 when it conflicts with the current
+ * state.
+ *
+ * Endpoints, with parameters in the query string:
+ * GET /members?fname&amp;lname&amp;dob looks up a member,
+ * POST /members?fname&amp;lname&amp;dob&amp;location&amp;type adds a member,
+ * DELETE /members?fname&amp;lname&amp;dob removes a member,
+ * POST /checkin and POST /checkout with
+ * class&amp;instructor&amp;location&amp;fname&amp;lname&amp;dob&amp;guest,
+ * POST /batch with one GymManager command per line of the body.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class GymHttpServer {
+    private final GymManager gym;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ReentrantLock lock;
+
+    private static final int OK = 200;
+    private static final int BAD_REQUEST = 400;
+    private static final int FORBIDDEN = 403;
+    private static final int NOT_FOUND = 404;
+    private static final int BAD_METHOD = 405;
+    private static final int CONFLICT = 409;
+    private static final int BACKLOG = 1024;
+    private static final int DEFAULT_PORT = 8080;
+    private static final int STOP_DELAY = 1;
+    private static final int ARG_PORT = 0;
+    private static final int ARG_MEMBERS = 1;
+    private static final int ARG_SCHEDULE = 2;
+
+    /**
+     * Constructs GymHttpServer object bound to the loopback interface.
+     * The server doesn't accept requests until it is started.
+     * @param gym to serve.
+     * @param port to listen on, 0 to pick a free port.
+     * @throws IOException if the port can't be bound.
+     */
+    public GymHttpServer(GymManager gym, int port) throws IOException {
+        this.gym = gym;
+        lock = gym.getLock();
+        server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/members", this::handleMembers);
+        server.createContext("/checkin", exchange -> handleCheckIn(exchange, false));
+        server.createContext("/checkout", exchange -> handleCheckIn(exchange, true));
+        server.createContext("/batch", this::handleBatch);
+    }
+
+    /**
+     * Creates the executor running the requests.
+     * Uses a virtual thread per request when the runtime provides them and
+     * falls back to a cached pool of platform threads otherwise.
+     * @return the executor.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch ( NoSuchMethodException | IllegalAccessException
+                  | InvocationTargetException e ) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to a second for the requests
+     * in progress to finish.
+     */
+    public void stop() {
+        server.stop(STOP_DELAY);
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return the bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handles requests to /members.
+     * @param exchange the request and response.
+     * @throws IOException if the response can't be sent.
+     */
+    private void handleMembers(HttpExchange exchange) throws IOException {
+        Map<String, String> params = params(exchange);
+        if ( params == null ) {
+            return;
+        }
+        String fName = params.getOrDefault("fname", "");
+        String lName = params.getOrDefault("lname", "");
+        String dob = params.get("dob");
+        StringBuilder sb = new StringBuilder();
+        switch ( exchange.getRequestMethod() ) {
+            case "GET":
+                boolean found = locked(() -> {
+                    Member m = gym.lookup(fName, lName, dob);
+                    if ( m != null ) {
+                        Json.member(sb, m);
+                    }
+                    return m != null;
+                });
+                if ( !found ) {
+                    sb.append("{\"message\":");
+                    Json.quote(sb, fName + " " + lName + " is not in the database.");
+                    send(exchange, NOT_FOUND, sb.append('}'));
+                } else {
+                    send(exchange, OK, sb);
+                }
+                return;
+            case "POST":
+                MembershipType type = type(params.getOrDefault("type", "STANDARD"));
+                MemberResult added = locked(() -> gym.addMember(fName, lName, dob,
+                        params.getOrDefault("location", ""), type));
+                send(exchange, status(added.getOutcome()), message(sb, added.getMessage()));
+                return;
+            case "DELETE":
+                MemberResult removed = locked(() -> gym.removeMember(fName, lName, dob));
+                send(exchange, status(removed.getOutcome()), message(sb, removed.getMessage()));
+                return;
+            default:
+                send(exchange, BAD_METHOD, message(sb, "Method not allowed."));
+        }
+    }
+
+    /**
+     * Handles requests to /checkin and /checkout.
+     * @param exchange the request and response.
+     * @param done true to check out, false to check in.
+     * @throws IOException if the response can't be sent.
+     */
+    private void handleCheckIn(HttpExchange exchange, boolean done) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if ( !exchange.getRequestMethod().equals("POST") ) {
+            send(exchange, BAD_METHOD, message(sb, "Method not allowed."));
+            return;
+        }
+        Map<String, String> params = params(exchange);
+        if ( params == null ) {
+            return;
+        }
+        String fName = params.getOrDefault("fname", "");
+        String lName = params.getOrDefault("lname", "");
+        String dob = params.get("dob");
+        String course = params.getOrDefault("class", "");
+        String instructor = params.getOrDefault("instructor", "");
+        String location = params.getOrDefault("location", "");
+        boolean guest = Boolean.parseBoolean(params.get("guest"));
+        CheckInResult result = locked(() -> done
+                ? gym.done(fName, lName, dob, course, instructor, location, guest)
+                : gym.checkIn(fName, lName, dob, course, instructor, location, guest));
+        sb.append("{\"outcome\":");
+        Json.quote(sb, result.getOutcome().name());
+        sb.append(",\"success\":").append(result.isSuccess());
+        if ( result.getConflict() != null ) {
+            sb.append(",\"conflict\":");
+            Json.quote(sb, result.getConflict().fullName());
+        }
+        sb.append(",\"message\":");
+        Json.quote(sb, result.getMessage());
+        send(exchange, status(result.getOutcome()), sb.append('}'));
+    }
+
+    /**
+     * Gets the HTTP status of adding or removing a member.
+     * @param outcome of the add or remove.
+     * @return 200 on success, otherwise the 4xx status of the rejection.
+     */
+    private static int status(MemberResult.Outcome outcome) {
+        switch ( outcome ) {
+            case ADDED:
+            case REMOVED:
+                return OK;
+            case NOT_IN_DATABASE:
+                return NOT_FOUND;
+            case ALREADY_IN_DATABASE:
+                return CONFLICT;
+            default:
+                return BAD_REQUEST;
+        }
+    }
+
+    /**
+     * Gets the HTTP status of a check-in or check-out outcome.
+     * @param outcome of the check-in or check-out.
+     * @return 200 on success, otherwise the 4xx status of the rejection.
+     */
+    private static int status(CheckInResult.Outcome outcome) {
+        switch ( outcome ) {
+            case CHECKED_IN:
+            case GUEST_CHECKED_IN:
+            case DONE:
+            case GUEST_DONE:
+                return OK;
+            case MISSING_DATE:
+            case INVALID_LOCATION:
+            case MISSING_NAME:
+            case INVALID_DATE:
+                return BAD_REQUEST;
+            case NOT_IN_DATABASE:
+            case NO_INSTRUCTOR:
+            case NO_CLASS:
+            case NOT_AT_LOCATION:
+            case NOT_CHECKED_IN:
+            case GUEST_NOT_CHECKED_IN:
+                return NOT_FOUND;
+            case TIME_CONFLICT:
+            case ALREADY_CHECKED_IN:
+                return CONFLICT;
+            default:
+                return FORBIDDEN;
+        }
+    }
+
+    /**
+     * Runs an operation on the GymManager while holding its lock.
+     * @param action the operation.
+     * @param <T> type of the result.
+     * @return the result of the operation.
+     */
+    private <T> T locked(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Handles requests to /batch.
+     * Runs every command line of the body while holding the lock of the
+     * GymManager once, and responds with the outputs of the commands in
+     * order. The batch itself always succeeds, whatever the commands
+     * print.
+     * @param exchange the request and response.
+     * @throws IOException if the request can't be read or the response
+     * can't be sent.
+     */
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if ( !exchange.getRequestMethod().equals("POST") ) {
+            send(exchange, BAD_METHOD, message(sb, "Method not allowed."));
+            return;
+        }
+        List<String> commands = new ArrayList<>();
+        String body = new String(exchange.getRequestBody().readAllBytes(),
+                StandardCharsets.UTF_8);
+        for ( String line : body.split("\\R") ) {
+            if ( !line.isBlank() ) {
+                commands.add(line);
+            }
+        }
+        sb.append('[');
+        lock.lock();
+        try {
+            for ( int i = 0; i < commands.size(); i++ ) {
+                if ( i > 0 ) {
+                    sb.append(',');
+                }
+                Json.quote(sb, gym.execute(commands.get(i)));
+            }
+        } finally {
+            lock.unlock();
+        }
+        send(exchange, OK, sb.append(']'));
+    }
+
+    /**
+     * Parses a membership type.
+     * @param type name of the type regardless of case.
+     * @return the membership type, null if there is none by that name.
+     */
+    private static MembershipType type(String type) {
+        for ( MembershipType t : MembershipType.values() ) {
+            if ( t.name().equals(type.toUpperCase()) ) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends a message as a JSON object.
+     * @param sb to append to.
+     * @param message to append, trailing newlines are removed.
+     * @return the StringBuilder.
+     */
+    private static StringBuilder message(StringBuilder sb, String message) {
+        sb.append("{\"message\":");
+        Json.quote(sb, message.stripTrailing());
+        return sb.append('}');
+    }
+
+    /**
+     * Parses the query string of a request.
+     * Answers 400 if the query has a malformed escape, such as "%zz".
+     * @param exchange the request.
+     * @return the decoded parameters by name, null if the query was
+     * malformed and the response was sent.
+     * @throws IOException if the response can't be sent.
+     */
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if ( query == null ) {
+            return params;
+        }
+        try {
+            for ( String pair : query.split("&") ) {
+                int eq = pair.indexOf('=');
+                String name = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        } catch ( IllegalArgumentException e ) {
+            send(exchange, BAD_REQUEST, message(new StringBuilder(),
+                    "Malformed query: " + e.getMessage()));
+            return null;
+        }
+        return params;
+    }
+
+    /**
+     * Sends a JSON response.
+     * Drains the request body first so the connection can be reused.
+     * @param exchange the request and response.
+     * @param status HTTP status code.
+     * @param body of the response.
+     * @throws IOException if the response can't be sent.
+     */
+    private static void send(HttpExchange exchange, int status, CharSequence body)
+            throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try ( OutputStream out = exchange.getResponseBody() ) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Starts the HTTP API.
+     * Arguments are optionally the port, a member file, and a schedule file
+     * to load; without files the bundled data files are loaded.
+     * @param args from the command line.
+     * @throws IOException if the port can't be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > ARG_PORT ? Integer.parseInt(args[ARG_PORT]) : DEFAULT_PORT;
+        GymManager gym = new GymManager();
+        if ( args.length > ARG_MEMBERS ) {
+            gym.getDatabase().loadMembers(new File(args[ARG_MEMBERS]));
+        } else {
+            gym.getDatabase().loadMembers();
+        }
+        if ( args.length > ARG_SCHEDULE ) {
+            gym.getSchedule().loadSchedule(new File(args[ARG_SCHEDULE]));
+        } else {
+            gym.getSchedule().loadSchedule();
+        }
+        GymHttpServer server = new GymHttpServer(gym, port);
+        server.start();
+        System.out.println("Gym Manager API listening on http://localhost:" + server.getPort());
+    }
+}
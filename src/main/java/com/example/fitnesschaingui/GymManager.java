@@ -0,0 +1,891 @@
+package com.example.fitnesschaingui;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Headless engine for the Gym Manager.
+ * Holds the member database and class schedule and implements every
+ * operation offered by the GUI, returning the exact text the GUI would
+ * print. Also processes streams of typed commands so the same logic can
+ * be driven from scripts and batch jobs without JavaFX.
+ * Threads sharing a GymManager, such as the HTTP API, replication, and
+ * file sync, hold its lock while using it.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class GymManager {
+    private MemberDatabase db;
+    private ClassSchedule classes;
+    private RevenueForecast forecast;
+    private final ReentrantLock lock;
+
+    private static final int COMMAND = 0;
+    private static final int FIRST_ARG = 1;
+    private static final int MEMBER_FNAME = 1;
+    private static final int MEMBER_LNAME = 2;
+    private static final int MEMBER_DOB = 3;
+    private static final int MEMBER_LOCATION = 4;
+    private static final int CLASS_NAME = 1;
+    private static final int CLASS_INSTRUCTOR = 2;
+    private static final int CLASS_LOCATION = 3;
+    private static final int CLASS_FNAME = 4;
+    private static final int CLASS_LNAME = 5;
+    private static final int CLASS_DOB = 6;
+    private static final int ARCHIVE_BEFORE = 1;
+    private static final int ARCHIVE_DIR = 1;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double MILLIS_PER_SECOND = 1000.0;
+    private static final String QUIT = "Q";
+    private static final String STANDARD_INPUT = "-";
+
+    /**
+     * Constructs GymManager object.
+     * Creates new member database and class schedule objects and the
+     * lock shared by the threads using them, and exposes the operation
+     * metrics over JMX.
+     */
+    public GymManager() {
+        db = new MemberDatabase();
+        classes = new ClassSchedule(db);
+        lock = new ReentrantLock();
+        GymMetrics.register();
+    }
+
+    /**
+     * Gets the lock held by every thread using this GymManager.
+     * A ReentrantLock rather than the monitor of the GymManager, so virtual
+     * threads waiting for it don't pin their carrier threads.
+     * @return the lock property.
+     */
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    /**
+     * Adds a new member of the given membership type.
+     * Performs the same validation as the Membership tab of the GUI.
+     * @param fName first name of the member.
+     * @param lName last name of the member.
+     * @param dob date of birth as "mm/dd/yyyy", null if none was picked.
+     * @param location name of the member's gym location.
+     * @param type of membership, null if none was chosen.
+     * @return the result describing the outcome.
+     */
+    public MemberResult addMember(String fName, String lName, String dob,
+                                  String location, MembershipType type) {
+        MemberResult invalid = validateMember(fName, lName, dob);
+        if ( invalid != null ) {
+            return invalid;
+        }
+        Date date = parseDate(dob);
+        if ( date == null || !date.isValid() ) {
+            return new MemberResult(MemberResult.Outcome.INVALID_DATE, null,
+                    "DOB " + dob + " invalid calendar date!\n");
+        }
+        Location validatedLoc = parseLocation(location);
+        if ( validatedLoc == null ) {
+            return new MemberResult(MemberResult.Outcome.INVALID_LOCATION, null,
+                    location + ": invalid location!\n");
+        } else if ( type == null ) {
+            return new MemberResult(MemberResult.Outcome.MISSING_TYPE, null,
+                    "Please choose a membership type!\n");
+        }
+
+        Member m = type.create(fName, lName, date, validatedLoc);
+        if ( !m.isValidDOB() ) {
+            return new MemberResult(MemberResult.Outcome.FUTURE_DATE, null,
+                    "DOB " + date + ": cannot be today or a future date!\n");
+        } else if ( !m.isAdult() ) {
+            return new MemberResult(MemberResult.Outcome.UNDERAGE, null,
+                    "DOB " + date + ": must be 18 or older to join!\n");
+        } else if ( !db.add(m) ) {
+            return new MemberResult(MemberResult.Outcome.ALREADY_IN_DATABASE, null,
+                    fName + " " + lName + " is already in the database.\n");
+        }
+        return new MemberResult(MemberResult.Outcome.ADDED, m, fName + " " + lName + " added.\n");
+    }
+
+    /**
+     * Removes an existing member.
+     * @param fName first name of the member.
+     * @param lName last name of the member.
+     * @param dob date of birth as "mm/dd/yyyy", null if none was picked.
+     * @return the result describing the outcome.
+     */
+    public MemberResult removeMember(String fName, String lName, String dob) {
+        MemberResult invalid = validateMember(fName, lName, dob);
+        if ( invalid != null ) {
+            return invalid;
+        }
+        Date date = parseDate(dob);
+        if ( date == null ) {
+            return new MemberResult(MemberResult.Outcome.INVALID_DATE, null,
+                    "DOB " + dob + " invalid calendar date!\n");
+        }
+        Member m = new Member(fName, lName, date, null, null);
+        if ( !db.remove(m) ) {
+            return new MemberResult(MemberResult.Outcome.NOT_IN_DATABASE, null,
+                    fName + " " + lName + " is not in the database.\n");
+        }
+        return new MemberResult(MemberResult.Outcome.REMOVED, m,
+                fName + " " + lName + " removed.\n");
+    }
+
+    /**
+     * Looks up a member by their identifying properties.
+     * @param fName first name of the member.
+     * @param lName last name of the member.
+     * @param dob date of birth as "mm/dd/yyyy".
+     * @return the member in the database, null if there is none or the
+     * date can't be parsed.
+     */
+    public Member lookup(String fName, String lName, String dob) {
+        Date date = dob == null ? null : parseDate(dob);
+        if ( date == null ) {
+            return null;
+        }
+        return db.getMemberData(new Member(fName, lName, date, null, null));
+    }
+
+    /**
+     * Validates the identifying fields of a member.
+     * Checks if the member has a name and a date.
+     * @param fName first name of the member.
+     * @param lName last name of the member.
+     * @param dob date of birth, null if none was picked.
+     * @return the rejection, null if the fields are present.
+     */
+    private MemberResult validateMember(String fName, String lName, String dob) {
+        if ( fName.equals("") || lName.equals("") ) {
+            return new MemberResult(MemberResult.Outcome.MISSING_NAME, null,
+                    "Please enter both a first and last name.\n");
+        } else if ( dob == null ) {
+            return new MemberResult(MemberResult.Outcome.MISSING_DATE, null,
+                    "Please pick a date!\n");
+        }
+        return null;
+    }
+
+    /**
+     * Checks a member, or the guest of a member, into a fitness class.
+     * Performs the same validation as the Fitness Class tab of the GUI.
+     * @param fName first name of the member.
+     * @param lName last name of the member.
+     * @param dob date of birth as "mm/dd/yyyy", null if none was picked.
+     * @param course name of the class.
+     * @param instructor of the class.
+     * @param location of the class.
+     * @param guest true to check in the member's guest.
+     * @return the result describing the outcome.
+     */
+    public CheckInResult checkIn(String fName, String lName, String dob,
+                                 String course, String instructor,
+                                 String location, boolean guest) {
+        CheckInEvent event = new CheckInEvent();
+        event.begin();
+        long start = System.nanoTime();
+        CheckInResult result = process(false, fName, lName, dob, course,
+                instructor, location, guest);
+        GymMetrics.get().recordCheckIn(result.getOutcome(), start);
+        commit(event, false, guest, course, location, result);
+        return result;
+    }
+
+    /**
+     * Checks a member, or the guest of a member, out of a fitness class.
+     * Performs the same validation as the Fitness Class tab of the GUI.
+     * @param fName first name of the member.
+     * @param lName last name of the member.
+     * @param dob date of birth as "mm/dd/yyyy", null if none was picked.
+     * @param course name of the class.
+     * @param instructor of the class.
+     * @param location of the class.
+     * @param guest true to check out the member's guest.
+     * @return the result describing the outcome.
+     */
+    public CheckInResult done(String fName, String lName, String dob,
+                              String course, String instructor,
+                              String location, boolean guest) {
+        CheckInEvent event = new CheckInEvent();
+        event.begin();
+        long start = System.nanoTime();
+        CheckInResult result = process(true, fName, lName, dob, course,
+                instructor, location, guest);
+        GymMetrics.get().recordCheckIn(result.getOutcome(), start);
+        commit(event, true, guest, course, location, result);
+        return result;
+    }
+
+    /**
+     * Commits a check-in event to the flight recorder if it is enabled.
+     * @param event started when the operation began.
+     * @param done true for a check-out, false for a check-in.
+     * @param guest true if the operation was for a guest.
+     * @param course name of the class as entered.
+     * @param location of the class as entered.
+     * @param result of the operation.
+     */
+    private static void commit(CheckInEvent event, boolean done, boolean guest,
+                               String course, String location,
+                               CheckInResult result) {
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.done = done;
+            event.guest = guest;
+            event.course = course;
+            event.location = location;
+            event.outcome = result.getOutcome().name();
+            event.commit();
+        }
+    }
+
+    /**
+     * Validates the inputs for checking in or out of a class and performs
+     * the operation.
+     * Resolves the member and the class a single time through the indexes
+     * of the database and schedule, then applies the rules in order.
+     * @param done true to check out, false to check in.
+     * @return the result describing the outcome.
+     */
+    private CheckInResult process(boolean done, String fName, String lName,
+                                  String dob, String course,
+                                  String instructor, String location,
+                                  boolean guest) {
+        if ( dob == null ) {
+            return fail(CheckInResult.Outcome.MISSING_DATE, null, "Please pick a date!\n");
+        }
+        Location loc = parseLocation(location);
+        if ( loc == null ) {
+            return fail(CheckInResult.Outcome.INVALID_LOCATION, null,
+                    location + ": invalid location!\n");
+        }
+        if ( fName.equals("") || lName.equals("") ) {
+            return fail(CheckInResult.Outcome.MISSING_NAME, null,
+                    "Please enter both a first and last name.\n");
+        }
+        Date date = parseDate(dob);
+        if ( date == null || !date.isValid() ) {
+            return fail(CheckInResult.Outcome.INVALID_DATE, null,
+                    "DOB " + dob + " invalid calendar date!\n");
+        }
+        String name = fName + " " + lName;
+        Member m = db.getMemberData(new Member(fName, lName, date, null, null));
+        if ( m == null ) {
+            return fail(CheckInResult.Outcome.NOT_IN_DATABASE, null,
+                    name + " " + dob + " is not in the database.\n");
+        } else if ( m.isExpired() ) {
+            return fail(CheckInResult.Outcome.EXPIRED, m,
+                    name + " " + dob + " membership expired.\n");
+        }
+        FitnessClass c = classes.getClass(course, instructor, loc);
+        if ( c == null ) {
+            if ( !classes.instructorExists(instructor) ) {
+                return fail(CheckInResult.Outcome.NO_INSTRUCTOR, m,
+                        instructor + " - instructor does not exist\n");
+            } else if ( !classes.classExists(course) ) {
+                return fail(CheckInResult.Outcome.NO_CLASS, m,
+                        course + " - class does not exist.\n");
+            }
+            return fail(CheckInResult.Outcome.NOT_AT_LOCATION, m,
+                    course + " by " + instructor + " does not exist at " + location + "\n");
+        }
+
+        if ( done ) {
+            return guest ? doneGuest(name, m, c) : doneMember(name, m, c);
+        }
+        return guest ? checkInGuest(name, m, c) : checkInMember(name, m, c);
+    }
+
+    /**
+     * Checks a validated member into a class.
+     * @param name of the member as entered.
+     * @param m member resolved from the database.
+     * @param c class resolved from the schedule.
+     * @return the result describing the outcome.
+     */
+    private CheckInResult checkInMember(String name, Member m, FitnessClass c) {
+        if ( !c.validLoc(m) ) {
+            return new CheckInResult(CheckInResult.Outcome.LOCATION_RESTRICTION, m, c, null,
+                    name + " checking in " + c.getLocation()
+                            + " - standard membership location restriction.\n");
+        }
+        FitnessClass conflict = classes.isTimeConflict(m, c);
+        if ( conflict != null ) {
+            return new CheckInResult(CheckInResult.Outcome.TIME_CONFLICT, m, c, conflict,
+                    "Time conflict - " + c.fullName() + "\n");
+        } else if ( !c.enroll(m) ) {
+            return new CheckInResult(CheckInResult.Outcome.ALREADY_CHECKED_IN, m, c, null,
+                    name + " already checked in.\n");
+        }
+        db.getChanges().publish(GymChange.Type.CHECKED_IN, m, c);
+        return new CheckInResult(CheckInResult.Outcome.CHECKED_IN, m, c, null,
+                name + " checked in " + c + "\n");
+    }
+
+    /**
+     * Checks the guest of a validated member into a class.
+     * @param name of the member as entered.
+     * @param m member resolved from the database.
+     * @param c class resolved from the schedule.
+     * @return the result describing the outcome.
+     */
+    private CheckInResult checkInGuest(String name, Member m, FitnessClass c) {
+        if ( !(m instanceof Family) ) {
+            return new CheckInResult(CheckInResult.Outcome.GUEST_NOT_ALLOWED, m, c, null,
+                    "Standard membership - guest check-in is not allowed.\n");
+        } else if ( !c.validGuestLoc(m) ) {
+            return new CheckInResult(CheckInResult.Outcome.GUEST_LOCATION_RESTRICTION, m, c, null,
+                    name + " Guest checking in " + c.getLocation()
+                            + " - guest location restriction.\n");
+        } else if ( !c.checkInGuest(m) ) {
+            return new CheckInResult(CheckInResult.Outcome.NO_GUEST_PASS, m, c, null,
+                    name + " ran out of guest pass.\n");
+        }
+        db.getChanges().publish(GymChange.Type.GUEST_CHECKED_IN, m, c);
+        return new CheckInResult(CheckInResult.Outcome.GUEST_CHECKED_IN, m, c, null,
+                name + " (guest) checked in " + c + "\n");
+    }
+
+    /**
+     * Checks a validated member out of a class.
+     * @param name of the member as entered.
+     * @param m member resolved from the database.
+     * @param c class resolved from the schedule.
+     * @return the result describing the outcome.
+     */
+    private CheckInResult doneMember(String name, Member m, FitnessClass c) {
+        if ( !c.done(m) ) {
+            return new CheckInResult(CheckInResult.Outcome.NOT_CHECKED_IN, m, c, null,
+                    name + " did not check in.\n");
+        }
+        db.getChanges().publish(GymChange.Type.CHECKED_OUT, m, c);
+        return new CheckInResult(CheckInResult.Outcome.DONE, m, c, null,
+                name + " done with the class.\n");
+    }
+
+    /**
+     * Checks the guest of a validated member out of a class.
+     * @param name of the member as entered.
+     * @param m member resolved from the database.
+     * @param c class resolved from the schedule.
+     * @return the result describing the outcome.
+     */
+    private CheckInResult doneGuest(String name, Member m, FitnessClass c) {
+        if ( !(m instanceof Family) ) {
+            return new CheckInResult(CheckInResult.Outcome.GUEST_NOT_ALLOWED, m, c, null,
+                    "Standard membership - guest sign-out is not allowed.\n");
+        } else if ( !c.doneGuest(m) ) {
+            return new CheckInResult(CheckInResult.Outcome.GUEST_NOT_CHECKED_IN, m, c, null,
+                    name + "ran out of guest pass.\n");
+        }
+        db.getChanges().publish(GymChange.Type.GUEST_CHECKED_OUT, m, c);
+        return new CheckInResult(CheckInResult.Outcome.GUEST_DONE, m, c, null,
+                name + " Guest done with the class.\n");
+    }
+
+    /**
+     * Builds the result of a check-in or check-out that failed validation.
+     * @param outcome of the validation.
+     * @param m member resolved from the database, null if not resolved.
+     * @param message to show the user.
+     * @return the result describing the outcome.
+     */
+    private static CheckInResult fail(CheckInResult.Outcome outcome, Member m,
+                                      String message) {
+        return new CheckInResult(outcome, m, null, null, message);
+    }
+
+    /**
+     * Gets the current member list.
+     * @return the print string followed by a newline.
+     */
+    public String print() {
+        return db.getPrint() + "\n";
+    }
+
+    /**
+     * Gets the member list sorted by county and leaves the database sorted.
+     * @return the print string followed by a newline.
+     */
+    public String printByCounty() {
+        return db.getPrintByCounty() + "\n";
+    }
+
+    /**
+     * Gets the member list sorted by last, then first name and leaves the
+     * database sorted.
+     * @return the print string followed by a newline.
+     */
+    public String printByName() {
+        return db.getPrintByName() + "\n";
+    }
+
+    /**
+     * Gets the member list sorted by expiration date and leaves the
+     * database sorted.
+     * @return the print string followed by a newline.
+     */
+    public String printByExpiration() {
+        return db.getPrintByExpiration() + "\n";
+    }
+
+    /**
+     * Gets the member list with fees for the next billing period.
+     * @param first true to include the starting fees of a first bill.
+     * @return the print string with headers.
+     */
+    public String printWithFees(boolean first) {
+        if ( db.isEmpty() ) {
+            return db.toStringWithFees(first) + "\n";
+        }
+        String title = first ? "first" : "next";
+        return "\n-list of members with " + title + " bill membership fees-\n"
+                + db.toStringWithFees(first) + "\n-end of list-\n";
+    }
+
+    /**
+     * Gets the member count and fee totals of each group of members.
+     * @param args of the command line, naming the properties to group by;
+     * county if none are named.
+     * @return the print string with headers.
+     */
+    public String printGroups(String[] args) {
+        if ( db.isEmpty() ) {
+            return db.getPrint() + "\n";
+        }
+        MemberGroups.Dimension[] by = new MemberGroups.Dimension[Math.max(1, args.length - FIRST_ARG)];
+        by[0] = MemberGroups.Dimension.COUNTY;
+        for ( int i = FIRST_ARG; i < args.length; i++ ) {
+            try {
+                by[i - FIRST_ARG] = MemberGroups.Dimension.valueOf(args[i].toUpperCase());
+            } catch ( IllegalArgumentException e ) {
+                return args[i] + " is not county, zip, type, or status!\n";
+            }
+        }
+        StringBuilder sb = new StringBuilder("\n-member totals by");
+        for ( MemberGroups.Dimension d : by ) {
+            sb.append(' ').append(d.name().toLowerCase());
+        }
+        sb.append("-\n");
+        for ( MemberGroups.Group g : MemberGroups.groupBy(db, by) ) {
+            sb.append(g).append('\n');
+        }
+        return sb.append("-end of list-\n").toString();
+    }
+
+    /**
+     * Gets the live counts of members by location, type, and status.
+     * @return a line for each location with headers.
+     */
+    public String printCounts() {
+        return "\n-members by location (type active/expired)-\n" + db.getCounters()
+                + "\n-end of counts-\n";
+    }
+
+    /**
+     * Gets the projected renewal revenue of the next twelve months.
+     * Sets up the forecast the first time, after which the database keeps
+     * it up to date.
+     * @return the revenue of each month and location with headers.
+     */
+    public String printForecast() {
+        if ( forecast == null ) {
+            forecast = new RevenueForecast();
+            db.setForecast(forecast);
+        }
+        return "\n-projected renewal revenue of " + forecast.getMembers() + " members-\n"
+                + forecast.project() + "\n-end of forecast-\n";
+    }
+
+    /**
+     * Gets the members matching a query.
+     * Arguments are conditions of the form key=value, with keys fname,
+     * lname, dob, before and from (expiration dates), location, county,
+     * zip, type, and status (active or expired), and options sort (name,
+     * county, or expiration), limit, and parallel (true or false).
+     * @param args of the command line.
+     * @return the matching members with a header giving the count and time.
+     */
+    public String printQuery(String[] args) {
+        MemberQuery query = new MemberQuery(db);
+        for ( int i = FIRST_ARG; i < args.length; i++ ) {
+            String[] kv = args[i].split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            try {
+                switch ( kv[0].toLowerCase() ) {
+                    case "fname":
+                        query.firstName(value);
+                        break;
+                    case "lname":
+                        query.lastName(value);
+                        break;
+                    case "dob":
+                        query.bornOn(new Date(value));
+                        break;
+                    case "before":
+                        query.expiresBefore(new Date(value));
+                        break;
+                    case "from":
+                        query.expiresFrom(new Date(value));
+                        break;
+                    case "location":
+                        query.at(Location.valueOf(value.toUpperCase()));
+                        break;
+                    case "county":
+                        query.county(value);
+                        break;
+                    case "zip":
+                        query.zip(value);
+                        break;
+                    case "type":
+                        query.type(MembershipType.valueOf(value.toUpperCase()));
+                        break;
+                    case "status":
+                        if ( value.equalsIgnoreCase("active") ) {
+                            query.active();
+                        } else if ( value.equalsIgnoreCase("expired") ) {
+                            query.expired();
+                        } else {
+                            return args[i] + " is not a valid condition!\n";
+                        }
+                        break;
+                    case "sort":
+                        query.orderBy(MemberQuery.Order.valueOf(value.toUpperCase()));
+                        break;
+                    case "limit":
+                        query.limit(Integer.parseInt(value));
+                        break;
+                    case "parallel":
+                        query.parallel(Boolean.parseBoolean(value));
+                        break;
+                    default:
+                        return args[i] + " is not a valid condition!\n";
+                }
+            } catch ( IllegalArgumentException | IndexOutOfBoundsException e ) {
+                return args[i] + " is not a valid condition!\n";
+            }
+        }
+        MemberQuery.Result result = query.run();
+        StringBuilder sb = new StringBuilder("\n-query: ").append(result).append("-\n");
+        for ( Member m : result.getMembers() ) {
+            sb.append(m).append('\n');
+        }
+        return sb.append("-end of list-\n").toString();
+    }
+
+    /**
+     * Loads members from the members file.
+     * @return the loaded member list with headers.
+     */
+    public String loadMembers() {
+        db.loadMembers();
+        return "\n-list of members loaded-\n" + db.toString() + "\n-end of list-\n";
+    }
+
+    /**
+     * Opens an on-disk archive for the members moved out of memory by
+     * archiveMembers(). Archived members are still found, removed, and
+     * renewed as usual.
+     * @param dir holding the archive, created if it doesn't exist.
+     * @return the archive, for the caller to close once done.
+     * @throws IOException if the archive can't be opened.
+     */
+    public MemberStore openArchive(Path dir) throws IOException {
+        MemberStore archive = new MemberStore(dir);
+        db.setArchive(archive);
+        return archive;
+    }
+
+    /**
+     * Moves the members whose memberships expired before a date from
+     * memory to the archive, except families who used guest passes in the
+     * current billing period.
+     * @param before the date as "mm/dd/yyyy", null if none was picked.
+     * @return the message describing the outcome.
+     */
+    public String archiveMembers(String before) {
+        Date date = before == null ? null : parseDate(before);
+        if ( date == null || !date.isValid() ) {
+            return "Date " + before + " invalid calendar date!\n";
+        }
+        try {
+            return db.archive(RenewalJob.expiringBefore(date)) + " members archived.\n";
+        } catch ( IllegalStateException e ) {
+            return "No member archive is open!\n";
+        }
+    }
+
+    /**
+     * Gets the class schedule along with the rosters of each class.
+     * @return the print string with headers.
+     */
+    public String printClasses() {
+        if ( classes.isEmpty() ) {
+            return classes.toString() + "\n";
+        }
+        return "\n-Fitness classes-\n" + classes.toString() + "\n-end of class list-\n";
+    }
+
+    /**
+     * Loads the class schedule from the schedule file.
+     * @return the loaded schedule with headers.
+     */
+    public String loadSchedule() {
+        classes.loadSchedule();
+        return "\n-Fitness classes loaded-\n" + classes.toString() + "\n-end of class list-\n";
+    }
+
+    /**
+     * Reloads the class schedule from the schedule file, keeping the
+     * rosters of classes that are still in it.
+     * @return the reloaded schedule with headers.
+     */
+    public String reloadSchedule() {
+        int kept = classes.reloadSchedule();
+        return "\n-Fitness classes reloaded, " + kept + " rosters kept-\n" + classes.toString()
+                + "\n-end of class list-\n";
+    }
+
+    /**
+     * Executes a single command line.
+     * Commands are a code followed by space separated arguments:
+     * A, AF, AP (add standard, family, premium: fName lName dob location),
+     * R (remove: fName lName dob),
+     * C, CG, D, DG (check in, guest check in, done, guest done:
+     * class instructor location fName lName dob),
+     * P, PC, PN, PD (print, by county, by name, by expiration),
+     * PF, PB (first bill, next bill), S (print schedule),
+     * PG (print group totals: any of county, zip, type, status),
+     * QM (query members: key=value conditions, see printQuery),
+     * PR (print projected renewal revenue), PA (print live member counts),
+     * LM, LS, RS (load members, load schedule, reload schedule),
+     * AM (archive members expired before a date: date).
+     * Missing arguments are treated as empty GUI fields.
+     * @param line the command line to execute.
+     * @return the output of the command, empty for blank lines.
+     */
+    public String execute(String line) {
+        String[] args = line.trim().split("\\s+");
+        switch ( args[COMMAND] ) {
+            case "":
+                return "";
+            case "A":
+                return addMember(args, MembershipType.STANDARD);
+            case "AF":
+                return addMember(args, MembershipType.FAMILY);
+            case "AP":
+                return addMember(args, MembershipType.PREMIUM);
+            case "R":
+                return removeMember(arg(args, MEMBER_FNAME), arg(args, MEMBER_LNAME),
+                        dateArg(args, MEMBER_DOB)).getMessage();
+            case "C":
+                return checkIn(args, false);
+            case "CG":
+                return checkIn(args, true);
+            case "D":
+                return done(args, false);
+            case "DG":
+                return done(args, true);
+            case "P":
+                return print();
+            case "PC":
+                return printByCounty();
+            case "PN":
+                return printByName();
+            case "PD":
+                return printByExpiration();
+            case "PF":
+                return printWithFees(true);
+            case "PB":
+                return printWithFees(false);
+            case "PG":
+                return printGroups(args);
+            case "QM":
+                return printQuery(args);
+            case "PR":
+                return printForecast();
+            case "PA":
+                return printCounts();
+            case "S":
+                return printClasses();
+            case "LM":
+                return loadMembers();
+            case "LS":
+                return loadSchedule();
+            case "RS":
+                return reloadSchedule();
+            case "AM":
+                return archiveMembers(dateArg(args, ARCHIVE_BEFORE));
+            default:
+                return args[COMMAND] + " is an invalid command!\n";
+        }
+    }
+
+    /**
+     * Executes an add command for the given membership type.
+     * @param args of the command line.
+     * @param type of membership to add.
+     * @return the output of the command.
+     */
+    private String addMember(String[] args, MembershipType type) {
+        return addMember(arg(args, MEMBER_FNAME), arg(args, MEMBER_LNAME),
+                dateArg(args, MEMBER_DOB), arg(args, MEMBER_LOCATION), type).getMessage();
+    }
+
+    /**
+     * Executes a check in command.
+     * @param args of the command line.
+     * @param guest true to check in the member's guest.
+     * @return the output of the command.
+     */
+    private String checkIn(String[] args, boolean guest) {
+        return checkIn(arg(args, CLASS_FNAME), arg(args, CLASS_LNAME),
+                dateArg(args, CLASS_DOB), arg(args, CLASS_NAME),
+                arg(args, CLASS_INSTRUCTOR), arg(args, CLASS_LOCATION), guest)
+                .getMessage();
+    }
+
+    /**
+     * Executes a done command.
+     * @param args of the command line.
+     * @param guest true to check out the member's guest.
+     * @return the output of the command.
+     */
+    private String done(String[] args, boolean guest) {
+        return done(arg(args, CLASS_FNAME), arg(args, CLASS_LNAME),
+                dateArg(args, CLASS_DOB), arg(args, CLASS_NAME),
+                arg(args, CLASS_INSTRUCTOR), arg(args, CLASS_LOCATION), guest)
+                .getMessage();
+    }
+
+    /**
+     * Processes commands from a stream until it ends or a Q command is read.
+     * @param in to read command lines from.
+     * @param out to write the output of each command to.
+     * @return the number of commands executed.
+     * @throws IOException if reading or writing fails.
+     */
+    public long run(BufferedReader in, Writer out) throws IOException {
+        long count = 0;
+        String line;
+        while ( (line = in.readLine()) != null ) {
+            if ( line.trim().equals(QUIT) ) {
+                break;
+            }
+            out.write(execute(line));
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Gets the publisher of changes to the members and class rosters.
+     * @return the change publisher of the member database.
+     */
+    public GymChangePublisher getChanges() {
+        return db.getChanges();
+    }
+
+    /**
+     * Gets the member database used by the engine.
+     * @return the member database.
+     */
+    public MemberDatabase getDatabase() {
+        return db;
+    }
+
+    /**
+     * Gets the class schedule used by the engine.
+     * @return the class schedule.
+     */
+    public ClassSchedule getSchedule() {
+        return classes;
+    }
+
+    /**
+     * Parses a location name regardless of case.
+     * @param location name of the location.
+     * @return the matching Location, null if there is none.
+     */
+    private static Location parseLocation(String location) {
+        for ( Location loc : Location.values() ) {
+            if ( loc.name().equals(location.toUpperCase()) ) {
+                return loc;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a date, tolerating malformed input.
+     * @param date as "mm/dd/yyyy".
+     * @return the Date, null if the string isn't made of three numbers.
+     */
+    private static Date parseDate(String date) {
+        try {
+            return new Date(date);
+        } catch ( NumberFormatException | ArrayIndexOutOfBoundsException e ) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets an argument of a command line.
+     * @param args of the command line.
+     * @param index of the argument.
+     * @return the argument, or an empty string if it is missing.
+     */
+    private static String arg(String[] args, int index) {
+        return index < args.length ? args[index] : "";
+    }
+
+    /**
+     * Gets a date argument of a command line.
+     * @param args of the command line.
+     * @param index of the argument.
+     * @return the argument, or null if it is missing like an unpicked date.
+     */
+    private static String dateArg(String[] args, int index) {
+        return index < args.length ? args[index] : null;
+    }
+
+    /**
+     * Runs a batch of commands without the GUI.
+     * Reads commands from the file named by the first argument, or from
+     * standard input if there is none or it is "-", writes the output to standard output
+     * and reports throughput to standard error. The optional second
+     * argument is the directory of the member archive.
+     * @param args from the command line.
+     * @throws IOException if reading or writing fails.
+     */
+    public static void main(String[] args) throws IOException {
+        Reader source = args.length >= FIRST_ARG && !args[COMMAND].equals(STANDARD_INPUT)
+                ? new FileReader(args[COMMAND])
+                : new InputStreamReader(System.in);
+        GymManager gym = new GymManager();
+        MemberStore archive = args.length > ARCHIVE_DIR
+                ? gym.openArchive(Paths.get(args[ARCHIVE_DIR])) : null;
+        try ( BufferedReader in = new BufferedReader(source) ) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            long start = System.nanoTime();
+            long count = gym.run(in, out);
+            double millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            System.err.printf("Processed %d commands in %.1f ms (%.0f commands/sec)%n",
+                    count, millis, count / millis * MILLIS_PER_SECOND);
+        } finally {
+            if ( archive != null ) {
+                archive.close();
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.example.fitnesschaingui;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
+import java.util.function.Supplier;
+
 /**
  * Controller for the Gym Manager GUI.
  * Handles user inputs to manage the member database and fitness classes.
@@ -10,8 +12,7 @@ import javafx.scene.control.*;
  * @author Albert Zou, Rishabh Patel
  */
 public class GymManagerController {
-    private MemberDatabase db;
-    private ClassSchedule classes;
+    private GymManager gym;
 
     @FXML
     private TextArea ta;
@@ -46,64 +47,39 @@ public class GymManagerController {
 
     /**
      * Constructs GymManagerController object.
-     * Creates new member database and fitness class objects.
+     * Creates the headless engine holding the member database and
+     * fitness classes.
      */
     public GymManagerController() {
-        db = new MemberDatabase();
-        classes = new ClassSchedule();
+        gym = new GymManager();
+        FxWatchdog.get().start();
     }
 
     /**
      * Facilitates method to add a new member.
-     * Performs input validation and handles output to user.
-     * Ensures that all locations, dates, and names are valid from GUI input fields.
+     * Reads the membership type and inputs from the GUI fields and
+     * prints the outcome of adding the member.
      */
     @FXML
     protected void onAddButtonClick() {
-        if ( !memberValidate() ) {
-            return;
-        }
-        String fName = memberFName.getText();
-        String lName = memberLName.getText();
-        Date date = new Date(Date.convertFromLocal(memberDOB.getValue().toString()));
-        String location = memberLocation.getText();
-        Location validatedLoc = null;
-        boolean validLoc = false;
-        for (Location loc : Location.values()) {
-            if ( loc.name().equals(location.toUpperCase()) ) {
-                validLoc = true;
-                validatedLoc = loc;
-                break;
-            }
-        }
-
-        if ( !validLoc ) {
-            ta.appendText(location + ": invalid location!\n");
-            return;
-        } else if ( !memberStan.isSelected() && !memberFam.isSelected()
-                && !memberPrem.isSelected()) {
-            ta.appendText("Please choose a membership type!\n");
-            return;
-        }
+        handle("onAddButtonClick", () -> gym.addMember(memberFName.getText(),
+                memberLName.getText(), pickedDate(memberDOB),
+                memberLocation.getText(), selectedType()).getMessage());
+    }
 
-        Member m = null;
+    /**
+     * Gets the membership type chosen with the radio buttons.
+     * @return the chosen membership type, null if none was chosen.
+     */
+    private MembershipType selectedType() {
         if ( memberStan.isSelected() ) {
-            m = new Member(fName, lName, date, validatedLoc);
+            return MembershipType.STANDARD;
         } else if ( memberFam.isSelected() ) {
-            m = new Family(fName, lName, date, validatedLoc);
-        } else {
-            m = new Premium(fName, lName, date, validatedLoc);
-        }
-
-        if ( !m.isValidDOB() ) {
-            ta.appendText("DOB " + date + ": cannot be today or a future date!\n");
-        } else if ( !m.isAdult() ) {
-            ta.appendText("DOB " + date + ": must be 18 or older to join!\n");
-        } else if ( !db.add(m)) {
-            ta.appendText(fName + " " + lName + " is already in the database.\n");
-        } else {
-            ta.appendText(fName + " " + lName + " added.\n");
+            return MembershipType.FAMILY;
+        } else if ( memberPrem.isSelected() ) {
+            return MembershipType.PREMIUM;
         }
+        return null;
     }
 
     /**
@@ -115,186 +91,74 @@ public class GymManagerController {
      */
     @FXML
     protected void onRemoveButtonClick() {
-        if ( !memberValidate() ) return;
-        String fName = memberFName.getText();
-        String lName = memberLName.getText();
-        Date date = new Date(Date.convertFromLocal(memberDOB.getValue().toString()));
-
-        Member m = new Member(fName, lName, date, null, null);
-        if ( !db.remove(m) ) {
-            ta.appendText(fName + " " + lName + " is not in the database.\n");
-        } else {
-            ta.appendText(fName + " " + lName + " removed.\n");
+        handle("onRemoveButtonClick", () -> gym.removeMember(
+                memberFName.getText(), memberLName.getText(),
+                pickedDate(memberDOB)).getMessage());
+    }
+
+    /**
+     * Runs the action of a handler and prints its output.
+     * Records the execution of the handler on the JavaFX application thread
+     * in the flight recorder and with the watchdog, even if the handler
+     * throws.
+     * @param handler name of the handler.
+     * @param action producing the text to print.
+     */
+    private void handle(String handler, Supplier<String> action) {
+        FxHandlerEvent event = new FxHandlerEvent();
+        event.begin();
+        FxWatchdog watchdog = FxWatchdog.get();
+        long start = watchdog.begin(handler, gym.getDatabase().count());
+        int length = 0;
+        try {
+            String output = action.get();
+            length = output.length();
+            ta.appendText(output);
+        } finally {
+            watchdog.end(start, length);
+            event.end();
+            if ( event.shouldCommit() ) {
+                event.handler = handler;
+                event.output = length;
+                event.commit();
+            }
         }
     }
 
     /**
-     * Validates members inputted in the Membership tab.
-     * Checks if the member has a valid name and date.
-     * @return true if member is valid, false otherwise.
+     * Gets the date picked in a DatePicker.
+     * @param picker to read the date from.
+     * @return the date as "mm/dd/yyyy", null if no date was picked.
      */
-    protected boolean memberValidate() {
-        if ( memberFName.getText().equals("") || memberLName.getText().equals("") ) {
-            ta.appendText("Please enter both a first and last name.\n");
-            return false;
-        } else if ( memberDOB.getValue() == null ) {
-            ta.appendText("Please pick a date!\n");
-            return false;
+    private String pickedDate(DatePicker picker) {
+        if ( picker.getValue() == null ) {
+            return null;
         }
-        return true;
-    }
-
-    /**
-     * Validates class inputs in the Fitness Class tab.
-     * Checks if the inputs are existing and valid.
-     * @return true if inputs are valid, false otherwise.
-     */
-    protected boolean classValidate() {
-        String fName = classFName.getText();
-        String lName = classLName.getText();
-        String instructor = classInstructor.getText();
-        String course = className.getText();
-        String location = classLocation.getText();
-
-        if ( classDOB.getValue() == null ) {
-            ta.appendText("Please pick a date!\n");
-            return false;
-        }
-
-        String date = Date.convertFromLocal(classDOB.getValue().toString());
-        Member m = new Member(fName, lName, new Date(date), null, null);
-        boolean validLoc = false;
-        for (Location loc : Location.values()) {
-            if ( loc.name().equals(location.toUpperCase()) ) {
-                validLoc = true;
-                break;
-            }
-        }
-        if ( !validLoc ) {
-            ta.appendText(location + ": invalid location!\n");
-            return false;
-        }
-        if ( classFName.getText().equals("") || classLName.getText().equals("") ) {
-            ta.appendText("Please enter both a first and last name.\n");
-            return false;
-        }
-
-        m = db.getMemberData(m);
-        FitnessClass c = classes.getClass(course, instructor,
-                Location.valueOf(location.toUpperCase()));
-        if ( !(new Date(date)).isValid() ) {
-            ta.appendText("DOB " + date + " invalid calendar date!\n");
-        } else if (m == null ) {
-            ta.appendText(fName + " " + lName + " " + date + " is not in the database.\n");
-        } else if ( m.isExpired() ) {
-            ta.appendText(fName + " " + lName + " " + date + " membership expired.\n");
-        } else if ( !classes.instructorExists(instructor)) {
-            ta.appendText(instructor + " - instructor does not exist\n");
-        } else if ( !classes.classExists(course)) {
-            ta.appendText(course + " - class does not exist.\n");
-        } else if ( c == null ) {
-            ta.appendText(course + " by " + instructor + " does not exist at " + location + "\n");
-        } else {
-            return true;
-        }
-        return false;
+        return Date.convertFromLocal(picker.getValue().toString());
     }
 
     /**
      * Facilitates method to check an existing member into a fitness class.
-     * Performs input validation and handles output to user.
-     * Ensures that all classes, names, and dates are valid.
+     * Reads the inputs from the Fitness Class tab and prints the outcome.
      */
     @FXML
     protected void onCheckInClick() {
-        if ( !classValidate() ) {
-            return;
-        }
-        String fName = classFName.getText();
-        String lName = classLName.getText();
-        String instructor = classInstructor.getText();
-        String course = className.getText();
-        String location = classLocation.getText();
-        String date = Date.convertFromLocal(classDOB.getValue().toString());
-        boolean guest = classGuest.isSelected();
-        Member m = new Member(fName, lName,
-                new Date(date), null, null);
-        FitnessClass c = classes.getClass(course, instructor,
-                Location.valueOf(location.toUpperCase()));
-        m = db.getMemberData(m);
-
-        if ( !guest ) {
-            if (!c.validLoc(m)) {
-                ta.appendText(fName + " " + lName + " " + "checking in "
-                        + Location.valueOf(location.toUpperCase())
-                        + " - standard membership location restriction.\n");
-            } else if (classes.isTimeConflict(m, c) != null) {
-                ta.appendText("Time conflict - " + c.fullName() + "\n");
-            } else if (!c.checkIn(m)) {
-                ta.appendText(fName + " " + lName + " already checked in.\n");
-            } else {
-                ta.appendText(fName + " " + lName + " checked in " + c + "\n");
-            }
-        }
-        else {
-            if ( !(m instanceof Family) ) {
-                ta.appendText(("Standard membership - guest check-in is not allowed.\n"));
-            } else if (!c.validGuestLoc(m) ) {
-                ta.appendText(fName + " " + lName + " Guest checking in "
-                        + Location.valueOf(location.toUpperCase()) + " - guest location restriction.\n");
-
-            } else if ( !c.checkInGuest(m) ) {
-                ta.appendText(fName + " " + lName + " ran out of guest pass.\n");
-            } else {
-                ta.appendText((fName + " " + lName + " (guest) checked in " + c + "\n"));
-            }
-        }
-
-
+        handle("onCheckInClick", () -> gym.checkIn(classFName.getText(),
+                classLName.getText(), pickedDate(classDOB), className.getText(),
+                classInstructor.getText(), classLocation.getText(),
+                classGuest.isSelected()).getMessage());
     }
 
     /**
      * Facilitates method to check out an existing member from a fitness class.
-     * Performs input validation and handles output to user.
-     * Ensures that all classes, names, and dates are valid.
+     * Reads the inputs from the Fitness Class tab and prints the outcome.
      */
     @FXML
     protected void onDoneClick() {
-        if ( !classValidate() ) {
-            return;
-        }
-        String fName = classFName.getText();
-        String lName = classLName.getText();
-        String instructor = classInstructor.getText();
-        String course = className.getText();
-        String location = classLocation.getText().toUpperCase();
-        String date = Date.convertFromLocal(classDOB.getValue().toString());
-        boolean guest = classGuest.isSelected();
-        Member m = new Member(fName, lName,
-                new Date(date), null, null);
-        FitnessClass c = classes.getClass(course, instructor,
-                Location.valueOf(location.toUpperCase()));
-        m = db.getMemberData(m);
-
-        if ( !guest ) {
-            if ( !c.done(m) ) {
-                ta.appendText(fName + " " + lName
-                        + " did not check in.\n");
-            }
-            else {
-                ta.appendText(fName + " " + lName
-                        + " done with the class.\n");
-            }
-        } else {
-            if ( !(m instanceof Family) ) {
-                ta.appendText("Standard membership - guest sign-out is not allowed.\n");
-            } else if ( !c.doneGuest(m)) {
-                ta.appendText(fName + " " + lName + "ran out of guest pass.\n");
-            } else {
-                ta.appendText(fName + " "
-                        + lName + " Guest done with the class.\n");
-            }
-        }
+        handle("onDoneClick", () -> gym.done(classFName.getText(),
+                classLName.getText(), pickedDate(classDOB), className.getText(),
+                classInstructor.getText(), classLocation.getText(),
+                classGuest.isSelected()).getMessage());
     }
 
     /**
@@ -302,7 +166,7 @@ public class GymManagerController {
      */
     @FXML
     protected void onPrintClick() {
-        ta.appendText(db.getPrint() + "\n");
+        handle("onPrintClick", gym::print);
     }
 
     /**
@@ -310,7 +174,7 @@ public class GymManagerController {
      */
     @FXML
     protected void onPrintByCountyClick() {
-        ta.appendText(db.getPrintByCounty() + "\n");
+        handle("onPrintByCountyClick", gym::printByCounty);
     }
 
     /**
@@ -319,7 +183,7 @@ public class GymManagerController {
      */
     @FXML
     protected void onPrintByNameClick() {
-        ta.appendText(db.getPrintByName() + "\n");
+        handle("onPrintByNameClick", gym::printByName);
     }
 
     /**
@@ -328,7 +192,7 @@ public class GymManagerController {
      */
     @FXML
     protected void onPrintByExpirationClick() {
-        ta.appendText(db.getPrintByExpiration() + "\n");
+        handle("onPrintByExpirationClick", gym::printByExpiration);
     }
 
     /**
@@ -338,9 +202,7 @@ public class GymManagerController {
      */
     @FXML
     protected void onLoadMembersClick() {
-        db.loadMembers();
-        ta.appendText("\n-list of members loaded-\n"
-                + db.toString() + "\n-end of list-\n");
+        handle("onLoadMembersClick", gym::loadMembers);
     }
 
     /**
@@ -348,12 +210,7 @@ public class GymManagerController {
      */
     @FXML
     protected void onPrintClassesClick() {
-        if ( classes.isEmpty() ) {
-            ta.appendText(classes.toString() + "\n");
-        } else {
-            ta.appendText("\n-Fitness classes-\n"
-                    + classes.toString() + "\n-end of class list-\n");
-        }
+        handle("onPrintClassesClick", gym::printClasses);
     }
 
     /**
@@ -363,9 +220,7 @@ public class GymManagerController {
      */
     @FXML
     protected void onLoadClassesClick() {
-        classes.loadSchedule();
-        ta.appendText("\n-Fitness classes loaded-\n"
-                + classes.toString() + "\n-end of class list-\n");
+        handle("onLoadClassesClick", gym::loadSchedule);
     }
 
     /**
@@ -373,12 +228,7 @@ public class GymManagerController {
      */
     @FXML
     protected void onFirstBillClick() {
-        if ( db.isEmpty() ) {
-            ta.appendText(db.toStringWithFees(true) + "\n");
-        } else {
-            ta.appendText("\n-list of members with first bill membership fees-\n"
-                    + db.toStringWithFees(true) + "\n-end of list-\n");
-        }
+        handle("onFirstBillClick", () -> gym.printWithFees(true));
     }
 
     /**
@@ -386,11 +236,15 @@ public class GymManagerController {
      */
     @FXML
     protected void onNextBillClick() {
-        if ( db.isEmpty() ) {
-            ta.appendText(db.toStringWithFees(false) + "\n");
-        } else {
-            ta.appendText("\n-list of members with next bill membership fees-\n"
-                    + db.toStringWithFees(false) + "\n-end of list-\n");
-        }
+        handle("onNextBillClick", () -> gym.printWithFees(false));
+    }
+
+    /**
+     * Prints how long each handler took and how late the application
+     * thread ran, as percentiles.
+     */
+    @FXML
+    protected void onUiLatencyClick() {
+        handle("onUiLatencyClick", FxWatchdog.get()::report);
     }
 }
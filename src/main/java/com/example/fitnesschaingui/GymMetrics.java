@@ -0,0 +1,311 @@
+package com.example.fitnesschaingui;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects runtime metrics of the gym operations.
+ * Counters are LongAdders and latencies are recorded in lock-free
+ * histograms, so recording adds no contention to the operations.
+ * A single instance is shared by the whole application and exposed as
+ * MBeans under the com.example.fitnesschaingui domain.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class GymMetrics implements GymMetricsMXBean {
+    private static final GymMetrics METRICS = new GymMetrics();
+    private static final String DOMAIN = "com.example.fitnesschaingui";
+
+    private final LongAdder membersAdded = new LongAdder();
+    private final LongAdder duplicateAdds = new LongAdder();
+    private final LongAdder membersRemoved = new LongAdder();
+    private final LongAdder removeMisses = new LongAdder();
+    private final LongAdder lookupHits = new LongAdder();
+    private final LongAdder lookupMisses = new LongAdder();
+    private final LongAdder[] outcomes;
+    private final LongAdder guestPassesUsed = new LongAdder();
+    private final LongAdder guestPassesReturned = new LongAdder();
+    private final LongAdder membersLoaded = new LongAdder();
+    private final LongAdder classesLoaded = new LongAdder();
+    private final LongAdder reportsGenerated = new LongAdder();
+    private final LongAdder reportChars = new LongAdder();
+    private final AtomicLong lastReportChars = new AtomicLong();
+    private final LongAdder reportCacheHits = new LongAdder();
+
+    private final LatencyHistogram addLatency = new LatencyHistogram();
+    private final LatencyHistogram removeLatency = new LatencyHistogram();
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+    private final LatencyHistogram checkInLatency = new LatencyHistogram();
+    private final LatencyHistogram reportLatency = new LatencyHistogram();
+    private final LatencyHistogram memberLoadLatency = new LatencyHistogram();
+    private final LatencyHistogram scheduleLoadLatency = new LatencyHistogram();
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+
+    private boolean registered;
+
+    /**
+     * Constructs GymMetrics object with all counters at zero.
+     */
+    private GymMetrics() {
+        outcomes = new LongAdder[CheckInResult.Outcome.values().length];
+        for ( int i = 0; i < outcomes.length; i++ ) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Gets the metrics shared by the application.
+     * @return the GymMetrics instance.
+     */
+    public static GymMetrics get() {
+        return METRICS;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server.
+     * Does nothing if they are already registered or registration fails,
+     * since metrics are never required for the gym to operate.
+     */
+    public static synchronized void register() {
+        if ( METRICS.registered ) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(METRICS, new ObjectName(DOMAIN + ":type=GymMetrics"));
+            METRICS.registerLatency(server, "add", METRICS.addLatency);
+            METRICS.registerLatency(server, "remove", METRICS.removeLatency);
+            METRICS.registerLatency(server, "lookup", METRICS.lookupLatency);
+            METRICS.registerLatency(server, "checkIn", METRICS.checkInLatency);
+            METRICS.registerLatency(server, "report", METRICS.reportLatency);
+            METRICS.registerLatency(server, "loadMembers", METRICS.memberLoadLatency);
+            METRICS.registerLatency(server, "loadSchedule", METRICS.scheduleLoadLatency);
+            METRICS.registerLatency(server, "query", METRICS.queryLatency);
+        } catch ( JMException e ) {
+            return;
+        }
+        METRICS.registered = true;
+    }
+
+    /**
+     * Registers a latency histogram with the MBean server.
+     * @param server to register with.
+     * @param name of the operation the histogram measures.
+     * @param histogram to register.
+     * @throws JMException if registration fails.
+     */
+    private void registerLatency(MBeanServer server, String name,
+                                 LatencyHistogram histogram) throws JMException {
+        server.registerMBean(histogram,
+                new ObjectName(DOMAIN + ":type=Latency,name=" + name));
+    }
+
+    /**
+     * Records an add to a member database.
+     * @param added true if the member was added, false if a duplicate.
+     * @param start value of System.nanoTime() when the add began.
+     */
+    public void recordAdd(boolean added, long start) {
+        addLatency.recordSince(start);
+        (added ? membersAdded : duplicateAdds).increment();
+    }
+
+    /**
+     * Records a removal from a member database.
+     * @param removed true if the member was removed, false if missing.
+     * @param start value of System.nanoTime() when the removal began.
+     */
+    public void recordRemove(boolean removed, long start) {
+        removeLatency.recordSince(start);
+        (removed ? membersRemoved : removeMisses).increment();
+    }
+
+    /**
+     * Records the adds and removals of a batch applied to a member
+     * database. The latency of a batch isn't recorded with the latency of
+     * single adds and removals, since it would skew them.
+     * @param added number of members added.
+     * @param duplicates number of adds rejected as duplicates.
+     * @param removed number of members removed.
+     * @param missing number of removals rejected as missing.
+     */
+    public void recordBatch(int added, int duplicates, int removed, int missing) {
+        membersAdded.add(added);
+        duplicateAdds.add(duplicates);
+        membersRemoved.add(removed);
+        removeMisses.add(missing);
+    }
+
+    /**
+     * Records a lookup in a member database.
+     * @param found true if the member was found.
+     * @param start value of System.nanoTime() when the lookup began.
+     */
+    public void recordLookup(boolean found, long start) {
+        lookupLatency.recordSince(start);
+        (found ? lookupHits : lookupMisses).increment();
+    }
+
+    /**
+     * Records a check-in or check-out.
+     * @param outcome of the operation.
+     * @param start value of System.nanoTime() when the operation began.
+     */
+    public void recordCheckIn(CheckInResult.Outcome outcome, long start) {
+        checkInLatency.recordSince(start);
+        outcomes[outcome.ordinal()].increment();
+    }
+
+    /**
+     * Records a guest pass being used.
+     */
+    public void recordGuestPassUsed() {
+        guestPassesUsed.increment();
+    }
+
+    /**
+     * Records a guest pass being returned.
+     */
+    public void recordGuestPassReturned() {
+        guestPassesReturned.increment();
+    }
+
+    /**
+     * Records a member report being generated.
+     * @param chars length of the report.
+     * @param start value of System.nanoTime() when generation began.
+     */
+    public void recordReport(int chars, long start) {
+        reportLatency.recordSince(start);
+        reportsGenerated.increment();
+        reportChars.add(chars);
+        lastReportChars.set(chars);
+    }
+
+    /**
+     * Records a member report being served from the report cache.
+     */
+    public void recordReportCacheHit() {
+        reportCacheHits.increment();
+    }
+
+    /**
+     * Records a member file being loaded.
+     * @param members number of members added.
+     * @param start value of System.nanoTime() when loading began.
+     */
+    public void recordMemberLoad(int members, long start) {
+        memberLoadLatency.recordSince(start);
+        membersLoaded.add(members);
+    }
+
+    /**
+     * Records a member query.
+     * @param start value of System.nanoTime() when the query began.
+     */
+    public void recordQuery(long start) {
+        queryLatency.recordSince(start);
+    }
+
+    /**
+     * Records a schedule file being loaded.
+     * @param loaded number of classes added.
+     * @param start value of System.nanoTime() when loading began.
+     */
+    public void recordScheduleLoad(int loaded, long start) {
+        scheduleLoadLatency.recordSince(start);
+        classesLoaded.add(loaded);
+    }
+
+    /**
+     * Gets the latency histogram of check-ins and check-outs.
+     * @return the histogram.
+     */
+    public LatencyHistogram getCheckInLatency() {
+        return checkInLatency;
+    }
+
+    @Override
+    public long getMembersAdded() {
+        return membersAdded.sum();
+    }
+
+    @Override
+    public long getDuplicateAdds() {
+        return duplicateAdds.sum();
+    }
+
+    @Override
+    public long getMembersRemoved() {
+        return membersRemoved.sum();
+    }
+
+    @Override
+    public long getRemoveMisses() {
+        return removeMisses.sum();
+    }
+
+    @Override
+    public long getLookupHits() {
+        return lookupHits.sum();
+    }
+
+    @Override
+    public long getLookupMisses() {
+        return lookupMisses.sum();
+    }
+
+    @Override
+    public Map<String, Long> getCheckInOutcomes() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for ( CheckInResult.Outcome outcome : CheckInResult.Outcome.values() ) {
+            counts.put(outcome.name(), outcomes[outcome.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getGuestPassesUsed() {
+        return guestPassesUsed.sum();
+    }
+
+    @Override
+    public long getGuestPassesReturned() {
+        return guestPassesReturned.sum();
+    }
+
+    @Override
+    public long getMembersLoaded() {
+        return membersLoaded.sum();
+    }
+
+    @Override
+    public long getClassesLoaded() {
+        return classesLoaded.sum();
+    }
+
+    @Override
+    public long getReportsGenerated() {
+        return reportsGenerated.sum();
+    }
+
+    @Override
+    public long getReportChars() {
+        return reportChars.sum();
+    }
+
+    @Override
+    public long getLastReportChars() {
+        return lastReportChars.get();
+    }
+
+    @Override
+    public long getReportCacheHits() {
+        return reportCacheHits.sum();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.fitnesschaingui;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing the operation counters of the gym.
+ * @author Albert Zou, Rishabh Patel
+ */
+public interface GymMetricsMXBean {
+    /**
+     * Gets the number of members added to a database.
+     * @return the count of successful adds.
+     */
+    long getMembersAdded();
+
+    /**
+     * Gets the number of adds rejected as duplicates.
+     * @return the count of duplicate adds.
+     */
+    long getDuplicateAdds();
+
+    /**
+     * Gets the number of members removed from a database.
+     * @return the count of successful removals.
+     */
+    long getMembersRemoved();
+
+    /**
+     * Gets the number of removals of members that didn't exist.
+     * @return the count of failed removals.
+     */
+    long getRemoveMisses();
+
+    /**
+     * Gets the number of lookups that found a member.
+     * @return the count of lookup hits.
+     */
+    long getLookupHits();
+
+    /**
+     * Gets the number of lookups that found no member.
+     * @return the count of lookup misses.
+     */
+    long getLookupMisses();
+
+    /**
+     * Gets the number of check-ins and check-outs by outcome.
+     * @return the count of each CheckInResult outcome by name.
+     */
+    Map<String, Long> getCheckInOutcomes();
+
+    /**
+     * Gets the number of guest passes used.
+     * @return the count of guest passes used.
+     */
+    long getGuestPassesUsed();
+
+    /**
+     * Gets the number of guest passes returned.
+     * @return the count of guest passes returned.
+     */
+    long getGuestPassesReturned();
+
+    /**
+     * Gets the number of members added by loading member files.
+     * @return the count of loaded members.
+     */
+    long getMembersLoaded();
+
+    /**
+     * Gets the number of classes added by loading schedule files.
+     * @return the count of loaded classes.
+     */
+    long getClassesLoaded();
+
+    /**
+     * Gets the number of member reports generated.
+     * @return the count of reports.
+     */
+    long getReportsGenerated();
+
+    /**
+     * Gets the total size of the member reports generated.
+     * @return the total number of characters.
+     */
+    long getReportChars();
+
+    /**
+     * Gets the size of the last member report generated.
+     * @return the number of characters.
+     */
+    long getLastReportChars();
+
+    /**
+     * Gets the number of member reports served from the report cache.
+     * @return the count of cached reports.
+     */
+    long getReportCacheHits();
+}
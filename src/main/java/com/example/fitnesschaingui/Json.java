@@ -0,0 +1,82 @@
+package com.example.fitnesschaingui;
+
+/**
+ * Writes JSON values.
+ * Provides just enough JSON for the HTTP API and the exporters without
+ * depending on a JSON library.
+ * @author Albert Zou, Rishabh Patel
+ */
+final class Json {
+    private static final char CONTROL_END = 0x20;
+
+    private Json() {
+    }
+
+    /**
+     * Appends a string as a quoted and escaped JSON string.
+     * @param sb to append to.
+     * @param value to append, written as null if null.
+     * @return the StringBuilder.
+     */
+    static StringBuilder quote(StringBuilder sb, String value) {
+        if ( value == null ) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for ( int i = 0; i < value.length(); i++ ) {
+            char c = value.charAt(i);
+            switch ( c ) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if ( c < CONTROL_END ) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    /**
+     * Appends a member as a JSON object.
+     * Includes the identifying properties, the membership details, and the
+     * remaining guest passes of family and premium members.
+     * @param sb to append to.
+     * @param m member to append.
+     * @return the StringBuilder.
+     */
+    static StringBuilder member(StringBuilder sb, Member m) {
+        sb.append("{\"fname\":");
+        quote(sb, m.getFName());
+        sb.append(",\"lname\":");
+        quote(sb, m.getLName());
+        sb.append(",\"dob\":");
+        quote(sb, m.getDOB().toString());
+        sb.append(",\"expire\":");
+        quote(sb, m.getExpire().toString());
+        sb.append(",\"expired\":").append(m.isExpired());
+        sb.append(",\"location\":");
+        quote(sb, m.getLocation().name());
+        sb.append(",\"type\":");
+        quote(sb, MembershipType.of(m).name());
+        if ( m instanceof Family ) {
+            sb.append(",\"guestPasses\":").append(((Family) m).getGuestPasses());
+        }
+        return sb.append('}');
+    }
+}
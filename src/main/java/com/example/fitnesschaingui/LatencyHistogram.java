@@ -0,0 +1,183 @@
+package com.example.fitnesschaingui;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records latencies in a lock-free log-linear histogram.
+ * Values are counted in buckets whose width doubles with every power of
+ * two, with 16 buckets per power, so percentiles are accurate to within
+ * about 6%. Recording only increments atomic counters, so any number of
+ * threads can record without contending on a lock.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS + 1) * SUB_BUCKETS;
+    private static final double PERCENT = 100.0;
+    private static final double NANOS_PER_MICRO = 1000.0;
+    private static final double P50 = 50;
+    private static final double P90 = 90;
+    private static final double P99 = 99;
+    private static final double P999 = 99.9;
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        buckets = new AtomicLongArray(BUCKETS);
+        count = new LongAdder();
+        sum = new LongAdder();
+        max = new AtomicLong();
+    }
+
+    /**
+     * Records a value.
+     * Negative values are recorded as zero.
+     * @param nanos the latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.getAndIncrement(bucket(value));
+        count.increment();
+        sum.add(value);
+        if ( value > max.get() ) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Records the time elapsed since the given start time.
+     * @param start value of System.nanoTime() when the operation began.
+     */
+    public void recordSince(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    /**
+     * Finds the bucket holding a value.
+     * Values below 16 get their own bucket, larger values share a bucket
+     * with the values having the same highest 5 bits.
+     * @param value to find the bucket of.
+     * @return the index of the bucket.
+     */
+    private static int bucket(long value) {
+        if ( value < SUB_BUCKETS ) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - SUB_BITS - 1 - Long.numberOfLeadingZeros(value);
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Gets the largest value a bucket can hold.
+     * @param index of the bucket.
+     * @return the upper bound of the bucket.
+     */
+    private static long upperBound(int index) {
+        if ( index < SUB_BUCKETS ) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long low = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return low + (1L << shift) - 1;
+    }
+
+    /**
+     * Gets the value below which the given percentage of values fall.
+     * @param percentile between 0 and 100.
+     * @return the upper bound of the bucket holding the percentile, capped
+     * at the largest recorded value; 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for ( int i = 0; i < BUCKETS; i++ ) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if ( total == 0 ) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / PERCENT));
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ ) {
+            seen += snapshot[i];
+            if ( seen >= target ) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears all recorded values.
+     * Values recorded concurrently with the reset may be partially kept.
+     */
+    public void reset() {
+        for ( int i = 0; i < BUCKETS; i++ ) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return getValueAtPercentile(P50);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return getValueAtPercentile(P90);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return getValueAtPercentile(P99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return getValueAtPercentile(P999);
+    }
+
+    /**
+     * Represents the histogram as a string.
+     * Lists the count and the main percentiles in microseconds.
+     * @return a string representation of the histogram.
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fus p50=%.1fus p90=%.1fus "
+                        + "p99=%.1fus p99.9=%.1fus max=%.1fus",
+                getCount(), getMeanNanos() / NANOS_PER_MICRO,
+                getP50Nanos() / NANOS_PER_MICRO, getP90Nanos() / NANOS_PER_MICRO,
+                getP99Nanos() / NANOS_PER_MICRO, getP999Nanos() / NANOS_PER_MICRO,
+                getMaxNanos() / NANOS_PER_MICRO);
+    }
+}
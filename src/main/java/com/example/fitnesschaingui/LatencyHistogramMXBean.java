@@ -0,0 +1,49 @@
+package com.example.fitnesschaingui;
+
+/**
+ * Management interface exposing the percentiles of a LatencyHistogram.
+ * @author Albert Zou, Rishabh Patel
+ */
+public interface LatencyHistogramMXBean {
+    /**
+     * Gets the number of recorded values.
+     * @return the count of values.
+     */
+    long getCount();
+
+    /**
+     * Gets the mean of the recorded values.
+     * @return the mean in nanoseconds.
+     */
+    double getMeanNanos();
+
+    /**
+     * Gets the largest recorded value.
+     * @return the maximum in nanoseconds.
+     */
+    long getMaxNanos();
+
+    /**
+     * Gets the median of the recorded values.
+     * @return the 50th percentile in nanoseconds.
+     */
+    long getP50Nanos();
+
+    /**
+     * Gets the 90th percentile of the recorded values.
+     * @return the 90th percentile in nanoseconds.
+     */
+    long getP90Nanos();
+
+    /**
+     * Gets the 99th percentile of the recorded values.
+     * @return the 99th percentile in nanoseconds.
+     */
+    long getP99Nanos();
+
+    /**
+     * Gets the 99.9th percentile of the recorded values.
+     * @return the 99.9th percentile in nanoseconds.
+     */
+    long getP999Nanos();
+}
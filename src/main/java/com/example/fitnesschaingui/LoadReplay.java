@@ -0,0 +1,150 @@
+package com.example.fitnesschaingui;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a stream of commands against a GymManager at a target rate.
+ * Commands are scheduled at fixed intervals and latency is measured from
+ * the time each command was due, so a slow command also counts against
+ * the commands queued behind it. Latency percentiles are reported for
+ * every command code.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class LoadReplay {
+    private final GymManager gym;
+    private final LinkedHashMap<String, LatencyHistogram> latencies;
+    private final LatencyHistogram service;
+    private long elapsed;
+    private long executed;
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final long SPIN_NANOS = 50_000;
+    private static final int ARG_COMMANDS = 0;
+    private static final int ARG_RATE = 1;
+    private static final int ARG_MEMBERS = 2;
+    private static final int ARG_SCHEDULE = 3;
+
+    /**
+     * Constructs LoadReplay object.
+     * @param gym to run the commands against.
+     */
+    public LoadReplay(GymManager gym) {
+        this.gym = gym;
+        latencies = new LinkedHashMap<>();
+        service = new LatencyHistogram();
+    }
+
+    /**
+     * Runs the commands at the target rate.
+     * @param commands to run in order.
+     * @param rate target commands per second, 0 to run as fast as possible.
+     */
+    public void replay(List<String> commands, double rate) {
+        long interval = rate > 0 ? (long) (NANOS_PER_SECOND / rate) : 0;
+        long start = System.nanoTime();
+        for ( int i = 0; i < commands.size(); i++ ) {
+            long due = start + i * interval;
+            waitUntil(due);
+            String line = commands.get(i);
+            long begin = System.nanoTime();
+            gym.execute(line);
+            long end = System.nanoTime();
+            service.record(end - begin);
+            histogram(code(line)).record(end - (interval > 0 ? due : begin));
+        }
+        elapsed += System.nanoTime() - start;
+        executed += commands.size();
+    }
+
+    /**
+     * Waits until the given time.
+     * Parks while the time is far away and spins once it is close.
+     * @param due value of System.nanoTime() to wait for.
+     */
+    private static void waitUntil(long due) {
+        long remaining;
+        while ( (remaining = due - System.nanoTime()) > 0 ) {
+            if ( remaining > SPIN_NANOS ) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Gets the command code of a command line.
+     * @param line the command line.
+     * @return the first token of the line.
+     */
+    private static String code(String line) {
+        String trimmed = line.trim();
+        int space = trimmed.indexOf(' ');
+        return space < 0 ? trimmed : trimmed.substring(0, space);
+    }
+
+    /**
+     * Gets the latency histogram of a command code, creating it if needed.
+     * @param code of the command.
+     * @return the histogram.
+     */
+    private LatencyHistogram histogram(String code) {
+        return latencies.computeIfAbsent(code, k -> new LatencyHistogram());
+    }
+
+    /**
+     * Gets the latency histograms of each command code.
+     * @return the histograms by command code, in order of first use.
+     */
+    public Map<String, LatencyHistogram> getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Represents the results of the replay as a string.
+     * Lists the achieved rate, the service time of all commands, and the
+     * latency of each command code.
+     * @return a report of the replay.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d commands in %.3f s (%.0f commands/sec)%n",
+                executed, elapsed / NANOS_PER_SECOND,
+                executed / (elapsed / NANOS_PER_SECOND)));
+        sb.append("service  ").append(service).append('\n');
+        for ( Map.Entry<String, LatencyHistogram> e : latencies.entrySet() ) {
+            sb.append(String.format("%-8s ", e.getKey())).append(e.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Replays a command file and prints the latency report.
+     * Arguments are the command file, the target rate in commands per
+     * second (0 for as fast as possible), and optionally a member file and
+     * a schedule file to load first.
+     * @param args from the command line.
+     * @throws IOException if reading fails.
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> commands = Files.readAllLines(new File(args[ARG_COMMANDS]).toPath());
+        double rate = Double.parseDouble(args[ARG_RATE]);
+        GymManager gym = new GymManager();
+        if ( args.length > ARG_MEMBERS ) {
+            gym.getDatabase().loadMembers(new File(args[ARG_MEMBERS]));
+        }
+        if ( args.length > ARG_SCHEDULE ) {
+            gym.getSchedule().loadSchedule(new File(args[ARG_SCHEDULE]));
+        }
+        LoadReplay replay = new LoadReplay(gym);
+        replay.replay(commands, rate);
+        System.out.print(replay);
+    }
+}
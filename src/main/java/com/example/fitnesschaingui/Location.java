@@ -42,6 +42,22 @@ public enum Location {
         this.county = county;
     }
 
+    /**
+     * Gets the zip code of the location.
+     * @return the zip property.
+     */
+    public String getZip() {
+        return zip;
+    }
+
+    /**
+     * Gets the county of the location.
+     * @return the county property.
+     */
+    public String getCounty() {
+        return county;
+    }
+
     /**
      * Represents the location as a string.
      * Includes the town, zip code, and county name of the location.
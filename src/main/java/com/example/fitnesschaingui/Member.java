@@ -1,4 +1,7 @@
 package com.example.fitnesschaingui;
+
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Represents a member at the fitness chain.
  * Allows for validation and storage of member information.
@@ -11,17 +14,25 @@ public class Member implements Comparable<Member>{
     protected Date expire;
     protected Location location;
     protected double fee;
+    private final String fKey;
+    private final String lKey;
+    private final int hash;
 
     protected static final int SAME = 0;
     protected static final int ADULT_AGE = 18;
     private static final double STANDARD_FEE = 39.99;
     protected static final int MONTHS_QUARTER = 3;
     protected static final double STARTING_FEE = 29.99;
+    private static final AtomicLong STATE_VERSION = new AtomicLong();
+    private static final int NO_DOB = -1;
+    private static final int YEAR_SHIFT = 9;
+    private static final int MONTH_SHIFT = 5;
+    private static final int HASH_PRIME = 31;
 
     /**
      * Constructs Member object given expiration date.
      * Stores identifying information about the member based
-     * on the parameters.
+     * on the parameters, and computes the keys used to compare members.
      * @param fName the first name of the member.
      * @param lName the last name of the member.
      * @param dob the date of birth of the member.
@@ -41,6 +52,11 @@ public class Member implements Comparable<Member>{
         this.expire = expire;
         this.location = location;
         this.fee = STANDARD_FEE;
+        fKey = fName.toUpperCase();
+        lKey = lName.toUpperCase();
+        int dobKey = dob == null ? NO_DOB : dob.getYear() << YEAR_SHIFT
+                | dob.getMonth() << MONTH_SHIFT | dob.getDay();
+        hash = (fKey.hashCode() * HASH_PRIME + lKey.hashCode()) * HASH_PRIME + dobKey;
     }
 
     /**
@@ -59,13 +75,8 @@ public class Member implements Comparable<Member>{
             Date dob,
             Location location
     ) {
-        this.fName = fName;
-        this.lName = lName;
-        this.dob = dob;
-        this.expire = new Date();
+        this(fName, lName, dob, new Date(), location);
         this.expire.addMonths(MONTHS_QUARTER);
-        this.location = location;
-        this.fee = STANDARD_FEE;
     }
 
     /**
@@ -111,7 +122,16 @@ public class Member implements Comparable<Member>{
      * @return true if the member's membership is expired, false otherwise.
      */
     public boolean isExpired() {
-        Date today = new Date();
+        return isExpired(new Date());
+    }
+
+    /**
+     * Checks if the member's membership is expired on the given day.
+     * Lets callers checking many members look up today's date once.
+     * @param today the date to check against.
+     * @return true if the member's membership is expired, false otherwise.
+     */
+    public boolean isExpired(Date today) {
         if ( expire.compareTo( today ) > 0){
             return false;
         }
@@ -127,6 +147,14 @@ public class Member implements Comparable<Member>{
         return ( first ) ? output + STARTING_FEE : output;
     }
 
+    /**
+     * Gets the number of months a renewal extends the membership by.
+     * @return the length of a standard membership.
+     */
+    public int renewalMonths() {
+        return MONTHS_QUARTER;
+    }
+
     /**
      * Represents the member as a String.
      * Lists the member's properties with labels.
@@ -145,6 +173,9 @@ public class Member implements Comparable<Member>{
      * Checks to see if all the properties in this member matches
      * those of the other object.
      * Is not case-specific for names.
+     * Compares the keys computed at construction, so nothing is allocated.
+     * The dates of birth are compared field by field, since dates that were
+     * never validated, like 1/45/2000, can share a hash with a real date.
      * @param obj an object to be compared with this object.
      * @return true if members are identical, false otherwise.
      */
@@ -154,9 +185,33 @@ public class Member implements Comparable<Member>{
             return false;
         }
         Member o = (Member) obj;
-        return ( fName.toUpperCase().equals(o.getFName().toUpperCase())
-                && lName.toUpperCase().equals(o.getLName().toUpperCase())
-                && dob.compareTo(o.getDOB()) == SAME );
+        return hash == o.hash && sameDay(dob, o.dob)
+                && fKey.equals(o.fKey) && lKey.equals(o.lKey);
+    }
+
+    /**
+     * Checks if two dates of birth are the same day.
+     * @param a a date of birth, may be null.
+     * @param b another date of birth, may be null.
+     * @return true if both are null or both have the same year, month,
+     * and day, false otherwise.
+     */
+    private static boolean sameDay(Date a, Date b) {
+        if ( a == null || b == null ) {
+            return a == b;
+        }
+        return a.compareTo(b) == SAME;
+    }
+
+    /**
+     * Gets the hash code of the member, consistent with equals().
+     * Computed at construction from the names regardless of case and the
+     * date of birth.
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     /**
@@ -170,9 +225,9 @@ public class Member implements Comparable<Member>{
      */
     @Override
     public int compareTo(Member member) {
-        int ans = lName.toUpperCase().compareTo(member.getLName().toUpperCase());
+        int ans = lKey.compareTo(member.lKey);
         if ( ans == SAME ) {
-            ans = fName.toUpperCase().compareTo(member.getFName().toUpperCase());
+            ans = fKey.compareTo(member.fKey);
         }
         return ans;
     }
@@ -223,5 +278,23 @@ public class Member implements Comparable<Member>{
      */
     public void setExpire(Date date) {
         expire = date;
+        changed();
+    }
+
+    /**
+     * Records that the state shown in a member's string form changed.
+     * Called whenever the expiration date or the guest passes of any
+     * member change, so cached reports know to rebuild.
+     */
+    protected static void changed() {
+        STATE_VERSION.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of changes to the state of all members.
+     * @return a counter that increases with every change.
+     */
+    static long stateVersion() {
+        return STATE_VERSION.get();
     }
 }
@@ -0,0 +1,221 @@
+package com.example.fitnesschaingui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Stages many adds, removals, and expiration changes to a member database
+ * and applies them in one step.
+ * Each change is checked in order against the database as the earlier
+ * changes of the batch would leave it, so a batch can remove a member and
+ * add them back, or add a member and then renew them. The accepted changes
+ * are then applied with at most one pass over the member array, one
+ * reallocation, and one index update, and are journaled together so
+ * replicas apply all of them or none. Archived members are only looked up
+ * while the changes are checked, and are moved back into memory when the
+ * batch is applied.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class MemberBatch {
+    private final MemberDatabase db;
+    private final ArrayList<Change> staged;
+
+    /**
+     * Constructs an empty MemberBatch.
+     * @param db to apply the changes to.
+     */
+    public MemberBatch(MemberDatabase db) {
+        this.db = db;
+        staged = new ArrayList<>();
+    }
+
+    /**
+     * A staged change.
+     */
+    private static final class Change {
+        private final char op;
+        private final Member member;
+        private final Date expire;
+
+        /**
+         * Constructs Change object.
+         * @param op ADD, REMOVE, or EXPIRE of MemberJournal.
+         * @param member to change.
+         * @param expire the new expiration date, null unless op is EXPIRE.
+         */
+        private Change(char op, Member member, Date expire) {
+            this.op = op;
+            this.member = member;
+            this.expire = expire;
+        }
+    }
+
+    /**
+     * A staged change that wasn't applied.
+     */
+    public static final class Rejection {
+        private final int row;
+        private final Member member;
+        private final String reason;
+
+        /**
+         * Constructs Rejection object.
+         * @param row position of the change in the batch, starting at 0.
+         * @param member the change was for.
+         * @param reason why the change was rejected.
+         */
+        private Rejection(int row, Member member, String reason) {
+            this.row = row;
+            this.member = member;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets the position of the change in the batch.
+         * @return the row property, starting at 0.
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * Gets the member the change was for.
+         * @return the member property.
+         */
+        public Member getMember() {
+            return member;
+        }
+
+        /**
+         * Gets why the change was rejected.
+         * @return the reason property.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * Represents the rejection as a string.
+         * @return the row, member, and reason.
+         */
+        @Override
+        public String toString() {
+            return "row " + row + ": " + member.getFName() + " " + member.getLName()
+                    + " " + member.getDOB() + " " + reason;
+        }
+    }
+
+    /**
+     * Stages adding a member.
+     * @param member to add.
+     * @return this batch.
+     */
+    public MemberBatch add(Member member) {
+        staged.add(new Change(MemberJournal.ADD, member, null));
+        return this;
+    }
+
+    /**
+     * Stages removing a member.
+     * @param member to remove, only the identifying properties are used.
+     * @return this batch.
+     */
+    public MemberBatch remove(Member member) {
+        staged.add(new Change(MemberJournal.REMOVE, member, null));
+        return this;
+    }
+
+    /**
+     * Stages changing the expiration date of a member.
+     * @param member to update, only the identifying properties are used.
+     * @param expire the new expiration date.
+     * @return this batch.
+     */
+    public MemberBatch updateExpiration(Member member, Date expire) {
+        staged.add(new Change(MemberJournal.EXPIRE, member, expire));
+        return this;
+    }
+
+    /**
+     * Gets the number of staged changes.
+     * @return the count of changes.
+     */
+    public int size() {
+        return staged.size();
+    }
+
+    /**
+     * Checks the staged changes and applies them, then clears the batch.
+     * Callers sharing the database with other threads should hold the same
+     * lock as those threads.
+     * @param atomic true to apply nothing if any change is rejected, false
+     * to apply every change that is accepted.
+     * @return the rejected changes, empty if every change was applied.
+     */
+    public List<Rejection> apply(boolean atomic) {
+        ArrayList<Rejection> rejected = new ArrayList<>();
+        HashMap<Member, Member> present = new HashMap<>();
+        ArrayList<Member> restores = new ArrayList<>();
+        HashSet<Member> removes = new HashSet<>();
+        LinkedHashMap<Member, Member> adds = new LinkedHashMap<>();
+        LinkedHashMap<Member, Date> expirations = new LinkedHashMap<>();
+        StringBuilder ops = new StringBuilder();
+        ArrayList<Member> changed = new ArrayList<>();
+        int duplicates = 0;
+        int missing = 0;
+        for ( int row = 0; row < staged.size(); row++ ) {
+            Change c = staged.get(row);
+            Member current;
+            if ( present.containsKey(c.member) ) {
+                current = present.get(c.member);
+            } else {
+                current = db.inMemory(c.member);
+                if ( current == null ) {
+                    current = db.archived(c.member);
+                    if ( current != null ) {
+                        restores.add(current);
+                    }
+                }
+                present.put(c.member, current);
+            }
+            if ( c.op == MemberJournal.ADD ) {
+                if ( current != null ) {
+                    rejected.add(new Rejection(row, c.member, "is already in the database"));
+                    duplicates++;
+                    continue;
+                }
+                present.put(c.member, c.member);
+                adds.put(c.member, c.member);
+                current = c.member;
+            } else if ( current == null ) {
+                rejected.add(new Rejection(row, c.member, "is not in the database"));
+                if ( c.op == MemberJournal.REMOVE ) {
+                    missing++;
+                }
+                continue;
+            } else if ( c.op == MemberJournal.REMOVE ) {
+                present.put(c.member, null);
+                if ( adds.remove(current) == null ) {
+                    removes.add(current);
+                }
+                expirations.remove(current);
+            } else {
+                expirations.put(current, c.expire);
+            }
+            ops.append(c.op);
+            changed.add(current);
+        }
+        staged.clear();
+        if ( atomic && !rejected.isEmpty() ) {
+            return Collections.unmodifiableList(rejected);
+        }
+        db.applyBatch(restores, removes, new ArrayList<>(adds.values()), expirations,
+                ops.toString(), changed);
+        GymMetrics.get().recordBatch(adds.size(), duplicates, removes.size(), missing);
+        return Collections.unmodifiableList(rejected);
+    }
+}
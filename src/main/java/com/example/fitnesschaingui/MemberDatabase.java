@@ -2,7 +2,24 @@ package com.example.fitnesschaingui;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.Scanner;
+import java.util.function.Predicate;
 
 /**
  * Represents the database of all members in all locations.
@@ -12,8 +29,38 @@ import java.util.Scanner;
 public class MemberDatabase {
     private Member[] mlist;
     private int size;
+    private int garbage;
+    private HashMap<Member, Integer> index;
+    private int[] ids;
+    private Member[] byId;
+    private int[] generations;
+    private int[] freeIds;
+    private int freeCount;
+    private int nextId;
+    private int epoch;
+    private Future<Compaction> compaction;
+    private int compactionEpoch;
+    private final StringBuilder pendingOps;
+    private final ArrayList<Member> pending;
+    private int[] pendingIds;
+    private final GymChangePublisher changes;
+    private final ReportCache reports;
+    private final MembershipCounters counters;
+    private long modCount;
+    private MemberJournal journal;
+    private MemberStore archive;
+    private RevenueForecast forecast;
 
-    private static final int NOT_FOUND = -1;
+    static final int NO_ID = -1;
+
+    private static final int ID_GROWTH = 2;
+    private static final int MIN_GARBAGE = 1024;
+    private static final double MAX_GARBAGE_RATIO = 0.25;
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "member-compaction");
+        t.setDaemon(true);
+        return t;
+    });
     private static final int EMPTY = 0;
     private static final int BIGGER = 1;
     private static final int SORT_BY_COUNTY = 1;
@@ -28,40 +75,590 @@ public class MemberDatabase {
     private static final int ADD_BIRTHDAY = 2;
     private static final int ADD_EXPIRATION_DAY = 3;
     private static final int ADD_LOCATION = 4;
+    private static final int ADD_TYPE = 5;
+    private static final long MAX_REPORT_CHARS = 8_000_000;
+    private static final float INDEX_LOAD = 0.75f;
+    private static final String LIST_REPORT = "list";
+    private static final String COUNTY_REPORT = "county";
+    private static final String EXPIRATION_REPORT = "expiration";
+    private static final String NAME_REPORT = "name";
+    private static final String FIRST_BILL_REPORT = "first bill";
+    private static final String NEXT_BILL_REPORT = "next bill";
     private static final String MEMBERS_FILE = "src/main/resources/data/memberList.txt";
 
     /**
      * Constructs MemberDatabase object.
-     * Stores the list of members as well as the number of members
-     * in the database.
+     * Stores the list of members as well as the number of slots used and
+     * emptied by removals, the index from each member to their slot, the
+     * ID of the member in each slot, the members by ID along with the IDs
+     * free for reuse, the
+     * publisher of changes to the members, the
+     * cache of generated reports, and the live membership counts.
      */
     public MemberDatabase() {
         mlist = new Member[START_SIZE];
         size = START;
+        index = new HashMap<>();
+        ids = new int[START_SIZE];
+        byId = new Member[START_SIZE];
+        generations = new int[START_SIZE];
+        freeIds = new int[START_SIZE];
+        pendingOps = new StringBuilder();
+        pending = new ArrayList<>();
+        pendingIds = new int[START_SIZE];
+        changes = new GymChangePublisher();
+        reports = new ReportCache(MAX_REPORT_CHARS);
+        counters = new MembershipCounters();
+    }
+
+    /**
+     * Gets the publisher of changes to the members.
+     * @return the changes property.
+     */
+    public GymChangePublisher getChanges() {
+        return changes;
+    }
+
+    /**
+     * Gets the live counts of the members in memory by location, type,
+     * and status.
+     * @return the counters property.
+     */
+    public MembershipCounters getCounters() {
+        return counters;
     }
 
     /**
      * Checks if the database is empty.
-     * Checks if size is 0.
-     * @return true if size is zero, false otherwise.
+     * Checks if there are no members in memory.
+     * @return true if there are none, false otherwise.
      */
     public boolean isEmpty() {
-        return size == EMPTY;
+        return count() == EMPTY;
+    }
+
+    /**
+     * Records every later change to the database in a journal.
+     * @param journal to record the changes in, null to stop recording.
+     */
+    public void setJournal(MemberJournal journal) {
+        this.journal = journal;
     }
 
     /**
-     * Finds an inputted member in the database.
-     * Uses the Member class's .equals() method to compare.
-     * @param member object to find.
-     * @return the index of the member if they exist, -1 otherwise.
+     * Keeps members moved out of memory by archive() in an on-disk store.
+     * Archived members are still found, removed, and updated as usual, and
+     * are moved back into memory when they are looked up. Reports only list
+     * the members in memory.
+     * @param archive to keep the archived members in, null for none.
      */
-    private int find(Member member) {
+    public void setArchive(MemberStore archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Keeps a revenue forecast up to date with the members in memory.
+     * Counts the members already in memory in one pass, then every later
+     * add, removal, and expiration change.
+     * @param forecast to keep up to date, null for none.
+     */
+    public void setForecast(RevenueForecast forecast) {
+        this.forecast = forecast;
+        if ( forecast != null ) {
+            for ( Member m : members() ) {
+                forecast.added(m);
+            }
+        }
+    }
+
+    /**
+     * Moves members from memory to the archive.
+     * Doesn't publish or journal anything, since the members still exist.
+     * The archive keeps only the member file fields, so families who used
+     * guest passes in the current billing period stay in memory; archived
+     * they would come back with their allowance reset.
+     * @param cold selects the members to move.
+     * @return the number of members moved.
+     * @throws IllegalStateException if there is no archive.
+     */
+    public int archive(Predicate<Member> cold) {
+        if ( archive == null ) {
+            throw new IllegalStateException("No archive set");
+        }
+        installCompaction();
+        ArrayList<Member> moving = new ArrayList<>();
         for ( int i = 0; i < size; i++ ) {
-            if ( member.equals(mlist[i]) ) {
-                return i;
+            Member m = mlist[i];
+            if ( m != null && cold.test(m)
+                    && !(m instanceof Family && ((Family) m).usedGuestPass()) ) {
+                moving.add(m);
             }
         }
-        return NOT_FOUND;
+        if ( moving.isEmpty() ) {
+            return EMPTY;
+        }
+        archive.putAll(moving);
+        for ( Member m : moving ) {
+            tombstone(m);
+        }
+        modCount++;
+        maybeCompact();
+        return moving.size();
+    }
+
+    /**
+     * Finds the archived members matching a condition.
+     * Reads the whole archive, so it is meant for bulk jobs.
+     * @param match chooses the members.
+     * @return the matching archived members, empty if there is no archive.
+     */
+    List<Member> archived(Predicate<Member> match) {
+        return archive == null ? Collections.emptyList() : archive.select(match);
+    }
+
+    /**
+     * Gets a member in memory, leaving the archive alone.
+     * @param member with the identifying properties of the member.
+     * @return the member in memory, null if the member isn't in memory.
+     */
+    Member inMemory(Member member) {
+        installCompaction();
+        Integer slot = index.get(member);
+        return slot == null ? null : mlist[slot];
+    }
+
+    /**
+     * Gets a member in memory, moving it back from the archive if needed.
+     * @param member with the identifying properties of the member.
+     * @return the member in memory, null if the member doesn't exist.
+     */
+    Member resident(Member member) {
+        Member found = inMemory(member);
+        if ( found != null ) {
+            return found;
+        }
+        found = archived(member);
+        if ( found == null ) {
+            return null;
+        }
+        restore(found);
+        modCount++;
+        return found;
+    }
+
+    /**
+     * Gets a member from the archive, leaving the archive alone.
+     * @param member with the identifying properties of the member.
+     * @return the archived member, null if the member isn't archived.
+     */
+    Member archived(Member member) {
+        return archive == null ? null : archive.get(member);
+    }
+
+    /**
+     * Moves a member got from archived() back into memory.
+     * @param found the archived member.
+     */
+    private void restore(Member found) {
+        archive.remove(found);
+        append(found);
+    }
+
+    /**
+     * Gets the members in the database in their current order.
+     * Skips the removed slots while iterating instead of copying the
+     * members past them.
+     * @return a read-only view valid until the database changes.
+     */
+    Collection<Member> members() {
+        List<Member> slots = slots();
+        int live = count();
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Member> iterator() {
+                return new Iterator<>() {
+                    private int next = skip(START);
+
+                    private int skip(int slot) {
+                        while ( slot < slots.size() && slots.get(slot) == null ) {
+                            slot++;
+                        }
+                        return slot;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < slots.size();
+                    }
+
+                    @Override
+                    public Member next() {
+                        if ( !hasNext() ) {
+                            throw new NoSuchElementException();
+                        }
+                        Member m = slots.get(next);
+                        next = skip(next + 1);
+                        return m;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return live;
+            }
+        };
+    }
+
+    /**
+     * Gets the used slots of the member array in their current order,
+     * for callers that split the members into ranges.
+     * @return a read-only random access view valid until the database
+     * changes, holding null for each removed slot.
+     */
+    List<Member> slots() {
+        return Collections.unmodifiableList(Arrays.asList(mlist).subList(START, size));
+    }
+
+    /**
+     * Gets the number of members in memory.
+     * @return the used slots minus the removed ones.
+     */
+    int count() {
+        return size - garbage;
+    }
+
+    /**
+     * Builds the key identifying a member in the archive.
+     * Members are identified by their names regardless of case and their
+     * date of birth, matching Member.equals(). The names are escaped as in
+     * the journal, so names with spaces can't run into each other. The
+     * index in memory uses the members themselves as keys instead, since
+     * their hash codes and comparisons are computed once when they are
+     * constructed.
+     * @param member to build the key for.
+     * @return the archive key of the member.
+     */
+    static String key(Member member) {
+        return MemberJournal.escape(member.getFName().toUpperCase()) + " "
+                + MemberJournal.escape(member.getLName().toUpperCase()) + " " + member.getDOB();
+    }
+
+    /**
+     * Puts a member in the next free slot at the end of the array.
+     * Grows the database if full.
+     * @param member to put in the array, not yet in the index.
+     */
+    private void append(Member member) {
+        if ( size == mlist.length ) {
+            grow();
+        }
+        int id = assignId(member);
+        index.put(member, size);
+        mlist[size] = member;
+        ids[size] = id;
+        size++;
+        logChange(MemberJournal.ADD, member, id);
+        counters.added(member);
+        if ( forecast != null ) {
+            forecast.added(member);
+        }
+    }
+
+    /**
+     * Removes a member by emptying their slot, leaving the other members
+     * where they are.
+     * @param member to remove, only the identifying properties are used.
+     * @return the removed member, null if the member isn't in memory.
+     */
+    private Member tombstone(Member member) {
+        Integer slot = index.remove(member);
+        if ( slot == null ) {
+            return null;
+        }
+        Member removed = mlist[slot];
+        mlist[slot] = null;
+        garbage++;
+        releaseId(ids[slot]);
+        logChange(MemberJournal.REMOVE, removed, ids[slot]);
+        counters.removed(removed);
+        if ( forecast != null ) {
+            forecast.removed(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Gives a member in memory an ID, reusing the ID of a removed member if
+     * there is one so the IDs stay dense.
+     * @param member to give an ID.
+     * @return the ID of the member.
+     */
+    private int assignId(Member member) {
+        int id;
+        if ( freeCount > EMPTY ) {
+            freeCount--;
+            id = freeIds[freeCount];
+        } else {
+            if ( nextId == byId.length ) {
+                byId = Arrays.copyOf(byId, byId.length * ID_GROWTH);
+                generations = Arrays.copyOf(generations, byId.length);
+            }
+            id = nextId;
+            nextId++;
+        }
+        byId[id] = member;
+        return id;
+    }
+
+    /**
+     * Frees the ID of a member leaving memory for reuse.
+     * Moves the ID to its next generation, so rosters still holding the
+     * ID with the old generation no longer find the member, and the next
+     * member given the ID isn't mistaken for the old one.
+     * @param id of the member.
+     */
+    private void releaseId(int id) {
+        byId[id] = null;
+        generations[id]++;
+        if ( freeCount == freeIds.length ) {
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * ID_GROWTH);
+        }
+        freeIds[freeCount] = id;
+        freeCount++;
+    }
+
+    /**
+     * Gets the member with an ID.
+     * Looks the ID up in an array and checks the generation, so it takes
+     * constant time.
+     * @param id of the member.
+     * @param generation of the ID when it was given to the member.
+     * @return the member in memory, null if no member has the ID or the
+     * member that had it left memory.
+     */
+    Member member(int id, int generation) {
+        Member[] members = byId;
+        int[] gens = generations;
+        return id >= START && id < members.length && id < gens.length
+                && gens[id] == generation ? members[id] : null;
+    }
+
+    /**
+     * Gets the current generation of an ID, which changes every time the
+     * ID is freed.
+     * @param id of a member.
+     * @return the generation, NO_ID if the ID was never given out.
+     */
+    int generation(int id) {
+        return id >= START && id < nextId ? generations[id] : NO_ID;
+    }
+
+    /**
+     * Gets the ID of a member in memory.
+     * @param member with the identifying properties of the member.
+     * @return the ID, NO_ID if the member isn't in memory.
+     */
+    int id(Member member) {
+        installCompaction();
+        Integer slot = index.get(member);
+        return slot == null ? NO_ID : ids[slot];
+    }
+
+    /**
+     * Records a change made while a compaction runs, to replay on its
+     * result.
+     * @param op ADD or REMOVE of MemberJournal.
+     * @param member the member added or removed.
+     * @param id of the member.
+     */
+    private void logChange(char op, Member member, int id) {
+        if ( compaction != null ) {
+            if ( pending.size() == pendingIds.length ) {
+                pendingIds = Arrays.copyOf(pendingIds, pendingIds.length * ID_GROWTH);
+            }
+            pendingIds[pending.size()] = id;
+            pendingOps.append(op);
+            pending.add(member);
+        }
+    }
+
+    /**
+     * Starts compacting on the background thread once the share of removed
+     * slots passes the threshold.
+     * The compaction works on a copy of the array, so the database can be
+     * read and changed while it runs.
+     */
+    private void maybeCompact() {
+        installCompaction();
+        if ( compaction != null || garbage < MIN_GARBAGE
+                || garbage < size * MAX_GARBAGE_RATIO ) {
+            return;
+        }
+        Member[] snapshot = Arrays.copyOf(mlist, size);
+        int[] idSnapshot = Arrays.copyOf(ids, size);
+        compactionEpoch = epoch;
+        compaction = COMPACTOR.submit(() -> new Compaction(snapshot, idSnapshot));
+    }
+
+    /**
+     * Switches to the result of a finished compaction.
+     * Replays the adds and removals made while it ran, so the switch takes
+     * time in proportion to those changes only. Drops the result if the
+     * slots were renumbered in the meantime.
+     */
+    private void installCompaction() {
+        if ( compaction == null || !compaction.isDone() ) {
+            return;
+        }
+        Compaction done;
+        try {
+            done = compaction.get();
+        } catch ( InterruptedException | ExecutionException e ) {
+            done = null;
+        }
+        compaction = null;
+        if ( done != null && compactionEpoch == epoch ) {
+            done.replay(pendingOps, pending, pendingIds);
+            mlist = done.members;
+            ids = done.ids;
+            size = done.size;
+            garbage = done.garbage;
+            index = done.index;
+        }
+        pendingOps.setLength(START);
+        pending.clear();
+    }
+
+    /**
+     * Waits for the compaction running on the background thread, if any,
+     * and switches to its result.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws ExecutionException if the compaction failed.
+     */
+    void awaitCompaction() throws InterruptedException, ExecutionException {
+        Future<Compaction> running = compaction;
+        if ( running != null ) {
+            running.get();
+        }
+        installCompaction();
+    }
+
+    /**
+     * Removes the empty slots right away, keeping the order of the members.
+     * Drops any compaction still running.
+     */
+    private void compactNow() {
+        installCompaction();
+        compaction = null;
+        pendingOps.setLength(START);
+        pending.clear();
+        if ( garbage == EMPTY ) {
+            return;
+        }
+        int kept = START;
+        for ( int i = 0; i < size; i++ ) {
+            if ( mlist[i] != null ) {
+                index.put(mlist[i], kept);
+                ids[kept] = ids[i];
+                mlist[kept++] = mlist[i];
+            }
+        }
+        Arrays.fill(mlist, kept, size, null);
+        size = kept;
+        garbage = EMPTY;
+        epoch++;
+    }
+
+    /**
+     * A copy of the members without empty slots and its index, built on
+     * the background thread.
+     */
+    static final class Compaction {
+        private Member[] members;
+        private int[] ids;
+        private int size;
+        private int garbage;
+        private final HashMap<Member, Integer> index;
+
+        /**
+         * Constructs Compaction object from a copy of the member array.
+         * @param snapshot the members and empty slots when it started.
+         * @param idSnapshot the ID of the member in each slot.
+         */
+        Compaction(Member[] snapshot, int[] idSnapshot) {
+            members = new Member[snapshot.length];
+            ids = new int[snapshot.length];
+            index = new HashMap<>((int) (snapshot.length / INDEX_LOAD) + 1);
+            for ( int i = 0; i < snapshot.length; i++ ) {
+                if ( snapshot[i] != null ) {
+                    index.put(snapshot[i], size);
+                    ids[size] = idSnapshot[i];
+                    members[size++] = snapshot[i];
+                }
+            }
+        }
+
+        /**
+         * Applies the changes made to the database since the snapshot.
+         * Grows the arrays at most once for all the adds.
+         * @param ops ADD or REMOVE of MemberJournal for each change.
+         * @param changed the member of each change.
+         * @param changedIds the ID of the member of each change.
+         */
+        void replay(CharSequence ops, List<Member> changed, int[] changedIds) {
+            int adds = 0;
+            for ( int i = 0; i < changed.size(); i++ ) {
+                if ( ops.charAt(i) == MemberJournal.ADD ) {
+                    adds++;
+                }
+            }
+            if ( size + adds > members.length ) {
+                members = Arrays.copyOf(members, size + adds);
+                ids = Arrays.copyOf(ids, members.length);
+            }
+            for ( int i = 0; i < changed.size(); i++ ) {
+                Member m = changed.get(i);
+                if ( ops.charAt(i) == MemberJournal.ADD ) {
+                    index.put(m, size);
+                    ids[size] = changedIds[i];
+                    members[size++] = m;
+                } else {
+                    Integer slot = index.remove(m);
+                    if ( slot != null ) {
+                        members[slot] = null;
+                        garbage++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Gets the slots of the compacted array.
+         * @return a view of the slots in order, null for each member
+         * removed by the replay.
+         */
+        List<Member> getSlots() {
+            return Arrays.asList(members).subList(START, size);
+        }
+
+        /**
+         * Gets the slot of a member in the compacted array.
+         * @param member to look up.
+         * @return the slot, null if the member isn't in the array.
+         */
+        Integer getSlot(Member member) {
+            return index.get(member);
+        }
+
+        /**
+         * Gets the ID of the member in a slot of the compacted array.
+         * @param slot of the member.
+         * @return the ID.
+         */
+        int getId(int slot) {
+            return ids[slot];
+        }
     }
 
     /**
@@ -75,11 +672,13 @@ public class MemberDatabase {
             newList[i] = mlist[i];
         }
         mlist = newList;
+        ids = Arrays.copyOf(ids, mlist.length);
     }
 
     /**
      * Adds a new member to the database.
-     * Doesn't add member if it's a duplicate.
+     * Doesn't add member if it's a duplicate, including of an archived
+     * member.
      * Adds member to the array and increases size.
      * Grows the database if full.
      * @param member to add to the database.
@@ -87,35 +686,172 @@ public class MemberDatabase {
      * true if successfully added.
      */
     public boolean add(Member member) {
-        if ( find(member) != NOT_FOUND ) return false;
-        if ( size == mlist.length ) {
-            grow();
+        long start = System.nanoTime();
+        installCompaction();
+        if ( index.containsKey(member)
+                || archive != null && archive.get(member) != null ) {
+            GymMetrics.get().recordAdd(false, start);
+            return false;
+        }
+        append(member);
+        modCount++;
+        GymMetrics.get().recordAdd(true, start);
+        changes.publish(GymChange.Type.MEMBER_ADDED, member, null);
+        if ( journal != null ) {
+            journal.append(MemberJournal.ADD, member);
         }
-        mlist[size] = member;
-        size++;
         return true;
     }
 
     /**
      * Removes an existing member from the database.
      * Doesn't remove if the member doesn't exist.
-     * Stably removes user by shifting all members over in the array.
-     * Decreases the count of members without ever shrinking the array.
+     * Empties the slot of the member in constant time, keeping the order
+     * of the other members. Empty slots are removed by a compaction on a
+     * background thread once they make up a large share of the array.
      * @param member to remove from the database.
      * @return false if the member doesn't exist,
      * true if successfully removed.
      */
     public boolean remove(Member member) {
-        int location = find(member);
-        if (location == NOT_FOUND) return false;
-        for ( int i = location; i < size - LAST; i++ ) {
-            mlist[i] = mlist[i + 1];
+        long start = System.nanoTime();
+        installCompaction();
+        Member removed = tombstone(member);
+        if ( removed == null && archive != null ) {
+            Member archived = archive.get(member);
+            if ( archived != null ) {
+                archive.remove(archived);
+                GymMetrics.get().recordRemove(true, start);
+                changes.publish(GymChange.Type.MEMBER_REMOVED, archived, null);
+                if ( journal != null ) {
+                    journal.append(MemberJournal.REMOVE, archived);
+                }
+                return true;
+            }
+        }
+        if ( removed == null ) {
+            GymMetrics.get().recordRemove(false, start);
+            return false;
+        }
+        modCount++;
+        maybeCompact();
+        GymMetrics.get().recordRemove(true, start);
+        changes.publish(GymChange.Type.MEMBER_REMOVED, removed, null);
+        if ( journal != null ) {
+            journal.append(MemberJournal.REMOVE, removed);
+        }
+        return true;
+    }
+
+    /**
+     * Changes the expiration date of an existing member.
+     * Doesn't change anything if the member doesn't exist.
+     * @param member to update, only the identifying properties are used.
+     * @param expire the new expiration date.
+     * @return false if the member doesn't exist,
+     * true if successfully updated.
+     */
+    public boolean updateExpiration(Member member, Date expire) {
+        Member found = resident(member);
+        if ( found == null ) {
+            return false;
+        }
+        setExpire(found, expire);
+        changes.publish(GymChange.Type.EXPIRATION_CHANGED, found, null);
+        if ( journal != null ) {
+            journal.append(MemberJournal.EXPIRE, found);
         }
-        mlist[size - LAST] = null;
-        size--;
         return true;
     }
 
+    /**
+     * Applies the changes of a checked batch in one step.
+     * Empties the slots of removed members, reallocates the array at most
+     * once for the restored and added members, and leaves the empty slots to the
+     * background compaction.
+     * @param restores archived members to move back into memory first.
+     * @param removes members in the database to remove.
+     * @param adds members not in the database to add, in order.
+     * @param expirations the new expiration dates of members.
+     * @param ops the kind of each change in order, as in MemberJournal.
+     * @param changed the member of each change in order.
+     */
+    void applyBatch(Collection<Member> restores, Set<Member> removes, Collection<Member> adds,
+                    Map<Member, Date> expirations, CharSequence ops, List<Member> changed) {
+        installCompaction();
+        int appended = restores.size() + adds.size();
+        if ( size + appended > mlist.length ) {
+            mlist = Arrays.copyOf(mlist, size + appended);
+            ids = Arrays.copyOf(ids, mlist.length);
+        }
+        if ( !restores.isEmpty() ) {
+            archive.removeAll(restores);
+            for ( Member m : restores ) {
+                append(m);
+            }
+        }
+        for ( Member m : removes ) {
+            tombstone(m);
+        }
+        for ( Member m : adds ) {
+            append(m);
+        }
+        for ( Map.Entry<Member, Date> e : expirations.entrySet() ) {
+            setExpire(e.getKey(), e.getValue());
+        }
+        if ( !restores.isEmpty() || !removes.isEmpty() || !adds.isEmpty() ) {
+            modCount++;
+            maybeCompact();
+        }
+        for ( int i = 0; i < changed.size(); i++ ) {
+            char op = ops.charAt(i);
+            changes.publish(op == MemberJournal.ADD ? GymChange.Type.MEMBER_ADDED
+                    : op == MemberJournal.REMOVE ? GymChange.Type.MEMBER_REMOVED
+                    : GymChange.Type.EXPIRATION_CHANGED, changed.get(i), null);
+        }
+        if ( journal != null ) {
+            journal.appendBatch(ops, changed);
+        }
+    }
+
+    /**
+     * Changes the expiration date of a member in memory, updating the
+     * counts and forecast of the member.
+     * @param m the member in memory.
+     * @param expire the new expiration date.
+     */
+    private void setExpire(Member m, Date expire) {
+        boolean counted = index.containsKey(m);
+        if ( counted ) {
+            counters.removed(m);
+        }
+        m.setExpire(expire);
+        if ( counted ) {
+            counters.added(m);
+        }
+        if ( forecast != null ) {
+            forecast.changed(m);
+        }
+    }
+
+    /**
+     * Renews many members, then publishes and journals the renewals as one
+     * change.
+     * @param renewed the members to renew.
+     * @param expires the new expiration date of each member, in the same
+     * order.
+     */
+    void renewed(List<Member> renewed, List<Date> expires) {
+        for ( int i = 0; i < renewed.size(); i++ ) {
+            Member m = renewed.get(i);
+            setExpire(m, expires.get(i));
+            changes.publish(GymChange.Type.EXPIRATION_CHANGED, m, null);
+        }
+        if ( journal != null ) {
+            journal.appendBatch(MemberJournal.EXPIRE, renewed);
+        }
+    }
+
     /**
      * Represents the database as a string.
      * Lists all the members in their string forms.
@@ -126,7 +862,9 @@ public class MemberDatabase {
         if ( isEmpty() ) return "Member database is empty!";
         String output = "";
         for ( int i = 0; i < size; i++ ) {
-            output += mlist[i].toString() + "\n";
+            if ( mlist[i] != null ) {
+                output += mlist[i].toString() + "\n";
+            }
         }
         return output.substring(START, output.length() - LAST);
     }
@@ -140,12 +878,68 @@ public class MemberDatabase {
      */
     public String toStringWithFees(boolean first) {
         if ( isEmpty() ) return "Member database is empty!";
+        String name = first ? FIRST_BILL_REPORT : NEXT_BILL_REPORT;
+        String cached = cached(name);
+        if ( cached != null ) {
+            return cached;
+        }
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long start = System.nanoTime();
         String output = "";
         for ( int i = 0; i < size; i++ ) {
-            output += mlist[i].toString() + ", Membership fee: $"
-                    + mlist[i].membershipFee(first) + "\n";
+            if ( mlist[i] != null ) {
+                output += mlist[i].toString() + ", Membership fee: $"
+                        + mlist[i].membershipFee(first) + "\n";
+            }
         }
-        return output.substring(START, output.length() - LAST);
+        return report(event, name, output.substring(START, output.length() - LAST), start);
+    }
+
+    /**
+     * Gets the version of the data the reports are generated from.
+     * Changes whenever members are added, removed, or reordered, or the
+     * state of any member changes.
+     * @return the current version.
+     */
+    private long version() {
+        return modCount + Member.stateVersion();
+    }
+
+    /**
+     * Gets a report from the cache if the data didn't change since it was
+     * generated.
+     * @param name of the report.
+     * @return the cached report, null if it has to be generated.
+     */
+    private String cached(String name) {
+        String output = reports.get(name, version(), LocalDate.now().toEpochDay());
+        if ( output != null ) {
+            GymMetrics.get().recordReportCacheHit();
+        }
+        return output;
+    }
+
+    /**
+     * Records the generation of a report in the metrics and flight recorder
+     * and caches it.
+     * @param event started when generation began.
+     * @param name of the report.
+     * @param output the generated report.
+     * @param start value of System.nanoTime() when generation began.
+     * @return the report.
+     */
+    private String report(ReportEvent event, String name, String output,
+                          long start) {
+        GymMetrics.get().recordReport(output.length(), start);
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.report = name;
+            event.members = count();
+            event.chars = output.length();
+            event.commit();
+        }
+        return reports.put(name, output, version(), LocalDate.now().toEpochDay());
     }
 
     /**
@@ -155,16 +949,28 @@ public class MemberDatabase {
      */
     public String getPrint() {
         if ( isEmpty() ) return "Member database is empty!";
-        return "\n-list of members-\n" + toString() + "\n-end of list-";
+        String cached = cached(LIST_REPORT);
+        if ( cached != null ) {
+            return cached;
+        }
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long start = System.nanoTime();
+        return report(event, LIST_REPORT, "\n-list of members-\n" + toString() + "\n-end of list-", start);
     }
 
     /**
      * Sorts the array of members based on inputted member property.
      * Uses unstable version of Insertion Sort.
+     * Sorting an already sorted array doesn't move any member, so cached
+     * reports stay valid. Removes the empty slots first, and updates the
+     * slots in the index if any member moved.
      * @param type an integer representing which property to sort by (county,
      *           expiration date, or name).
      */
     private void insertionSort(int type) {
+        compactNow();
+        long before = modCount;
         for ( int i = 0; i < size - 1; i++ ) {
             for ( int j = i + 1; j < size; j++ ) {
                 if ( type == SORT_BY_COUNTY
@@ -176,9 +982,19 @@ public class MemberDatabase {
                     Member temp = mlist[i];
                     mlist[i] = mlist[j];
                     mlist[j] = temp;
+                    int id = ids[i];
+                    ids[i] = ids[j];
+                    ids[j] = id;
+                    modCount++;
                 }
             }
         }
+        if ( modCount != before ) {
+            for ( int i = 0; i < size; i++ ) {
+                index.put(mlist[i], i);
+            }
+            epoch++;
+        }
     }
 
     /**
@@ -188,9 +1004,16 @@ public class MemberDatabase {
      */
     public String getPrintByCounty() {
         if ( isEmpty() ) return "Member database is empty!";
+        String cached = cached(COUNTY_REPORT);
+        if ( cached != null ) {
+            return cached;
+        }
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long start = System.nanoTime();
         insertionSort(SORT_BY_COUNTY);
-        return "\n-list of members sorted by county and zipcode-\n"
-                + toString()+ "\n-end of list-";
+        return report(event, COUNTY_REPORT, "\n-list of members sorted by county and zipcode-\n"
+                + toString()+ "\n-end of list-", start);
     }
 
     /**
@@ -200,9 +1023,16 @@ public class MemberDatabase {
      */
     public String getPrintByExpiration() {
         if ( isEmpty() ) return "Member database is empty!";
+        String cached = cached(EXPIRATION_REPORT);
+        if ( cached != null ) {
+            return cached;
+        }
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long start = System.nanoTime();
         insertionSort(SORT_BY_EXPIRATION);
-        return "\n-list of members sorted by membership expiration date-\n"
-                + toString() + "\n-end of list-";
+        return report(event, EXPIRATION_REPORT, "\n-list of members sorted by membership expiration date-\n"
+                + toString() + "\n-end of list-", start);
     }
 
     /**
@@ -213,9 +1043,16 @@ public class MemberDatabase {
      */
     public String getPrintByName() {
         if ( isEmpty() ) return "Member database is empty!";
+        String cached = cached(NAME_REPORT);
+        if ( cached != null ) {
+            return cached;
+        }
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        long start = System.nanoTime();
         insertionSort(SORT_BY_NAME);
-        return "\n-list of members sorted by last name, and first name-\n"
-                + toString() + "\n-end of list-";
+        return report(event, NAME_REPORT, "\n-list of members sorted by last name, and first name-\n"
+                + toString() + "\n-end of list-", start);
     }
 
     /**
@@ -223,14 +1060,36 @@ public class MemberDatabase {
      * Since members are identified by their fName, lName, and dob only,
      * this method retrieves the full data (expire and location) based
      * on an input member with just the identifying properties.
+     * Looks the member up in the index in constant time, then in the
+     * archive if there is one.
      * @param member a Member object with only the identifying properties.
-     * @return the corresponding member in the database with all properties.
+     * @return the corresponding member in the database with all properties,
+     * null if the member doesn't exist.
      */
     public Member getMemberData(Member member) {
-        if ( find(member) == NOT_FOUND ) {
-            return null;
+        long start = System.nanoTime();
+        Member found = resident(member);
+        GymMetrics.get().recordLookup(found != null, start);
+        return found;
+    }
+
+    /**
+     * Creates a member from the fields of a line of a member file.
+     * @param input fields of the line.
+     * @return the member with the expiration date from the line.
+     */
+    static Member parseMember(String[] input) {
+        Date expire = new Date(input[ADD_EXPIRATION_DAY]);
+        Location location = Location.valueOf(input[ADD_LOCATION].toUpperCase());
+        if ( input.length <= ADD_TYPE ) {
+            return new Member(input[ADD_FIRST_NAME], input[ADD_LAST_NAME],
+                    new Date(input[ADD_BIRTHDAY]), expire, location);
         }
-        return mlist[find(member)];
+        Member m = MembershipType.valueOf(input[ADD_TYPE].toUpperCase()).create(
+                input[ADD_FIRST_NAME], input[ADD_LAST_NAME],
+                new Date(input[ADD_BIRTHDAY]), location);
+        m.setExpire(expire);
+        return m;
     }
 
     /**
@@ -239,7 +1098,24 @@ public class MemberDatabase {
      * and adds them to the member database.
      */
     public void loadMembers() {
-        File f = new File(MEMBERS_FILE);
+        loadMembers(new File(MEMBERS_FILE));
+    }
+
+    /**
+     * Loads in members from the given input file.
+     * Each line holds the first name, last name, date of birth, expiration
+     * date, and location of a member separated by spaces, optionally
+     * followed by the membership type. Members without a type are standard.
+     * Adds the members as one batch, skipping duplicates.
+     * Does nothing if the file doesn't exist.
+     * @param f file to load the members from.
+     */
+    public void loadMembers(File f) {
+        MemberLoadEvent event = new MemberLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int before = count();
+        int rows = 0;
         Scanner scan;
         try {
             scan = new Scanner(f);
@@ -247,14 +1123,20 @@ public class MemberDatabase {
             return;
         }
 
+        MemberBatch batch = new MemberBatch(this);
         while (scan.hasNextLine() ) {
             String[] input = scan.nextLine().split(" ");
-            add(new Member(input[ADD_FIRST_NAME],
-                    input[ADD_LAST_NAME],
-                    new Date(input[ADD_BIRTHDAY]),
-                    new Date(input[ADD_EXPIRATION_DAY]),
-                    Location.valueOf(input[ADD_LOCATION].toUpperCase())
-            ));
+            rows++;
+            batch.add(parseMember(input));
+        }
+        batch.apply(false);
+        GymMetrics.get().recordMemberLoad(count() - before, start);
+        event.end();
+        if ( event.shouldCommit() ) {
+            event.file = f.getPath();
+            event.rows = rows;
+            event.added = count() - before;
+            event.commit();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,281 @@
+package com.example.fitnesschaingui;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a member database in sync with a member file that is rewritten
+ * by another system.
+ * Remembers a 64 bit hash of every line it ingested along with the member
+ * read from the line, and how many lines name each member. When the file
+ * changes, lines whose hash it already knows are moved over without being
+ * parsed while the file is read, so the hashes left over are the lines
+ * that are gone; apart from reading the file, a sync only does work for
+ * the lines that were added or removed. Members no longer named by any
+ * line are removed, and a line that changed only the expiration date
+ * updates the member in place. The changes are applied as one batch while
+ * holding the given lock. Lines that can't be parsed and failed syncs are
+ * reported to the given error handler. The file is watched for changes on
+ * a background thread.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class MemberFileSync implements AutoCloseable {
+    private final Lock lock;
+    private final MemberDatabase db;
+    private final Path file;
+    private final Consumer<String> errors;
+    private HashMap<Long, Member> lines;
+    private final HashMap<Member, Integer> named;
+    private volatile boolean running;
+    private WatchService watcher;
+    private Thread thread;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long SETTLE_MILLIS = 200;
+    private static final float LOAD = 0.75f;
+    private static final int PAIR = 2;
+    private static final int OLD = 0;
+    private static final int NOW = 1;
+    private static final int ARG_MEMBERS = 0;
+
+    /**
+     * Constructs MemberFileSync object.
+     * Nothing is read until the file is synced or the watcher is started.
+     * @param lock held while applying changes, shared with everything else
+     * using the database.
+     * @param db to apply the changes to.
+     * @param file the member file to follow.
+     * @param errors told about every line skipped, every change rejected,
+     * and every failed sync.
+     */
+    public MemberFileSync(Lock lock, MemberDatabase db, Path file, Consumer<String> errors) {
+        this.lock = lock;
+        this.db = db;
+        this.file = file.toAbsolutePath();
+        this.errors = errors;
+        lines = new HashMap<>();
+        named = new HashMap<>();
+    }
+
+    /**
+     * Hashes a line of the member file.
+     * Uses 64 bit FNV-1a so lines that differ practically never collide.
+     * @param line of the file.
+     * @return the hash of the line.
+     */
+    private static long hash(String line) {
+        long h = FNV_OFFSET;
+        for ( int i = 0; i < line.length(); i++ ) {
+            h = (h ^ line.charAt(i)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Applies the changes made to the file since it was last synced.
+     * The first sync adds every member of the file.
+     * Lines that can't be parsed, and changes the database rejects, are
+     * reported and skipped.
+     * @return the number of adds, removals, and expiration changes applied.
+     * @throws IOException if the file can't be read.
+     */
+    public synchronized int sync() throws IOException {
+        HashMap<Long, Member> next = new HashMap<>((int) (lines.size() / LOAD) + 1);
+        List<Member> added = new ArrayList<>();
+        try ( BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8) ) {
+            String line;
+            while ( (line = in.readLine()) != null ) {
+                long h = hash(line);
+                if ( next.containsKey(h) ) {
+                    continue;
+                }
+                Member known = lines.remove(h);
+                if ( known != null ) {
+                    next.put(h, known);
+                    continue;
+                }
+                Member m;
+                try {
+                    m = MemberDatabase.parseMember(line.split(" "));
+                } catch ( IllegalArgumentException | IndexOutOfBoundsException e ) {
+                    errors.accept("Skipped member line \"" + line + "\": " + e.getMessage());
+                    continue;
+                }
+                next.put(h, m);
+                added.add(m);
+            }
+        }
+        LinkedHashMap<Member, Member[]> changed = new LinkedHashMap<>();
+        for ( Member old : lines.values() ) {
+            name(old, -1);
+            changed.computeIfAbsent(old, k -> new Member[PAIR])[OLD] = old;
+        }
+        for ( Member now : added ) {
+            Member[] pair = changed.computeIfAbsent(now, k -> new Member[PAIR]);
+            if ( pair[NOW] == null ) {
+                pair[NOW] = now;
+            }
+        }
+        MemberBatch batch = new MemberBatch(db);
+        for ( Map.Entry<Member, Member[]> e : changed.entrySet() ) {
+            Member old = e.getValue()[OLD];
+            Member now = e.getValue()[NOW];
+            boolean stillNamed = named.containsKey(e.getKey());
+            if ( stillNamed ) {
+                continue;
+            } else if ( now == null ) {
+                batch.remove(old);
+            } else if ( old == null ) {
+                batch.add(now);
+            } else if ( MembershipType.of(now) == MembershipType.of(old)
+                    && now.getLocation() == old.getLocation() ) {
+                batch.updateExpiration(old, now.getExpire());
+            } else {
+                batch.remove(old).add(now);
+            }
+        }
+        for ( Member now : added ) {
+            name(now, 1);
+        }
+        lines = next;
+        int changes = batch.size();
+        if ( changes > 0 ) {
+            List<MemberBatch.Rejection> rejected;
+            lock.lock();
+            try {
+                rejected = batch.apply(false);
+            } finally {
+                lock.unlock();
+            }
+            for ( MemberBatch.Rejection r : rejected ) {
+                errors.accept("Member file change rejected, " + r);
+            }
+            changes -= rejected.size();
+        }
+        return changes;
+    }
+
+    /**
+     * Counts a line naming a member, or stops counting one.
+     * @param m the member of the line.
+     * @param count 1 for a new line, -1 for a line that is gone.
+     */
+    private void name(Member m, int count) {
+        named.merge(m, count, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    /**
+     * Syncs the file, then watches it for changes on a background thread.
+     * @throws IOException if the file can't be read or watched.
+     */
+    public void start() throws IOException {
+        sync();
+        watcher = file.getFileSystem().newWatchService();
+        file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        running = true;
+        thread = new Thread(this::watch, "member-file-sync");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits for the file to change and syncs it, until closed.
+     * Waits until no more changes are reported for a moment before
+     * syncing, so a file being rewritten is read once it is complete.
+     */
+    private void watch() {
+        try {
+            while ( running ) {
+                boolean changed = changed(watcher.take());
+                WatchKey key;
+                while ( (key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null ) {
+                    changed |= changed(key);
+                }
+                if ( changed ) {
+                    try {
+                        sync();
+                    } catch ( NoSuchFileException e ) {
+                        errors.accept("Member file is gone: " + file);
+                    } catch ( IOException e ) {
+                        errors.accept("Member file sync failed: " + e.getMessage());
+                    }
+                }
+            }
+        } catch ( InterruptedException | ClosedWatchServiceException e ) {
+            running = false;
+        }
+    }
+
+    /**
+     * Checks the events of a watch key for changes to the member file,
+     * then resets the key.
+     * @param key signalled by the watch service.
+     * @return true if the member file was created or modified.
+     */
+    private boolean changed(WatchKey key) {
+        boolean changed = false;
+        for ( WatchEvent<?> event : key.pollEvents() ) {
+            if ( event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context()) ) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Stops watching the file.
+     * @throws IOException if the watch service can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if ( thread != null ) {
+            thread.interrupt();
+        }
+        if ( watcher != null ) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Runs a gym that follows a member file and reads commands from
+     * standard input.
+     * The argument is the member file.
+     * @param args from the command line.
+     * @throws IOException if reading fails.
+     */
+    public static void main(String[] args) throws IOException {
+        GymManager gym = new GymManager();
+        gym.getSchedule().loadSchedule();
+        try ( MemberFileSync sync = new MemberFileSync(gym.getLock(), gym.getDatabase(),
+                Paths.get(args[ARG_MEMBERS]), System.err::println) ) {
+            sync.start();
+            ReplicationPrimary.commands(gym,
+                    new BufferedReader(new InputStreamReader(System.in)), Set.of());
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.fitnesschaingui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Groups members by county, zip code, membership type, and status.
+ * Goes over the members once, split across the common fork/join pool.
+ * Each task groups its own range of members into a partial result, and
+ * the partial results are merged as the tasks join, so no two threads
+ * ever touch the same group.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class MemberGroups {
+    private static final int THRESHOLD = 4096;
+    private static final String ACTIVE = "ACTIVE";
+    private static final String EXPIRED = "EXPIRED";
+    private static final Comparator<List<String>> KEY_ORDER = (a, b) -> {
+        for ( int i = 0; i < a.size(); i++ ) {
+            int c = a.get(i).compareTo(b.get(i));
+            if ( c != 0 ) {
+                return c;
+            }
+        }
+        return 0;
+    };
+
+    private MemberGroups() {
+    }
+
+    /**
+     * Properties members can be grouped by.
+     */
+    public enum Dimension {
+        /**
+         * County of the member's gym location
+         */
+        COUNTY,
+        /**
+         * Zip code of the member's gym location
+         */
+        ZIP,
+        /**
+         * Membership type
+         */
+        TYPE,
+        /**
+         * Whether the membership is active or expired
+         */
+        STATUS;
+
+        /**
+         * Gets the value of this property for a member.
+         * @param m the member.
+         * @param today the date memberships are checked against.
+         * @return the value the member is grouped by.
+         */
+        private String of(Member m, Date today) {
+            switch ( this ) {
+                case COUNTY:
+                    return m.getLocation().getCounty();
+                case ZIP:
+                    return m.getLocation().getZip();
+                case TYPE:
+                    return MembershipType.of(m).name();
+                default:
+                    return m.isExpired(today) ? EXPIRED : ACTIVE;
+            }
+        }
+    }
+
+    /**
+     * The members sharing the same values of the grouped properties.
+     */
+    public static final class Group {
+        private final List<String> key;
+        private final ArrayList<Member> members;
+        private double firstFees;
+        private double nextFees;
+
+        /**
+         * Constructs an empty Group.
+         * @param key values of the grouped properties.
+         */
+        private Group(List<String> key) {
+            this.key = key;
+            members = new ArrayList<>();
+        }
+
+        /**
+         * Adds a member to the group.
+         * @param m the member.
+         */
+        private void add(Member m) {
+            members.add(m);
+            firstFees += m.membershipFee(true);
+            nextFees += m.membershipFee(false);
+        }
+
+        /**
+         * Adds the members of a group with the same key to this group.
+         * @param other the group to merge in.
+         */
+        private void merge(Group other) {
+            members.addAll(other.members);
+            firstFees += other.firstFees;
+            nextFees += other.nextFees;
+        }
+
+        /**
+         * Gets the values of the grouped properties, in the order given.
+         * @return the key property.
+         */
+        public List<String> getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the number of members in the group.
+         * @return the count of members.
+         */
+        public int getCount() {
+            return members.size();
+        }
+
+        /**
+         * Gets the total fees of the group for a first bill.
+         * @return the sum of the first bill fees.
+         */
+        public double getFirstFees() {
+            return firstFees;
+        }
+
+        /**
+         * Gets the total fees of the group for the next billing period.
+         * @return the sum of the next bill fees.
+         */
+        public double getNextFees() {
+            return nextFees;
+        }
+
+        /**
+         * Gets the members in the group, in database order.
+         * @return a read-only view of the members.
+         */
+        public List<Member> getMembers() {
+            return Collections.unmodifiableList(members);
+        }
+
+        /**
+         * Represents the group as a summary line.
+         * @return the key, count, and fee totals of the group.
+         */
+        @Override
+        public String toString() {
+            return String.join(", ", key) + ": " + members.size() + " members, "
+                    + String.format("first bill $%.2f, next bill $%.2f", firstFees, nextFees);
+        }
+    }
+
+    /**
+     * Groups the members of a database.
+     * Callers sharing the database with other threads should hold the same
+     * lock as those threads while grouping.
+     * @param db holding the members.
+     * @param by the properties to group by, in order.
+     * @return the groups in order of their keys, leaving out empty groups.
+     */
+    public static List<Group> groupBy(MemberDatabase db, Dimension... by) {
+        List<Member> slots = db.slots();
+        Map<List<String>, Group> groups = ForkJoinPool.commonPool().invoke(
+                new Partial(slots, by, new Date(), 0, slots.size()));
+        List<Group> sorted = new ArrayList<>(groups.values());
+        sorted.sort(Comparator.comparing(Group::getKey, KEY_ORDER));
+        return sorted;
+    }
+
+    /**
+     * Groups a range of the members, splitting the range in half until it
+     * is small enough to group directly.
+     */
+    @SuppressWarnings("serial")
+    private static final class Partial extends RecursiveTask<Map<List<String>, Group>> {
+        private final List<Member> slots;
+        private final Dimension[] by;
+        private final Date today;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs Partial task.
+         * @param slots all the slots of the database, null where a member
+         * was removed.
+         * @param by the properties to group by.
+         * @param today the date memberships are checked against.
+         * @param from first slot of the range.
+         * @param to end of the range, exclusive.
+         */
+        private Partial(List<Member> slots, Dimension[] by, Date today, int from, int to) {
+            this.slots = slots;
+            this.by = by;
+            this.today = today;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<List<String>, Group> compute() {
+            if ( to - from > THRESHOLD ) {
+                int mid = (from + to) >>> 1;
+                Partial left = new Partial(slots, by, today, from, mid);
+                left.fork();
+                Map<List<String>, Group> right = new Partial(slots, by, today, mid, to).compute();
+                Map<List<String>, Group> groups = left.join();
+                for ( Group g : right.values() ) {
+                    Group same = groups.putIfAbsent(g.key, g);
+                    if ( same != null ) {
+                        same.merge(g);
+                    }
+                }
+                return groups;
+            }
+            HashMap<List<String>, Group> groups = new HashMap<>();
+            String[] key = new String[by.length];
+            for ( int i = from; i < to; i++ ) {
+                Member m = slots.get(i);
+                if ( m == null ) {
+                    continue;
+                }
+                for ( int d = 0; d < by.length; d++ ) {
+                    key[d] = by[d].of(m, today);
+                }
+                List<String> k = List.of(key);
+                Group g = groups.get(k);
+                if ( g == null ) {
+                    g = new Group(k);
+                    groups.put(k, g);
+                }
+                g.add(m);
+            }
+            return groups;
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.example.fitnesschaingui;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Records every change to a member database in order.
+ * Each entry is a line holding the time of the change followed by a
+ * record in the format of the member file: "A" and the fields of an added
+ * member, "R" and the identifying fields of a removed member, or "E" and
+ * the identifying fields and new expiration date of a renewed member.
+ * Names are escaped so a field never holds a space or a line break.
+ * Changes made together are preceded by a "B" entry holding how many
+ * entries follow it, and are never split across the batches read.
+ * The position of an entry in the journal is its offset, which replicas
+ * use to resume shipping where they left off.
+ * Only the most recent entries are kept. Older entries are folded into a
+ * checkpoint holding an add entry for every member they leave in the
+ * database, so a replica too far behind to resume starts over from the
+ * checkpoint instead, and the journal never grows past the number of
+ * members plus the entries retained.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class MemberJournal {
+    private final ArrayList<String> entries;
+    private final LinkedHashMap<String, String> checkpoint;
+    private final int retain;
+    private long first;
+
+    static final char ADD = 'A';
+    static final char REMOVE = 'R';
+    static final char EXPIRE = 'E';
+    static final char BATCH = 'B';
+    static final int DEFAULT_RETAIN = 1 << 20;
+    private static final int TIME = 0;
+    private static final int OP = 1;
+    private static final int FIRST_NAME = 2;
+    private static final int LAST_NAME = 3;
+    private static final int BIRTHDAY = 4;
+    private static final int EXPIRATION_DAY = 5;
+    private static final int FIELDS = 2;
+    private static final int BATCH_COUNT = 2;
+    private static final int BATCH_FIELDS = 3;
+    private static final int REMOVE_FIELDS = 5;
+    private static final int EXPIRE_FIELDS = 6;
+    private static final int ADD_FIELDS = 8;
+    private static final int TRIM_DIVISOR = 2;
+    private static final int HEX = 16;
+    private static final int ESCAPE_LENGTH = 3;
+    private static final char ESCAPE = '%';
+
+    /**
+     * Constructs an empty MemberJournal retaining the default number of
+     * entries.
+     */
+    public MemberJournal() {
+        this(DEFAULT_RETAIN);
+    }
+
+    /**
+     * Constructs an empty MemberJournal.
+     * @param retain the number of recent entries to keep before folding
+     * older ones into the checkpoint.
+     */
+    public MemberJournal(int retain) {
+        if ( retain < 1 ) {
+            throw new IllegalArgumentException("Must retain at least one entry, not " + retain);
+        }
+        this.retain = retain;
+        entries = new ArrayList<>();
+        checkpoint = new LinkedHashMap<>();
+    }
+
+    /**
+     * Gets the number of entries ever appended to the journal.
+     * @return the offset the next entry will have.
+     */
+    public synchronized long size() {
+        return first + entries.size();
+    }
+
+    /**
+     * Gets the offset of the oldest entry still kept.
+     * @return the offset of the checkpoint.
+     */
+    public synchronized long first() {
+        return first;
+    }
+
+    /**
+     * Appends a change and wakes up readers waiting for it.
+     * @param op ADD, REMOVE, or EXPIRE.
+     * @param m the member that changed.
+     */
+    synchronized void append(char op, Member m) {
+        entries.add(entry(System.currentTimeMillis(), op, m));
+        trim();
+        notifyAll();
+    }
+
+    /**
+     * Appends changes of one kind made together and wakes up readers
+     * waiting for them.
+     * Readers get either all of the changes or none of them.
+     * @param op ADD, REMOVE, or EXPIRE.
+     * @param members the members that changed.
+     */
+    synchronized void appendBatch(char op, List<Member> members) {
+        appendBatch(String.valueOf(op).repeat(members.size()), members);
+    }
+
+    /**
+     * Appends changes made together and wakes up readers waiting for them.
+     * Readers get either all of the changes or none of them.
+     * @param ops the kind of each change: ADD, REMOVE, or EXPIRE.
+     * @param members the member of each change.
+     */
+    synchronized void appendBatch(CharSequence ops, List<Member> members) {
+        if ( members.isEmpty() ) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        entries.ensureCapacity(entries.size() + members.size() + 1);
+        entries.add(time + " " + BATCH + " " + members.size());
+        for ( int i = 0; i < members.size(); i++ ) {
+            entries.add(entry(time, ops.charAt(i), members.get(i)));
+        }
+        trim();
+        notifyAll();
+    }
+
+    /**
+     * Folds the oldest entries into the checkpoint once half again as many
+     * entries as retained are kept, so each entry is moved once.
+     * Never stops in the middle of a batch.
+     */
+    private void trim() {
+        if ( entries.size() <= retain + retain / TRIM_DIVISOR ) {
+            return;
+        }
+        int drop = entries.size() - retain;
+        int i = 0;
+        while ( i < drop ) {
+            String entry = entries.get(i);
+            if ( op(entry) == BATCH ) {
+                int count = Integer.parseInt(entry.split(" ")[BATCH_COUNT]);
+                for ( int j = i + 1; j <= i + count; j++ ) {
+                    fold(entries.get(j));
+                }
+                i += count + 1;
+            } else {
+                fold(entry);
+                i++;
+            }
+        }
+        entries.subList(0, i).clear();
+        first += i;
+    }
+
+    /**
+     * Applies an entry to the checkpoint.
+     * @param entry a journal entry that isn't a batch header.
+     */
+    private void fold(String entry) {
+        String[] fields = entry.split(" ");
+        String key = (fields[FIRST_NAME] + " " + fields[LAST_NAME]).toUpperCase()
+                + " " + fields[BIRTHDAY];
+        switch ( fields[OP].charAt(0) ) {
+            case ADD:
+                checkpoint.put(key, entry);
+                break;
+            case REMOVE:
+                checkpoint.remove(key);
+                break;
+            case EXPIRE:
+                String added = checkpoint.get(key);
+                if ( added != null ) {
+                    String[] add = added.split(" ");
+                    add[EXPIRATION_DAY] = fields[EXPIRATION_DAY];
+                    checkpoint.put(key, String.join(" ", add));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * The members left by the entries folded out of the journal.
+     */
+    static final class Checkpoint {
+        private final long offset;
+        private final List<String> entries;
+
+        /**
+         * Constructs Checkpoint object.
+         * @param offset of the first entry after the checkpoint.
+         * @param entries an add entry for each member.
+         */
+        private Checkpoint(long offset, List<String> entries) {
+            this.offset = offset;
+            this.entries = entries;
+        }
+
+        /**
+         * Gets the offset the journal resumes from after the checkpoint.
+         * @return the offset of the first entry after the checkpoint.
+         */
+        long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Gets the members of the checkpoint.
+         * @return an add entry for each member.
+         */
+        List<String> getEntries() {
+            return entries;
+        }
+    }
+
+    /**
+     * Gets a copy of the checkpoint along with the offset it ends at.
+     * @return the checkpoint.
+     */
+    synchronized Checkpoint checkpoint() {
+        return new Checkpoint(first, new ArrayList<>(checkpoint.values()));
+    }
+
+    /**
+     * Escapes a name so it holds no space or line break.
+     * @param field the name.
+     * @return the name with spaces, line breaks, and escape characters
+     * replaced by % and their hex code.
+     */
+    static String escape(String field) {
+        StringBuilder sb = null;
+        for ( int i = 0; i < field.length(); i++ ) {
+            char c = field.charAt(i);
+            if ( c == ' ' || c == '\n' || c == '\r' || c == ESCAPE ) {
+                if ( sb == null ) {
+                    sb = new StringBuilder(field.substring(0, i));
+                }
+                sb.append(ESCAPE).append(String.format("%02X", (int) c));
+            } else if ( sb != null ) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? field : sb.toString();
+    }
+
+    /**
+     * Reverses escape().
+     * @param field an escaped name.
+     * @return the name.
+     * @throws IllegalArgumentException if an escape is cut short or isn't
+     * hex.
+     */
+    static String unescape(String field) {
+        int at = field.indexOf(ESCAPE);
+        if ( at < 0 ) {
+            return field;
+        }
+        StringBuilder sb = new StringBuilder(field.substring(0, at));
+        for ( int i = at; i < field.length(); i++ ) {
+            char c = field.charAt(i);
+            if ( c != ESCAPE ) {
+                sb.append(c);
+                continue;
+            }
+            if ( i + ESCAPE_LENGTH > field.length() ) {
+                throw new IllegalArgumentException("Cut short escape in " + field);
+            }
+            sb.append((char) Integer.parseInt(field.substring(i + 1, i + ESCAPE_LENGTH), HEX));
+            i += ESCAPE_LENGTH - 1;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds the entry of a change.
+     * @param time of the change in milliseconds since the epoch.
+     * @param op ADD, REMOVE, or EXPIRE.
+     * @param m the member that changed.
+     * @return the journal entry.
+     */
+    private static String entry(long time, char op, Member m) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(time).append(' ').append(op).append(' ')
+                .append(escape(m.getFName())).append(' ').append(escape(m.getLName())).append(' ')
+                .append(m.getDOB());
+        if ( op != REMOVE ) {
+            sb.append(' ').append(m.getExpire());
+        }
+        if ( op == ADD ) {
+            sb.append(' ').append(m.getLocation().name())
+                    .append(' ').append(MembershipType.of(m).name());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads entries starting at an offset.
+     * Waits up to the timeout for an entry if there is none yet. Reads
+     * past the maximum to the end of a batch rather than split it.
+     * @param from offset of the first entry to read.
+     * @param max most entries to read.
+     * @param timeoutMillis longest time to wait for an entry.
+     * @return the entries read, empty if none arrived in time, null if the
+     * entry at the offset was folded into the checkpoint.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized List<String> read(long from, int max, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while ( size() <= from && remaining > 0 ) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        if ( from < first ) {
+            return null;
+        }
+        if ( size() <= from ) {
+            return List.of();
+        }
+        int start = (int) (from - first);
+        int end = (int) Math.min(entries.size(), start + (long) max);
+        for ( int i = start; i < end; i++ ) {
+            String entry = entries.get(i);
+            if ( op(entry) == BATCH ) {
+                int count = Integer.parseInt(entry.split(" ")[BATCH_COUNT]);
+                end = Math.max(end, i + 1 + count);
+                i += count;
+            }
+        }
+        return new ArrayList<>(entries.subList(start, end));
+    }
+
+    /**
+     * Gets the time an entry was appended.
+     * @param entry a journal entry.
+     * @return milliseconds since the epoch when the change happened.
+     */
+    static long time(String entry) {
+        return Long.parseLong(entry.substring(TIME, entry.indexOf(' ')));
+    }
+
+    /**
+     * Gets the kind of change of an entry.
+     * @param entry a journal entry.
+     * @return ADD, REMOVE, EXPIRE, or BATCH.
+     */
+    private static char op(String entry) {
+        return entry.charAt(entry.indexOf(' ') + 1);
+    }
+
+    /**
+     * A journal entry parsed and checked, ready to apply.
+     */
+    static final class Change {
+        private final char op;
+        private final long time;
+        private final Member member;
+        private final Date expire;
+
+        /**
+         * Constructs Change object.
+         * @param op ADD, REMOVE, EXPIRE, or BATCH.
+         * @param time of the change in milliseconds since the epoch.
+         * @param member added, or with the identifying properties of the
+         * member removed or renewed; null for a batch header.
+         * @param expire the new expiration date of a renewed member.
+         */
+        private Change(char op, long time, Member member, Date expire) {
+            this.op = op;
+            this.time = time;
+            this.member = member;
+            this.expire = expire;
+        }
+
+        /**
+         * Gets the time of the change.
+         * @return milliseconds since the epoch when the change happened.
+         */
+        long getTime() {
+            return time;
+        }
+
+        /**
+         * Gets the member of the change.
+         * @return the member, null for a batch header.
+         */
+        Member getMember() {
+            return member;
+        }
+    }
+
+    /**
+     * Parses and checks a journal entry without applying it.
+     * @param entry a journal entry.
+     * @return the change of the entry.
+     * @throws IllegalArgumentException if the entry is malformed.
+     */
+    static Change parse(String entry) {
+        try {
+            String[] fields = entry.split(" ");
+            char op = fields[OP].length() == 1 ? fields[OP].charAt(0) : ' ';
+            long time = Long.parseLong(fields[TIME]);
+            int expected = op == BATCH ? BATCH_FIELDS : op == REMOVE ? REMOVE_FIELDS
+                    : op == EXPIRE ? EXPIRE_FIELDS : op == ADD ? ADD_FIELDS : -1;
+            if ( fields.length != expected ) {
+                throw new IllegalArgumentException("wrong number of fields");
+            }
+            if ( op == BATCH ) {
+                Integer.parseInt(fields[BATCH_COUNT]);
+                return new Change(op, time, null, null);
+            }
+            String[] input = new String[fields.length - FIELDS];
+            System.arraycopy(fields, FIRST_NAME, input, 0, input.length);
+            input[LAST_NAME - FIELDS] = unescape(input[LAST_NAME - FIELDS]);
+            input[FIRST_NAME - FIELDS] = unescape(input[FIRST_NAME - FIELDS]);
+            Date dob = valid(input[BIRTHDAY - FIELDS]);
+            if ( op == ADD ) {
+                valid(input[EXPIRATION_DAY - FIELDS]);
+                return new Change(op, time, MemberDatabase.parseMember(input), null);
+            }
+            Member m = new Member(input[FIRST_NAME - FIELDS], input[LAST_NAME - FIELDS], dob, null, null);
+            Date expire = op == EXPIRE ? valid(input[EXPIRATION_DAY - FIELDS]) : null;
+            return new Change(op, time, m, expire);
+        } catch ( IllegalArgumentException | IndexOutOfBoundsException e ) {
+            throw new IllegalArgumentException("Bad journal entry \"" + entry + "\": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses a date that must be a calendar date.
+     * @param date as "mm/dd/yyyy".
+     * @return the date.
+     * @throws IllegalArgumentException if it isn't a calendar date.
+     */
+    private static Date valid(String date) {
+        Date d = new Date(date);
+        if ( !d.isValid() ) {
+            throw new IllegalArgumentException("invalid date " + date);
+        }
+        return d;
+    }
+
+    /**
+     * Stages a parsed journal entry in a batch of changes.
+     * Batch headers stage nothing; the entries after them are staged in
+     * order.
+     * @param batch to stage the change in.
+     * @param change parsed by parse().
+     */
+    static void stage(MemberBatch batch, Change change) {
+        switch ( change.op ) {
+            case ADD:
+                batch.add(change.member);
+                break;
+            case REMOVE:
+                batch.remove(change.member);
+                break;
+            case EXPIRE:
+                batch.updateExpiration(change.member, change.expire);
+                break;
+            default:
+                break;
+        }
+    }
+}
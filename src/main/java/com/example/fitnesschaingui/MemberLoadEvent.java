@@ -0,0 +1,26 @@
+package com.example.fitnesschaingui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when members are loaded from a file.
+ * @author Albert Zou, Rishabh Patel
+ */
+@Name("com.example.fitnesschaingui.MemberLoad")
+@Label("Member Load")
+@Category("Gym Manager")
+@Description("Members loaded from a member file")
+class MemberLoadEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Rows Read")
+    int rows;
+
+    @Label("Members Added")
+    int added;
+}
@@ -0,0 +1,409 @@
+package com.example.fitnesschaingui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Finds the members of a database matching a set of conditions.
+ * Conditions on the name, date of birth, expiration date, location,
+ * county, zip code, membership type, and status are added one at a time
+ * and must all hold. When the query runs, the conditions are compiled into
+ * one predicate. If the first name, last name, and date of birth are all
+ * given, the member is looked up in the index of the database; otherwise
+ * the members are scanned once, optionally split across the common
+ * fork/join pool. The scan covers the members in memory; the archive is
+ * left on disk.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class MemberQuery {
+    private final MemberDatabase db;
+    private final ArrayList<Predicate<Member>> conditions;
+    private String fName;
+    private String lName;
+    private Date dob;
+    private Order order;
+    private int limit;
+    private boolean parallel;
+
+    private static final int THRESHOLD = 4096;
+    private static final int NO_LIMIT = Integer.MAX_VALUE;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * Orders the results of a query can be sorted in.
+     */
+    public enum Order {
+        /**
+         * By last name, then first name
+         */
+        NAME(Comparator.naturalOrder()),
+        /**
+         * By county of the gym location, then zip code
+         */
+        COUNTY(Comparator.comparing((Member m) -> m.getLocation().getCounty())
+                .thenComparing(m -> m.getLocation().getZip())),
+        /**
+         * By expiration date, earliest first
+         */
+        EXPIRATION(Comparator.comparing(Member::getExpire));
+
+        private final Comparator<Member> comparator;
+
+        /**
+         * Constructs Order.
+         * @param comparator sorting members in this order.
+         */
+        Order(Comparator<Member> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    /**
+     * Constructs a query matching every member.
+     * @param db to query.
+     */
+    public MemberQuery(MemberDatabase db) {
+        this.db = db;
+        conditions = new ArrayList<>();
+        limit = NO_LIMIT;
+    }
+
+    /**
+     * Matches members with a first name, regardless of case.
+     * @param fName first name of the members.
+     * @return this query.
+     */
+    public MemberQuery firstName(String fName) {
+        this.fName = fName;
+        return where(m -> m.getFName().equalsIgnoreCase(fName));
+    }
+
+    /**
+     * Matches members with a last name, regardless of case.
+     * @param lName last name of the members.
+     * @return this query.
+     */
+    public MemberQuery lastName(String lName) {
+        this.lName = lName;
+        return where(m -> m.getLName().equalsIgnoreCase(lName));
+    }
+
+    /**
+     * Matches members born on a date.
+     * @param dob date of birth of the members.
+     * @return this query.
+     */
+    public MemberQuery bornOn(Date dob) {
+        this.dob = dob;
+        return where(m -> m.getDOB().compareTo(dob) == 0);
+    }
+
+    /**
+     * Matches members whose membership expires before a date.
+     * @param date the memberships expire before.
+     * @return this query.
+     */
+    public MemberQuery expiresBefore(Date date) {
+        return where(m -> m.getExpire().compareTo(date) < 0);
+    }
+
+    /**
+     * Matches members whose membership expires on or after a date.
+     * @param date the memberships expire on or after.
+     * @return this query.
+     */
+    public MemberQuery expiresFrom(Date date) {
+        return where(m -> m.getExpire().compareTo(date) >= 0);
+    }
+
+    /**
+     * Matches members whose membership hasn't expired.
+     * @return this query.
+     */
+    public MemberQuery active() {
+        Date today = new Date();
+        return where(m -> !m.isExpired(today));
+    }
+
+    /**
+     * Matches members whose membership has expired.
+     * @return this query.
+     */
+    public MemberQuery expired() {
+        Date today = new Date();
+        return where(m -> m.isExpired(today));
+    }
+
+    /**
+     * Matches members of a gym location.
+     * @param location of the members.
+     * @return this query.
+     */
+    public MemberQuery at(Location location) {
+        return where(m -> m.getLocation() == location);
+    }
+
+    /**
+     * Matches members of a gym location in a county, regardless of case.
+     * The county is resolved to its locations once, when it is added.
+     * @param county of the members' gym locations.
+     * @return this query.
+     */
+    public MemberQuery county(String county) {
+        EnumSet<Location> in = EnumSet.noneOf(Location.class);
+        for ( Location l : Location.values() ) {
+            if ( l.getCounty().equalsIgnoreCase(county) ) {
+                in.add(l);
+            }
+        }
+        return where(m -> in.contains(m.getLocation()));
+    }
+
+    /**
+     * Matches members of a gym location with a zip code.
+     * @param zip of the members' gym locations.
+     * @return this query.
+     */
+    public MemberQuery zip(String zip) {
+        EnumSet<Location> in = EnumSet.noneOf(Location.class);
+        for ( Location l : Location.values() ) {
+            if ( l.getZip().equals(zip) ) {
+                in.add(l);
+            }
+        }
+        return where(m -> in.contains(m.getLocation()));
+    }
+
+    /**
+     * Matches members with a membership type.
+     * @param type of the memberships.
+     * @return this query.
+     */
+    public MemberQuery type(MembershipType type) {
+        return where(m -> MembershipType.of(m) == type);
+    }
+
+    /**
+     * Matches members satisfying any other condition.
+     * @param condition on the members; called from several threads at once
+     * when the query is parallel, so it must not change anything.
+     * @return this query.
+     */
+    public MemberQuery where(Predicate<Member> condition) {
+        conditions.add(condition);
+        return this;
+    }
+
+    /**
+     * Sorts the results.
+     * @param order to sort in, null to keep database order.
+     * @return this query.
+     */
+    public MemberQuery orderBy(Order order) {
+        this.order = order;
+        return this;
+    }
+
+    /**
+     * Returns at most a number of members, after sorting.
+     * @param limit the most members to return.
+     * @return this query.
+     */
+    public MemberQuery limit(int limit) {
+        if ( limit < 0 ) {
+            throw new IllegalArgumentException("Negative limit " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Splits scans across the common fork/join pool.
+     * @param parallel true to scan in parallel, false to scan on the
+     * calling thread.
+     * @return this query.
+     */
+    public MemberQuery parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * The members found by a query.
+     */
+    public static final class Result {
+        private final List<Member> members;
+        private final boolean indexed;
+        private final long nanos;
+
+        /**
+         * Constructs Result object.
+         * @param members found, in order.
+         * @param indexed true if the index was used instead of a scan.
+         * @param nanos the query took.
+         */
+        private Result(List<Member> members, boolean indexed, long nanos) {
+            this.members = Collections.unmodifiableList(members);
+            this.indexed = indexed;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Gets the members found.
+         * @return a read-only list of the members.
+         */
+        public List<Member> getMembers() {
+            return members;
+        }
+
+        /**
+         * Gets the number of members found.
+         * @return the count of members.
+         */
+        public int getCount() {
+            return members.size();
+        }
+
+        /**
+         * Checks if the query used the index of the database.
+         * @return true if the index was used, false if members were scanned.
+         */
+        public boolean isIndexed() {
+            return indexed;
+        }
+
+        /**
+         * Gets how long the query took.
+         * @return the time in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Represents the result as a summary line.
+         * @return the count, time, and plan of the query.
+         */
+        @Override
+        public String toString() {
+            return members.size() + " members in "
+                    + String.format("%.3f ms", nanos / NANOS_PER_MILLI)
+                    + (indexed ? " (index)" : " (scan)");
+        }
+    }
+
+    /**
+     * Runs the query.
+     * Callers sharing the database with other threads should hold the same
+     * lock as those threads while querying.
+     * @return the members found along with the time taken.
+     */
+    public Result run() {
+        long start = System.nanoTime();
+        Predicate<Member> match = compile();
+        ArrayList<Member> found = new ArrayList<>();
+        boolean indexed = fName != null && lName != null && dob != null;
+        if ( indexed ) {
+            Member m = db.inMemory(new Member(fName, lName, dob, null, null));
+            if ( m != null && match.test(m) ) {
+                found.add(m);
+            }
+        } else {
+            List<Member> slots = db.slots();
+            int stop = order == null ? limit : NO_LIMIT;
+            if ( parallel && slots.size() > THRESHOLD ) {
+                found = ForkJoinPool.commonPool().invoke(
+                        new Scan(slots, match, 0, slots.size()));
+            } else {
+                for ( int i = 0; i < slots.size() && found.size() < stop; i++ ) {
+                    Member m = slots.get(i);
+                    if ( m != null && match.test(m) ) {
+                        found.add(m);
+                    }
+                }
+            }
+        }
+        if ( order != null ) {
+            found.sort(order.comparator);
+        }
+        List<Member> result = found.size() > limit ? found.subList(0, limit) : found;
+        GymMetrics.get().recordQuery(start);
+        return new Result(result, indexed, System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the members matching the query, up to the limit.
+     * @return the number of members found.
+     */
+    public int count() {
+        return run().getCount();
+    }
+
+    /**
+     * Combines the conditions into one predicate.
+     * @return a predicate that holds when every condition holds.
+     */
+    private Predicate<Member> compile() {
+        if ( conditions.isEmpty() ) {
+            return m -> true;
+        }
+        Predicate<Member> match = conditions.get(0);
+        for ( int i = 1; i < conditions.size(); i++ ) {
+            match = match.and(conditions.get(i));
+        }
+        return match;
+    }
+
+    /**
+     * Finds the matching members in a range of the slots, splitting the
+     * range in half until it is small enough to scan directly.
+     */
+    @SuppressWarnings("serial")
+    private static final class Scan extends RecursiveTask<ArrayList<Member>> {
+        private final List<Member> slots;
+        private final Predicate<Member> match;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs Scan task.
+         * @param slots of the database, null where a member was removed.
+         * @param match the compiled conditions.
+         * @param from first slot of the range.
+         * @param to end of the range, exclusive.
+         */
+        private Scan(List<Member> slots, Predicate<Member> match, int from, int to) {
+            this.slots = slots;
+            this.match = match;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ArrayList<Member> compute() {
+            if ( to - from > THRESHOLD ) {
+                int mid = (from + to) >>> 1;
+                Scan left = new Scan(slots, match, from, mid);
+                left.fork();
+                ArrayList<Member> right = new Scan(slots, match, mid, to).compute();
+                ArrayList<Member> found = left.join();
+                found.addAll(right);
+                return found;
+            }
+            ArrayList<Member> found = new ArrayList<>();
+            for ( int i = from; i < to; i++ ) {
+                Member m = slots.get(i);
+                if ( m != null && match.test(m) ) {
+                    found.add(m);
+                }
+            }
+            return found;
+        }
+    }
+}
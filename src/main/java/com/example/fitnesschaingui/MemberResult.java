@@ -0,0 +1,117 @@
+package com.example.fitnesschaingui;
+
+/**
+ * Represents the result of adding or removing a member.
+ * Stores the outcome along with the member that was added or removed and
+ * the message shown to the user.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class MemberResult {
+    private final Outcome outcome;
+    private final Member member;
+    private final String message;
+
+    /**
+     * Possible outcomes of adding or removing a member, in the order the
+     * rules are applied.
+     */
+    public enum Outcome {
+        /**
+         * The first or last name is missing.
+         */
+        MISSING_NAME,
+        /**
+         * No date of birth was given.
+         */
+        MISSING_DATE,
+        /**
+         * The date of birth is not a calendar date.
+         */
+        INVALID_DATE,
+        /**
+         * The member location does not exist.
+         */
+        INVALID_LOCATION,
+        /**
+         * No membership type was chosen.
+         */
+        MISSING_TYPE,
+        /**
+         * The date of birth is today or in the future.
+         */
+        FUTURE_DATE,
+        /**
+         * The member is younger than 18.
+         */
+        UNDERAGE,
+        /**
+         * The member was already in the database.
+         */
+        ALREADY_IN_DATABASE,
+        /**
+         * The member was added.
+         */
+        ADDED,
+        /**
+         * The member is not in the database.
+         */
+        NOT_IN_DATABASE,
+        /**
+         * The member was removed.
+         */
+        REMOVED
+    }
+
+    /**
+     * Constructs MemberResult object.
+     * @param outcome of the operation.
+     * @param member added or removed, null if none was.
+     * @param message to show the user, ending in a newline.
+     */
+    public MemberResult(Outcome outcome, Member member, String message) {
+        this.outcome = outcome;
+        this.member = member;
+        this.message = message;
+    }
+
+    /**
+     * Checks if the member was added or removed.
+     * @return true if the operation changed the database, false otherwise.
+     */
+    public boolean isSuccess() {
+        return outcome == Outcome.ADDED || outcome == Outcome.REMOVED;
+    }
+
+    /**
+     * Gets the outcome of the operation.
+     * @return the outcome property.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Gets the member added or removed.
+     * @return the member property, null if none was.
+     */
+    public Member getMember() {
+        return member;
+    }
+
+    /**
+     * Gets the message shown to the user.
+     * @return the message property.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Represents the result as a string.
+     * @return the message without the trailing newline.
+     */
+    @Override
+    public String toString() {
+        return message.stripTrailing();
+    }
+}
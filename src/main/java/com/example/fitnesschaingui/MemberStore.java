@@ -0,0 +1,689 @@
+package com.example.fitnesschaingui;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Stores members on disk, for archives too large to keep on the heap.
+ * A log-structured merge store keyed on member identity: changes go to a
+ * sorted table in memory and a write-ahead log, and the table is written
+ * out as an immutable sorted run once it fills up. Lookups check the table
+ * and then the runs from newest to oldest, reading at most one page from
+ * each run through a bounded LRU page cache. When too many runs pile up
+ * they are merged into one, dropping deleted and overwritten members.
+ * Full tables are written and runs are merged on background threads, and
+ * the new run replaces what it was built from in one step, so a change
+ * only ever waits for its own log write, or for a table to be written
+ * when writes outpace the disk.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class MemberStore implements AutoCloseable {
+    private final Path dir;
+    private final ArrayDeque<Table> flushing;
+    private final ArrayList<SortedRun> runs;
+    private final PageCache cache;
+    private final int tableLimit;
+    private Table table;
+    private boolean compacting;
+    private IOException failure;
+    private long nextRun;
+    private long nextLog;
+
+    private static final String RUN_PREFIX = "run-";
+    private static final String RUN_SUFFIX = ".lsm";
+    private static final String LOG_PREFIX = "wal-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String FILE_FORMAT = "%s%012d%s";
+    private static final char PUT = 'P';
+    private static final char DELETE = 'D';
+    private static final int OP = 0;
+    private static final int RECORD = 2;
+    private static final int FIRST_NAME = 0;
+    private static final int LAST_NAME = 1;
+    private static final int MAX_RUNS = 8;
+    private static final int MAX_FLUSHING = 2;
+    private static final int LOG_BUFFER = 1 << 16;
+    private static final int DEFAULT_TABLE_LIMIT = 100_000;
+    private static final int DEFAULT_CACHE_PAGES = 8192;
+    private static final ExecutorService FLUSHER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "member-store-flush");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final ExecutorService MERGER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "member-store-compaction");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Changes held in memory along with the log files recording them.
+     */
+    private static final class Table {
+        private final TreeMap<String, String> records = new TreeMap<>();
+        private final ArrayList<Path> logs = new ArrayList<>();
+        private BufferedWriter log;
+    }
+
+    /**
+     * Opens the store in a directory with the default sizes.
+     * @param dir holding the store, created if it doesn't exist.
+     * @throws IOException if the store can't be opened.
+     */
+    public MemberStore(Path dir) throws IOException {
+        this(dir, DEFAULT_CACHE_PAGES, DEFAULT_TABLE_LIMIT);
+    }
+
+    /**
+     * Opens the store in a directory.
+     * Opens the existing runs and replays the write-ahead logs of changes
+     * that weren't written to a run yet. A change cut short by a crash is
+     * dropped.
+     * @param dir holding the store, created if it doesn't exist.
+     * @param cachePages the most pages of 4 KB to keep in memory.
+     * @param tableLimit the most changes to hold in memory before writing
+     * them to a run.
+     * @throws IOException if the store can't be opened.
+     */
+    public MemberStore(Path dir, int cachePages, int tableLimit) throws IOException {
+        this.dir = dir;
+        this.tableLimit = tableLimit;
+        flushing = new ArrayDeque<>();
+        runs = new ArrayList<>();
+        cache = new PageCache(cachePages);
+        Files.createDirectories(dir);
+        try ( DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + TEMP_SUFFIX) ) {
+            for ( Path p : stream ) {
+                Files.delete(p);
+            }
+        }
+        for ( Map.Entry<Long, Path> e : files(RUN_PREFIX, RUN_SUFFIX).entrySet() ) {
+            runs.add(SortedRun.open(e.getValue(), e.getKey()));
+            nextRun = e.getKey() + 1;
+        }
+        table = new Table();
+        for ( Map.Entry<Long, Path> e : files(LOG_PREFIX, LOG_SUFFIX).entrySet() ) {
+            replay(e.getValue(), table.records);
+            table.logs.add(e.getValue());
+            nextLog = e.getKey() + 1;
+        }
+        openLog(table);
+    }
+
+    /**
+     * Lists the numbered files of a kind in the store directory.
+     * @param prefix of the file names, before the number.
+     * @param suffix of the file names, after the number.
+     * @return the files by number.
+     * @throws IOException if the directory can't be read.
+     */
+    private TreeMap<Long, Path> files(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try ( DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + suffix) ) {
+            for ( Path p : stream ) {
+                String name = p.getFileName().toString();
+                files.put(Long.parseLong(name.substring(prefix.length(),
+                        name.length() - suffix.length())), p);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Reads the changes of a write-ahead log into a table.
+     * @param log the log file.
+     * @param records the table to apply the changes to.
+     * @throws IOException if the log can't be read.
+     */
+    private static void replay(Path log, TreeMap<String, String> records) throws IOException {
+        try ( BufferedReader in = Files.newBufferedReader(log, StandardCharsets.UTF_8) ) {
+            String line;
+            while ( (line = in.readLine()) != null ) {
+                if ( line.length() <= RECORD ) {
+                    continue;
+                }
+                String text = line.substring(RECORD);
+                try {
+                    if ( line.charAt(OP) == PUT ) {
+                        records.put(MemberDatabase.key(parse(text)), text);
+                    } else if ( line.charAt(OP) == DELETE ) {
+                        records.put(text, null);
+                    }
+                } catch ( IllegalArgumentException | IndexOutOfBoundsException e ) {
+                    continue;
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new write-ahead log for a table.
+     * @param t the table the log records changes to.
+     * @throws IOException if the log can't be created.
+     */
+    private void openLog(Table t) throws IOException {
+        Path p = dir.resolve(String.format(FILE_FORMAT, LOG_PREFIX, nextLog++, LOG_SUFFIX));
+        t.logs.add(p);
+        t.log = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(p,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                StandardCharsets.UTF_8), LOG_BUFFER);
+    }
+
+    /**
+     * Builds the record of a member.
+     * Names are escaped as in the journal, so every field is one word.
+     * @param m the member.
+     * @return a line in the member file format, including the type.
+     */
+    private static String record(Member m) {
+        return MemberJournal.escape(m.getFName()) + " " + MemberJournal.escape(m.getLName())
+                + " " + m.getDOB() + " " + m.getExpire() + " " + m.getLocation().name() + " "
+                + MembershipType.of(m).name();
+    }
+
+    /**
+     * Reads the member of a record.
+     * @param record built by record().
+     * @return the member with all properties.
+     * @throws IllegalArgumentException if the record is malformed.
+     */
+    private static Member parse(String record) {
+        String[] fields = record.split(" ");
+        fields[FIRST_NAME] = MemberJournal.unescape(fields[FIRST_NAME]);
+        fields[LAST_NAME] = MemberJournal.unescape(fields[LAST_NAME]);
+        return MemberDatabase.parseMember(fields);
+    }
+
+    /**
+     * Looks up the stored record of a key.
+     * @param key identifying the member.
+     * @return the record, null if the member isn't stored.
+     * @throws IOException if reading fails.
+     */
+    private String find(String key) throws IOException {
+        if ( table.records.containsKey(key) ) {
+            return table.records.get(key);
+        }
+        Iterator<Table> older = flushing.descendingIterator();
+        while ( older.hasNext() ) {
+            Table t = older.next();
+            if ( t.records.containsKey(key) ) {
+                return t.records.get(key);
+            }
+        }
+        for ( int i = runs.size() - 1; i >= 0; i-- ) {
+            String record = runs.get(i).get(key, cache);
+            if ( record == SortedRun.DELETED ) {
+                return null;
+            } else if ( record != null ) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds every stored member matching a condition.
+     * Merges the runs, the tables waiting to be written, and the current
+     * table in key order, so each member is read once at its newest state.
+     * Reads every run from start to end while holding the store, so it is
+     * meant for bulk jobs, not lookups.
+     * @param match chooses the members.
+     * @return the matching members in key order.
+     * @throws UncheckedIOException if reading fails.
+     */
+    public synchronized List<Member> select(Predicate<Member> match) {
+        ArrayList<Iterator<Map.Entry<String, String>>> sources = new ArrayList<>();
+        for ( SortedRun run : runs ) {
+            sources.add(run.scan());
+        }
+        for ( Table t : flushing ) {
+            sources.add(t.records.entrySet().iterator());
+        }
+        sources.add(table.records.entrySet().iterator());
+        ArrayList<Member> found = new ArrayList<>();
+        try {
+            checkFailure();
+            Iterator<Map.Entry<String, String>> records = merge(sources, true);
+            while ( records.hasNext() ) {
+                Member m = parse(records.next().getValue());
+                if ( match.test(m) ) {
+                    found.add(m);
+                }
+            }
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+        return found;
+    }
+
+    /**
+     * Gets a stored member.
+     * @param member with the identifying properties of the member.
+     * @return the stored member with all properties, null if not stored.
+     * @throws UncheckedIOException if reading fails.
+     */
+    public synchronized Member get(Member member) {
+        try {
+            checkFailure();
+            String record = find(MemberDatabase.key(member));
+            return record == null ? null : parse(record);
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stores a member, replacing any stored member with the same identity.
+     * @param member to store.
+     * @throws UncheckedIOException if writing fails.
+     */
+    public void put(Member member) {
+        putAll(List.of(member));
+    }
+
+    /**
+     * Stores many members, replacing any stored members with the same
+     * identities. The log is written once for all of them.
+     * @param members to store.
+     * @throws UncheckedIOException if writing fails.
+     */
+    public synchronized void putAll(Collection<Member> members) {
+        try {
+            checkFailure();
+            for ( Member m : members ) {
+                String record = record(m);
+                write(PUT, record);
+                table.records.put(MemberDatabase.key(m), record);
+                freezeIfFull();
+            }
+            table.log.flush();
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes a stored member.
+     * @param member with the identifying properties of the member.
+     * @return true if the member was stored, false otherwise.
+     * @throws UncheckedIOException if reading or writing fails.
+     */
+    public synchronized boolean remove(Member member) {
+        String key = MemberDatabase.key(member);
+        try {
+            checkFailure();
+            if ( find(key) == null ) {
+                return false;
+            }
+            write(DELETE, key);
+            table.records.put(key, null);
+            freezeIfFull();
+            table.log.flush();
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Deletes many stored members without looking them up first. The log
+     * is written once for all of them.
+     * @param members with the identifying properties of the members.
+     * @throws UncheckedIOException if writing fails.
+     */
+    public synchronized void removeAll(Collection<Member> members) {
+        try {
+            checkFailure();
+            for ( Member m : members ) {
+                String key = MemberDatabase.key(m);
+                write(DELETE, key);
+                table.records.put(key, null);
+                freezeIfFull();
+            }
+            table.log.flush();
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends a change to the write-ahead log buffer.
+     * Callers flush the log once they are done with all their changes, so
+     * changes survive the process exiting without close().
+     * @param op PUT or DELETE.
+     * @param text the record or key.
+     * @throws IOException if writing fails.
+     */
+    private void write(char op, String text) throws IOException {
+        table.log.write(op);
+        table.log.write(' ');
+        table.log.write(text);
+        table.log.write('\n');
+    }
+
+    /**
+     * Hands the table to the background writer once it reaches its limit.
+     * @throws IOException if the new log can't be created or the wait for
+     * the writer is interrupted.
+     */
+    private void freezeIfFull() throws IOException {
+        if ( table.records.size() >= tableLimit ) {
+            freeze();
+        }
+    }
+
+    /**
+     * Hands the table to the background writer and starts an empty one.
+     * Waits first if the writer is already behind by MAX_FLUSHING tables.
+     * @throws IOException if the new log can't be created or the wait for
+     * the writer is interrupted.
+     */
+    private void freeze() throws IOException {
+        await(() -> flushing.size() >= MAX_FLUSHING);
+        table.log.close();
+        flushing.addLast(table);
+        table = new Table();
+        openLog(table);
+        FLUSHER.execute(this::writeOldest);
+    }
+
+    /**
+     * Writes the oldest frozen table to a new run on the background
+     * writer, then swaps the run in for the table and deletes its logs.
+     */
+    private void writeOldest() {
+        Table t;
+        long id;
+        synchronized ( this ) {
+            t = flushing.peekFirst();
+            id = nextRun++;
+        }
+        try {
+            Path path = dir.resolve(String.format(FILE_FORMAT, RUN_PREFIX, id, RUN_SUFFIX));
+            SortedRun run = SortedRun.write(path, id, t.records.entrySet().iterator(),
+                    t.records.size());
+            synchronized ( this ) {
+                runs.add(run);
+                flushing.removeFirst();
+                for ( Path log : t.logs ) {
+                    Files.deleteIfExists(log);
+                }
+                if ( runs.size() > MAX_RUNS && !compacting ) {
+                    compacting = true;
+                    MERGER.execute(this::mergeRuns);
+                }
+                notifyAll();
+            }
+        } catch ( IOException | RuntimeException e ) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Merges the runs on the background merger into one run with the id
+     * and file of the newest of them, then swaps it in for them. Runs
+     * written meanwhile are left alone.
+     * Old run files are deleted from the oldest, so after a crash the
+     * runs left over never hide a newer change.
+     */
+    private void mergeRuns() {
+        List<SortedRun> merging;
+        synchronized ( this ) {
+            merging = new ArrayList<>(runs);
+        }
+        try {
+            if ( merging.size() > 1 ) {
+                SortedRun newest = merging.get(merging.size() - 1);
+                Path temp = newest.getPath().resolveSibling(newest.getPath().getFileName() + TEMP_SUFFIX);
+                long expected = 0;
+                ArrayList<Iterator<Map.Entry<String, String>>> sources = new ArrayList<>();
+                for ( SortedRun run : merging ) {
+                    expected += run.getEntries();
+                    sources.add(run.scan());
+                }
+                SortedRun merged;
+                try {
+                    merged = SortedRun.write(temp, newest.getId(), merge(sources, true), expected);
+                } catch ( UncheckedIOException e ) {
+                    throw e.getCause();
+                }
+                synchronized ( this ) {
+                    merged = merged.moveTo(newest.getPath());
+                    for ( SortedRun run : merging ) {
+                        run.close();
+                        cache.evict(run.getId());
+                        if ( run != newest ) {
+                            Files.delete(run.getPath());
+                        }
+                    }
+                    runs.subList(0, merging.size()).clear();
+                    runs.add(0, merged);
+                }
+            }
+            synchronized ( this ) {
+                compacting = false;
+                notifyAll();
+            }
+        } catch ( IOException | RuntimeException e ) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records a failure of the background writer or merger, which every
+     * later call reports. Frozen tables and their logs are kept.
+     * @param e the failure.
+     */
+    private synchronized void fail(Exception e) {
+        failure = e instanceof IOException ? (IOException) e : new IOException(e);
+        compacting = false;
+        notifyAll();
+    }
+
+    /**
+     * Throws the failure of the background writer or merger, if any.
+     * @throws IOException the failure.
+     */
+    private void checkFailure() throws IOException {
+        if ( failure != null ) {
+            throw new IOException("Member store failed in the background", failure);
+        }
+    }
+
+    /**
+     * Waits while the background writer or merger is busy.
+     * @param busy true while the caller has to wait.
+     * @throws IOException if the background work failed or the wait is
+     * interrupted.
+     */
+    private void await(BooleanSupplier busy) throws IOException {
+        while ( busy.getAsBoolean() ) {
+            checkFailure();
+            try {
+                wait();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the member store");
+            }
+        }
+        checkFailure();
+    }
+
+    /**
+     * Writes the changes held in memory to new runs and deletes their logs,
+     * waiting for the background writer to finish.
+     * @throws IOException if writing fails.
+     */
+    public synchronized void flush() throws IOException {
+        checkFailure();
+        if ( !table.records.isEmpty() ) {
+            freeze();
+        }
+        await(() -> !flushing.isEmpty());
+    }
+
+    /**
+     * Merges all runs into one, waiting for the background merger.
+     * Keeps only the newest record of each member and drops deleted
+     * members, then removes the old run files.
+     * @throws IOException if reading or writing fails.
+     */
+    public synchronized void compact() throws IOException {
+        flush();
+        await(() -> compacting);
+        if ( runs.size() < 2 ) {
+            return;
+        }
+        compacting = true;
+        MERGER.execute(this::mergeRuns);
+        await(() -> compacting);
+    }
+
+    /**
+     * Merges records from several sources in key order.
+     * When several sources hold a key, only the record from the newest
+     * source is kept.
+     * @param sources iterators over records in key order, oldest source
+     * first; a null value is a tombstone.
+     * @param live true to drop tombstones, false to keep them.
+     * @return an iterator over the merged records.
+     */
+    private static Iterator<Map.Entry<String, String>> merge(
+            List<Iterator<Map.Entry<String, String>>> sources, boolean live) {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>();
+        for ( int i = 0; i < sources.size(); i++ ) {
+            Cursor c = new Cursor(sources.get(i), i);
+            if ( c.advance() ) {
+                queue.add(c);
+            }
+        }
+        return new Iterator<>() {
+            private Map.Entry<String, String> next = find();
+
+            private Map.Entry<String, String> find() {
+                while ( !queue.isEmpty() ) {
+                    Cursor newest = queue.poll();
+                    Map.Entry<String, String> record = newest.current;
+                    while ( !queue.isEmpty() && queue.peek().current.getKey().equals(record.getKey()) ) {
+                        Cursor older = queue.poll();
+                        if ( older.advance() ) {
+                            queue.add(older);
+                        }
+                    }
+                    if ( newest.advance() ) {
+                        queue.add(newest);
+                    }
+                    if ( !live || record.getValue() != null ) {
+                        return record;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<String, String> next() {
+                Map.Entry<String, String> record = next;
+                next = find();
+                return record;
+            }
+        };
+    }
+
+    /**
+     * Position in the records of a source during a merge.
+     * Orders by key, then with the newest source first.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Iterator<Map.Entry<String, String>> records;
+        private final int age;
+        private Map.Entry<String, String> current;
+
+        /**
+         * Constructs Cursor object before the first record.
+         * @param records of the source.
+         * @param age position of the source, larger for newer sources.
+         */
+        private Cursor(Iterator<Map.Entry<String, String>> records, int age) {
+            this.records = records;
+            this.age = age;
+        }
+
+        /**
+         * Moves to the next record.
+         * @return true if there was another record, false at the end.
+         */
+        private boolean advance() {
+            current = records.hasNext() ? records.next() : null;
+            return current != null;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int c = current.getKey().compareTo(other.current.getKey());
+            return c != 0 ? c : Integer.compare(other.age, age);
+        }
+    }
+
+    /**
+     * Gets the number of runs on disk.
+     * @return the count of runs.
+     */
+    public synchronized int getRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Gets the share of page reads served from memory.
+     * @return hits divided by lookups, 0 before the first lookup.
+     */
+    public synchronized double getCacheHitRatio() {
+        long total = cache.getHits() + cache.getMisses();
+        return total == 0 ? 0 : (double) cache.getHits() / total;
+    }
+
+    /**
+     * Writes the changes held in memory to disk, waits for any merge, and
+     * closes the files.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        await(() -> compacting);
+        table.log.close();
+        for ( Path log : table.logs ) {
+            Files.deleteIfExists(log);
+        }
+        for ( SortedRun run : runs ) {
+            run.close();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.fitnesschaingui;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the members of a database by location, membership type, and
+ * whether their membership is active or expired.
+ * Every count is a LongAdder, so dashboards read them at any time without
+ * locking and without contending with the kiosks updating them. Members
+ * whose membership hasn't expired are also counted by the day it expires;
+ * when the day changes, the counts of the days that passed are moved to
+ * the expired counts at once, so memberships expiring never require a
+ * scan of the members. Counting never locks; only the rollover does, and
+ * reads only check the time against the next midnight to skip it.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class MembershipCounters {
+    private final LongAdder[] total;
+    private final LongAdder[] expired;
+    private final ConcurrentSkipListMap<Integer, LongAdder[]> expiring;
+    private volatile int today;
+    private volatile long nextDay;
+
+    private static final int TYPES = MembershipType.values().length;
+    private static final int CELLS = Location.values().length * TYPES;
+    private static final int YEAR_SHIFT = 9;
+    private static final int MONTH_SHIFT = 5;
+
+    /**
+     * Constructs MembershipCounters object with every count at zero.
+     */
+    public MembershipCounters() {
+        total = adders();
+        expired = adders();
+        expiring = new ConcurrentSkipListMap<>();
+        LocalDate date = LocalDate.now();
+        today = day(date);
+        nextDay = nextMidnight(date);
+    }
+
+    /**
+     * Finds when the day after a date starts.
+     * @param date the day.
+     * @return the next midnight in milliseconds since the epoch.
+     */
+    private static long nextMidnight(LocalDate date) {
+        return date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Creates a count for each location and membership type.
+     * @return the counts, all zero.
+     */
+    private static LongAdder[] adders() {
+        LongAdder[] counts = new LongAdder[CELLS];
+        for ( int i = 0; i < CELLS; i++ ) {
+            counts[i] = new LongAdder();
+        }
+        return counts;
+    }
+
+    /**
+     * Numbers a day so later days have larger numbers.
+     * @param date the day.
+     * @return the number of the day.
+     */
+    private static int day(Date date) {
+        return date.getYear() << YEAR_SHIFT | date.getMonth() << MONTH_SHIFT | date.getDay();
+    }
+
+    /**
+     * Numbers a day the same way as a Date.
+     * @param date the day.
+     * @return the number of the day.
+     */
+    private static int day(LocalDate date) {
+        return date.getYear() << YEAR_SHIFT | date.getMonthValue() << MONTH_SHIFT
+                | date.getDayOfMonth();
+    }
+
+    /**
+     * Finds the count of a location and membership type.
+     * @param location of the members.
+     * @param type of the memberships.
+     * @return the index of the count.
+     */
+    private static int cell(Location location, MembershipType type) {
+        return location.ordinal() * TYPES + type.ordinal();
+    }
+
+    /**
+     * Counts a member.
+     * @param m the member added or whose expiration date was just changed.
+     */
+    void added(Member m) {
+        count(m, 1);
+    }
+
+    /**
+     * Stops counting a member.
+     * @param m the member removed or whose expiration date is about to
+     * change.
+     */
+    void removed(Member m) {
+        count(m, -1);
+    }
+
+    /**
+     * Adds or takes a member to or from their counts.
+     * If a rollover passed the expiration day of the member while they
+     * were counted, the count may have missed it, so it is moved to the
+     * expired counts here. Each count is taken with sumThenReset(), so
+     * every change is moved exactly once.
+     * @param m the member.
+     * @param sign 1 to add the member, -1 to take them away.
+     */
+    private void count(Member m, int sign) {
+        int cell = cell(m.getLocation(), MembershipType.of(m));
+        int expires = day(m.getExpire());
+        total[cell].add(sign);
+        if ( expires <= today ) {
+            expired[cell].add(sign);
+            return;
+        }
+        LongAdder[] counts = expiring.computeIfAbsent(expires, k -> adders());
+        counts[cell].add(sign);
+        if ( expires <= today ) {
+            expired[cell].add(counts[cell].sumThenReset());
+        }
+    }
+
+    /**
+     * Moves the members whose membership expired since the last rollover
+     * to the expired counts.
+     * Called by every read, so the counts are current whenever they are
+     * read; does nothing before the next midnight. Advances the day before
+     * moving the counts, so members counted meanwhile are either moved
+     * here or by count().
+     */
+    private void rollover() {
+        if ( System.currentTimeMillis() < nextDay ) {
+            return;
+        }
+        synchronized ( this ) {
+            if ( System.currentTimeMillis() < nextDay ) {
+                return;
+            }
+            LocalDate date = LocalDate.now();
+            int now = day(date);
+            today = now;
+            Iterator<LongAdder[]> it = expiring.headMap(now, true).values().iterator();
+            while ( it.hasNext() ) {
+                LongAdder[] counts = it.next();
+                it.remove();
+                for ( int i = 0; i < CELLS; i++ ) {
+                    expired[i].add(counts[i].sumThenReset());
+                }
+            }
+            nextDay = nextMidnight(date);
+        }
+    }
+
+    /**
+     * Gets the number of members with an active membership.
+     * @param location of the members.
+     * @param type of the memberships.
+     * @return the count of active members.
+     */
+    public long getActive(Location location, MembershipType type) {
+        rollover();
+        int cell = cell(location, type);
+        return total[cell].sum() - expired[cell].sum();
+    }
+
+    /**
+     * Gets the number of members with an expired membership.
+     * @param location of the members.
+     * @param type of the memberships.
+     * @return the count of expired members.
+     */
+    public long getExpired(Location location, MembershipType type) {
+        rollover();
+        return expired[cell(location, type)].sum();
+    }
+
+    /**
+     * Gets the number of members at a location with active memberships.
+     * @param location of the members.
+     * @return the count of active members of every type.
+     */
+    public long getActive(Location location) {
+        long count = 0;
+        for ( MembershipType type : MembershipType.values() ) {
+            count += getActive(location, type);
+        }
+        return count;
+    }
+
+    /**
+     * Represents the counts as a table.
+     * @return a line for each location with the active and expired members
+     * of each type.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for ( Location l : Location.values() ) {
+            sb.append(l.name()).append(": ").append(getActive(l)).append(" active");
+            for ( MembershipType t : MembershipType.values() ) {
+                sb.append(", ").append(t.name()).append(' ').append(getActive(l, t))
+                        .append('/').append(getExpired(l, t));
+            }
+            sb.append('\n');
+        }
+        return sb.substring(0, sb.length() - 1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.fitnesschaingui;
+
+/**
+ * Stores the membership types offered by the fitness chain.
+ * Enum class that maps each type to the Member subclass it creates.
+ * @author Albert Zou, Rishabh Patel
+ */
+public enum MembershipType {
+    /**
+     * Standard membership
+     */
+    STANDARD,
+    /**
+     * Family membership
+     */
+    FAMILY,
+    /**
+     * Premium membership
+     */
+    PREMIUM;
+
+    /**
+     * Creates a new member of this membership type.
+     * The expiration date is set by the constructor of the matching class.
+     * @param fName the first name of the member.
+     * @param lName the last name of the member.
+     * @param dob the date of birth of the member.
+     * @param location the location of the member's gym.
+     * @return a new Member, Family, or Premium object.
+     */
+    public Member create(String fName, String lName, Date dob,
+                         Location location) {
+        switch ( this ) {
+            case FAMILY:
+                return new Family(fName, lName, dob, location);
+            case PREMIUM:
+                return new Premium(fName, lName, dob, location);
+            default:
+                return new Member(fName, lName, dob, location);
+        }
+    }
+
+    /**
+     * Gets the membership type of an existing member.
+     * Checks Premium before Family since Premium extends Family.
+     * @param member to get the type of.
+     * @return the membership type of the member.
+     */
+    public static MembershipType of(Member member) {
+        if ( member instanceof Premium ) {
+            return PREMIUM;
+        }
+        if ( member instanceof Family ) {
+            return FAMILY;
+        }
+        return STANDARD;
+    }
+}
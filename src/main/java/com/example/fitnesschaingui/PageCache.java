@@ -0,0 +1,101 @@
+package com.example.fitnesschaingui;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used pages of the on-disk member store in memory.
+ * Holds at most a fixed number of pages and evicts the least recently used
+ * page when full, so the memory used by the store stays bounded however
+ * large the files are.
+ * @author Albert Zou, Rishabh Patel
+ */
+final class PageCache {
+    private final LinkedHashMap<Long, byte[]> pages;
+    private final int capacity;
+    private long hits;
+    private long misses;
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int RUN_SHIFT = 32;
+
+    /**
+     * Constructs an empty PageCache.
+     * @param capacity the most pages to hold.
+     */
+    PageCache(int capacity) {
+        this.capacity = capacity;
+        pages = new LinkedHashMap<>(capacity, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > PageCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Builds the key of a page.
+     * @param run id of the file holding the page.
+     * @param page number of the page in the file.
+     * @return the cache key.
+     */
+    private static long key(long run, int page) {
+        return run << RUN_SHIFT | page;
+    }
+
+    /**
+     * Gets a cached page and marks it as recently used.
+     * @param run id of the file holding the page.
+     * @param page number of the page in the file.
+     * @return the page, null if it isn't cached.
+     */
+    byte[] get(long run, int page) {
+        byte[] data = pages.get(key(run, page));
+        if ( data == null ) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return data;
+    }
+
+    /**
+     * Caches a page, evicting the least recently used page if full.
+     * @param run id of the file holding the page.
+     * @param page number of the page in the file.
+     * @param data of the page.
+     */
+    void put(long run, int page, byte[] data) {
+        pages.put(key(run, page), data);
+    }
+
+    /**
+     * Drops every cached page of a file.
+     * @param run id of the file.
+     */
+    void evict(long run) {
+        Iterator<Long> it = pages.keySet().iterator();
+        while ( it.hasNext() ) {
+            if ( it.next() >>> RUN_SHIFT == run ) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of lookups that found their page in the cache.
+     * @return the count of hits.
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to read their page from disk.
+     * @return the count of misses.
+     */
+    long getMisses() {
+        return misses;
+    }
+}
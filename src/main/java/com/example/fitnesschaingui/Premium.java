@@ -13,8 +13,8 @@ public class Premium extends Family {
 
     /**
      * Constructs Premium object.
-     * Calls parent constructor and sets expiration date and
-     * number of guest passes based on the premium specifications.
+     * Calls parent constructor and sets expiration date based on the
+     * premium specifications.
      * @param fName the first name of the member.
      * @param lName the last name of the member.
      * @param dob the date of birth of the member.
@@ -29,7 +29,6 @@ public class Premium extends Family {
         super(fName, lName, dob, location);
         expire = new Date();
         expire.addMonths(MONTHS_YEAR);
-        guestPasses = PREMIUM_PASSES;
     }
 
     /**
@@ -40,7 +39,25 @@ public class Premium extends Family {
     @Override
     public String toString() {
         return super.toString().split("\\(Family\\)")[0]
-                + "(Premium) Guest-pass remaining: " + guestPasses;
+                + "(Premium) Guest-pass remaining: " + getGuestPasses();
+    }
+
+    /**
+     * Gets the number of guest passes the member gets per billing period.
+     * @return the premium guest pass allowance.
+     */
+    @Override
+    protected int guestPassAllowance() {
+        return PREMIUM_PASSES;
+    }
+
+    /**
+     * Gets the number of months a renewal extends the membership by.
+     * @return the length of a premium membership.
+     */
+    @Override
+    public int renewalMonths() {
+        return MONTHS_YEAR;
     }
 
     /**
@@ -0,0 +1,201 @@
+package com.example.fitnesschaingui;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Renews the memberships of many members at once.
+ * Selects members with a predicate and extends each selected membership
+ * by the length of its type: a quarter for standard and family members, a
+ * year for premium members. Memberships are extended from their expiration
+ * date, or from today if they already expired. The members in memory are
+ * split across the common fork/join pool to select them and work out their
+ * new dates, and the renewals are then applied, published, and journaled
+ * together as one batch, so replicas apply all of them or none. If the
+ * database has an archive, it is scanned once for selected members too,
+ * and their renewals are applied as a second MemberBatch, which moves them
+ * back into memory.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class RenewalJob {
+    private final MemberDatabase db;
+    private final Predicate<Member> select;
+
+    private static final int THRESHOLD = 4096;
+    private static final int ARG_MEMBERS = 0;
+    private static final int ARG_BEFORE = 1;
+    private static final int ARG_FILTERS = 2;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    /**
+     * Constructs RenewalJob object.
+     * @param db holding the members to renew.
+     * @param select chooses the members to renew; called from several
+     * threads at once, so it must not change anything.
+     */
+    public RenewalJob(MemberDatabase db, Predicate<Member> select) {
+        this.db = db;
+        this.select = select;
+    }
+
+    /**
+     * Selects members of a gym location.
+     * @param location of the members.
+     * @return a predicate for the members at the location.
+     */
+    public static Predicate<Member> atLocation(Location location) {
+        return m -> m.getLocation() == location;
+    }
+
+    /**
+     * Selects members with a membership type.
+     * @param type of the memberships.
+     * @return a predicate for the members with the type.
+     */
+    public static Predicate<Member> ofType(MembershipType type) {
+        return m -> MembershipType.of(m) == type;
+    }
+
+    /**
+     * Selects members whose membership expires before a date.
+     * @param date the memberships expire before.
+     * @return a predicate for the members expiring before the date.
+     */
+    public static Predicate<Member> expiringBefore(Date date) {
+        return m -> m.getExpire().compareTo(date) < 0;
+    }
+
+    /**
+     * Renews every selected member, in memory and in the archive.
+     * Callers sharing the database with other threads should hold the same
+     * lock as those threads, so no one sees only part of the renewals.
+     * @return the number of members renewed.
+     */
+    public int run() {
+        List<Member> slots = db.slots();
+        Date[] renewed = new Date[slots.size()];
+        int count = ForkJoinPool.commonPool().invoke(
+                new Renew(slots, renewed, new Date(), 0, slots.size()));
+        List<Member> changed = new ArrayList<>(count);
+        List<Date> expires = new ArrayList<>(count);
+        for ( int i = 0; i < renewed.length; i++ ) {
+            if ( renewed[i] != null ) {
+                changed.add(slots.get(i));
+                expires.add(renewed[i]);
+            }
+        }
+        db.renewed(changed, expires);
+        return count + renewArchived();
+    }
+
+    /**
+     * Renews the selected members of the archive in one batch.
+     * @return the number of archived members renewed.
+     */
+    private int renewArchived() {
+        List<Member> archived = db.archived(select);
+        if ( archived.isEmpty() ) {
+            return 0;
+        }
+        Date today = new Date();
+        MemberBatch batch = new MemberBatch(db);
+        for ( Member m : archived ) {
+            batch.updateExpiration(m, renewal(m, today));
+        }
+        return archived.size() - batch.apply(false).size();
+    }
+
+    /**
+     * Works out the new expiration date of a renewed member.
+     * @param m the member.
+     * @param today the date an expired membership is extended from.
+     * @return the new expiration date.
+     */
+    private static Date renewal(Member m, Date today) {
+        Date expire = new Date((m.isExpired(today) ? today : m.getExpire()).toString());
+        expire.addMonths(m.renewalMonths());
+        return expire;
+    }
+
+    /**
+     * Works out the new expiration dates of the selected members in a range
+     * of the members, splitting the range in half until it is small enough
+     * to go through directly.
+     */
+    @SuppressWarnings("serial")
+    private final class Renew extends RecursiveTask<Integer> {
+        private final List<Member> slots;
+        private final Date[] renewed;
+        private final Date today;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs Renew task.
+         * @param slots all the slots of the database, null where a member
+         * was removed.
+         * @param renewed receives the new expiration date of each selected
+         * member, by slot.
+         * @param today the date expired memberships are extended from.
+         * @param from first slot of the range.
+         * @param to end of the range, exclusive.
+         */
+        private Renew(List<Member> slots, Date[] renewed, Date today, int from, int to) {
+            this.slots = slots;
+            this.renewed = renewed;
+            this.today = today;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if ( to - from > THRESHOLD ) {
+                int mid = (from + to) >>> 1;
+                Renew left = new Renew(slots, renewed, today, from, mid);
+                left.fork();
+                int right = new Renew(slots, renewed, today, mid, to).compute();
+                return left.join() + right;
+            }
+            int count = 0;
+            for ( int i = from; i < to; i++ ) {
+                Member m = slots.get(i);
+                if ( m != null && select.test(m) ) {
+                    renewed[i] = renewal(m, today);
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Renews members of a member file and reports how long it took.
+     * Arguments are the member file, the date memberships have to expire
+     * before to be renewed, and optionally locations and membership types
+     * that the members must all match.
+     * @param args from the command line.
+     */
+    public static void main(String[] args) {
+        MemberDatabase db = new MemberDatabase();
+        db.loadMembers(new File(args[ARG_MEMBERS]));
+        Predicate<Member> select = expiringBefore(new Date(args[ARG_BEFORE]));
+        for ( int i = ARG_FILTERS; i < args.length; i++ ) {
+            String filter = args[i].toUpperCase();
+            try {
+                select = select.and(atLocation(Location.valueOf(filter)));
+            } catch ( IllegalArgumentException e ) {
+                select = select.and(ofType(MembershipType.valueOf(filter)));
+            }
+        }
+        db.setJournal(new MemberJournal());
+        long start = System.nanoTime();
+        int count = new RenewalJob(db, select).run();
+        System.err.printf("Renewed %d members in %d ms%n", count,
+                (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.fitnesschaingui;
+
+/**
+ * Management interface exposing the replication state of a replica.
+ * @author Albert Zou, Rishabh Patel
+ */
+public interface ReplicaMXBean {
+    /**
+     * Checks if the replica is connected to its primary.
+     * @return true if connected, false while reconnecting.
+     */
+    boolean isConnected();
+
+    /**
+     * Gets the offset of the next journal entry the replica needs.
+     * @return the number of entries applied.
+     */
+    long getAppliedOffset();
+
+    /**
+     * Gets the size of the primary's journal when it last sent a batch.
+     * @return the last known head offset of the primary.
+     */
+    long getPrimaryOffset();
+
+    /**
+     * Gets the number of entries the replica is behind its primary.
+     * @return the head offset minus the applied offset.
+     */
+    long getLagEntries();
+
+    /**
+     * Gets how far behind its primary the replica is in time.
+     * @return the age in milliseconds of the last applied entry while
+     * entries remain to be applied, 0 if caught up.
+     */
+    long getLagMillis();
+
+    /**
+     * Gets the time since the replica last heard from its primary.
+     * @return milliseconds since the last batch or heartbeat.
+     */
+    long getMillisSinceContact();
+
+    /**
+     * Gets the number of batches received, including heartbeats.
+     * @return the count of batches.
+     */
+    long getBatches();
+
+    /**
+     * Gets the number of times the replica reconnected to its primary.
+     * @return the count of reconnects.
+     */
+    long getReconnects();
+
+    /**
+     * Gets the error that stopped replication.
+     * @return the error, null if replication wasn't stopped by one.
+     */
+    String getLastError();
+}
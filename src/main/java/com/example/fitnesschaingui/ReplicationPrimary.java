@@ -0,0 +1,238 @@
+package com.example.fitnesschaingui;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ships the journal of a primary member database to replicas.
+ * Listens on a loopback port or a Unix domain socket. A replica connects
+ * and sends "FROM" followed by the offset of the first entry it is
+ * missing. The primary then streams batches of entries from that offset,
+ * each preceded by a header line "BATCH first count head sentMillis",
+ * where head is the size of the journal when the batch was sent. An empty
+ * batch is sent as a heartbeat whenever the journal is idle, so replicas
+ * can tell how far behind they are even when nothing changes. A replica
+ * asking for entries the journal no longer keeps is sent the checkpoint
+ * instead, as a header line "SNAPSHOT offset count" followed by an add
+ * entry for every member, and resumes from the offset of the checkpoint.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class ReplicationPrimary implements AutoCloseable {
+    private final MemberJournal journal;
+    private final SocketAddress address;
+    private final ServerSocketChannel server;
+    private volatile boolean running;
+
+    static final String FROM = "FROM";
+    static final String BATCH = "BATCH";
+    static final String SNAPSHOT = "SNAPSHOT";
+    static final String ERROR = "ERROR";
+    static final long HEARTBEAT_MILLIS = 1000;
+    private static final int BATCH_SIZE = 4096;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int ARG_ADDRESS = 0;
+    private static final int ARG_MEMBERS = 1;
+    private static final int COMMAND = 0;
+
+    /**
+     * Constructs ReplicationPrimary object and binds its socket.
+     * Replicas can't connect until the primary is started.
+     * @param journal to ship.
+     * @param address "port" to listen on the loopback interface, or the
+     * path of a Unix domain socket.
+     * @throws IOException if the socket can't be bound.
+     */
+    public ReplicationPrimary(MemberJournal journal, String address) throws IOException {
+        this.journal = journal;
+        this.address = address(address);
+        if ( this.address instanceof UnixDomainSocketAddress ) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) this.address).getPath());
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open();
+        }
+        server.bind(this.address);
+    }
+
+    /**
+     * Parses the address of a primary.
+     * @param address a port number on the loopback interface, or the path
+     * of a Unix domain socket.
+     * @return the socket address.
+     */
+    static SocketAddress address(String address) {
+        if ( address.chars().allMatch(Character::isDigit) ) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(address));
+        }
+        return UnixDomainSocketAddress.of(Path.of(address));
+    }
+
+    /**
+     * Starts accepting replicas on a background thread.
+     * Each replica is served by its own thread.
+     */
+    public void start() {
+        running = true;
+        Thread acceptor = new Thread(this::accept, "replication-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Accepts replicas until the primary is closed.
+     */
+    private void accept() {
+        while ( running ) {
+            try {
+                SocketChannel channel = server.accept();
+                Thread t = new Thread(() -> serve(channel), "replication-ship");
+                t.setDaemon(true);
+                t.start();
+            } catch ( IOException e ) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ships the journal to a replica until it disconnects.
+     * Batches are flushed once each, so a replica that fell behind catches
+     * up in large writes.
+     * @param channel connected to the replica.
+     */
+    private void serve(SocketChannel channel) {
+        try ( channel ) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE);
+            String request = in.readLine();
+            if ( request == null || !request.startsWith(FROM + " ") ) {
+                return;
+            }
+            long offset = Long.parseLong(request.substring(FROM.length() + 1).trim());
+            if ( offset > journal.size() ) {
+                out.write(ERROR + " offset " + offset + " is past the end of the journal\n");
+                out.flush();
+                return;
+            }
+            while ( running ) {
+                List<String> entries = journal.read(offset, BATCH_SIZE, HEARTBEAT_MILLIS);
+                if ( entries == null ) {
+                    MemberJournal.Checkpoint checkpoint = journal.checkpoint();
+                    out.write(SNAPSHOT + " " + checkpoint.getOffset() + " "
+                            + checkpoint.getEntries().size() + "\n");
+                    for ( String entry : checkpoint.getEntries() ) {
+                        out.write(entry);
+                        out.write('\n');
+                    }
+                    out.flush();
+                    offset = checkpoint.getOffset();
+                    continue;
+                }
+                out.write(BATCH + " " + offset + " " + entries.size() + " "
+                        + journal.size() + " " + System.currentTimeMillis() + "\n");
+                for ( String entry : entries ) {
+                    out.write(entry);
+                    out.write('\n');
+                }
+                out.flush();
+                offset += entries.size();
+            }
+        } catch ( IOException | NumberFormatException e ) {
+            return;
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops accepting replicas and stops shipping within a heartbeat.
+     * @throws IOException if the socket can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        server.close();
+        if ( address instanceof UnixDomainSocketAddress ) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    /**
+     * Runs a primary gym that reads commands from standard input.
+     * Arguments are the port or Unix domain socket path to listen on, and
+     * optionally a member file to load instead of the bundled data file.
+     * @param args from the command line.
+     * @throws IOException if the socket can't be bound or reading fails.
+     */
+    public static void main(String[] args) throws IOException {
+        GymManager gym = new GymManager();
+        MemberJournal journal = new MemberJournal();
+        gym.getDatabase().setJournal(journal);
+        if ( args.length > ARG_MEMBERS ) {
+            gym.getDatabase().loadMembers(new File(args[ARG_MEMBERS]));
+        } else {
+            gym.getDatabase().loadMembers();
+        }
+        gym.getSchedule().loadSchedule();
+        try ( ReplicationPrimary primary = new ReplicationPrimary(journal, args[ARG_ADDRESS]) ) {
+            primary.start();
+            System.err.println("Shipping journal on " + primary.address);
+            commands(gym, new BufferedReader(new InputStreamReader(System.in)), Set.of());
+        }
+    }
+
+    /**
+     * Runs commands from a reader until it ends or a Q command is read.
+     * Holds the lock of the GymManager for each command, since replication
+     * and other threads share it.
+     * @param gym to run the commands against.
+     * @param in to read the commands from.
+     * @param refused codes of the commands to refuse instead of running.
+     * @throws IOException if reading fails.
+     */
+    static void commands(GymManager gym, BufferedReader in, Set<String> refused)
+            throws IOException {
+        PrintWriter out = new PrintWriter(System.out, true);
+        String line;
+        while ( (line = in.readLine()) != null && !line.trim().equals("Q") ) {
+            if ( line.isBlank() ) {
+                continue;
+            }
+            String code = line.trim().split("\\s+")[COMMAND];
+            if ( refused.contains(code) ) {
+                out.print(code + " changes members, run it on the primary!\n");
+                out.flush();
+                continue;
+            }
+            gym.getLock().lock();
+            try {
+                out.print(gym.execute(line));
+            } finally {
+                gym.getLock().unlock();
+            }
+            out.flush();
+        }
+    }
+}
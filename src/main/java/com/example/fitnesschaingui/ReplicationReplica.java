@@ -0,0 +1,349 @@
+package com.example.fitnesschaingui;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Keeps a member database in sync with a primary by applying its journal.
+ * Connects to a ReplicationPrimary, asks for the entries from the offset
+ * it has applied so far, and applies each batch while holding the given
+ * lock. After a disconnect it reconnects and resumes from the same
+ * offset, so no entry is lost or applied twice. If it fell so far behind
+ * that the primary no longer keeps the entries it needs, it replaces its
+ * members with the primary's checkpoint and resumes from there. Every
+ * entry of a batch is parsed and checked before any is applied; a bad
+ * entry stops replication with the error kept for the MBeans, since
+ * skipping it would leave the replica out of step. The replication state
+ * is exposed as MBeans.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class ReplicationReplica implements ReplicaMXBean, AutoCloseable {
+    private final Lock lock;
+    private final MemberDatabase db;
+    private final SocketAddress primary;
+    private final LatencyHistogram delay;
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile SocketChannel channel;
+    private volatile long applied;
+    private volatile long head;
+    private volatile long lagMillis;
+    private volatile long lastContact;
+    private volatile long batches;
+    private volatile long reconnects;
+    private volatile String lastError;
+    private Thread thread;
+
+    private static final String DOMAIN = "com.example.fitnesschaingui";
+    private static final long RETRY_MILLIS = 1000;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    private static final int FIRST = 1;
+    private static final int COUNT = 2;
+    private static final int HEAD = 3;
+    private static final int ARG_ADDRESS = 0;
+    private static final int FIRST_REJECTION = 0;
+    private static final Set<String> PRIMARY_ONLY = Set.of("A", "AF", "AP", "R", "LM", "AM");
+
+    /**
+     * Constructs ReplicationReplica object.
+     * The replica doesn't connect until it is started.
+     * @param lock held while applying entries, shared with everything else
+     * using the database.
+     * @param db to apply the entries to.
+     * @param primary "port" of a primary on the loopback interface, or the
+     * path of its Unix domain socket.
+     */
+    public ReplicationReplica(Lock lock, MemberDatabase db, String primary) {
+        this.lock = lock;
+        this.db = db;
+        this.primary = ReplicationPrimary.address(primary);
+        delay = new LatencyHistogram();
+    }
+
+    /**
+     * Starts replicating on a background thread and registers the MBeans.
+     */
+    public void start() {
+        running = true;
+        register();
+        thread = new Thread(this::replicate, "replication-apply");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Registers the replication state with the platform MBean server.
+     * Does nothing if registration fails, since metrics are never required
+     * for replication to work.
+     */
+    private void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName(DOMAIN + ":type=Replica"));
+            server.registerMBean(delay,
+                    new ObjectName(DOMAIN + ":type=Latency,name=replication"));
+        } catch ( JMException e ) {
+            return;
+        }
+    }
+
+    /**
+     * Connects to the primary and applies its journal until closed,
+     * reconnecting after every disconnect.
+     */
+    private void replicate() {
+        while ( running ) {
+            try ( SocketChannel ch = SocketChannel.open(primary) ) {
+                channel = ch;
+                connected = true;
+                OutputStream out = Channels.newOutputStream(ch);
+                out.write((ReplicationPrimary.FROM + " " + applied + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        Channels.newInputStream(ch), StandardCharsets.UTF_8));
+                String header;
+                while ( (header = in.readLine()) != null ) {
+                    if ( header.startsWith(ReplicationPrimary.BATCH + " ") ) {
+                        batch(header.split(" "), in);
+                    } else if ( header.startsWith(ReplicationPrimary.SNAPSHOT + " ") ) {
+                        snapshot(header.split(" "), in);
+                    } else {
+                        fail(header);
+                        break;
+                    }
+                }
+            } catch ( IOException e ) {
+                if ( running ) {
+                    System.err.println("Replication disconnected: " + e.getMessage());
+                }
+            } catch ( RuntimeException e ) {
+                fail("at offset " + applied + ": " + e.getMessage());
+            } finally {
+                connected = false;
+            }
+            if ( running ) {
+                reconnects++;
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch ( InterruptedException e ) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops replicating because of an error that reconnecting won't fix.
+     * @param error describing what went wrong.
+     */
+    private void fail(String error) {
+        lastError = error;
+        running = false;
+        System.err.println("Replication stopped: " + error);
+    }
+
+    /**
+     * Reads the given number of entries following a header.
+     * @param count of entries.
+     * @param in to read the entries from.
+     * @return the changes of the entries, checked but not applied.
+     * @throws IOException if the primary disconnects before all are read.
+     */
+    private MemberJournal.Change[] read(int count, BufferedReader in) throws IOException {
+        MemberJournal.Change[] changes = new MemberJournal.Change[count];
+        for ( int i = 0; i < count; i++ ) {
+            String entry = in.readLine();
+            if ( entry == null ) {
+                throw new IOException("Primary disconnected during a batch");
+            }
+            changes[i] = MemberJournal.parse(entry);
+        }
+        return changes;
+    }
+
+    /**
+     * Reads a checkpoint and makes the members of the database match it.
+     * Members missing from the checkpoint are removed, new ones are
+     * added, and the rest take the expiration date of the checkpoint, all
+     * while holding the lock once.
+     * @param header fields of the snapshot header.
+     * @param in to read the entries from.
+     * @throws IOException if reading fails.
+     */
+    private void snapshot(String[] header, BufferedReader in) throws IOException {
+        long offset = Long.parseLong(header[FIRST]);
+        MemberJournal.Change[] changes = read(Integer.parseInt(header[COUNT]), in);
+        lock.lock();
+        try {
+            HashSet<Member> kept = new HashSet<>();
+            MemberBatch batch = new MemberBatch(db);
+            for ( MemberJournal.Change c : changes ) {
+                Member now = c.getMember();
+                Member old = db.inMemory(now);
+                kept.add(now);
+                if ( old == null ) {
+                    batch.add(now);
+                } else if ( MembershipType.of(old) != MembershipType.of(now)
+                        || old.getLocation() != now.getLocation() ) {
+                    batch.remove(old).add(now);
+                } else if ( old.getExpire().compareTo(now.getExpire()) != 0 ) {
+                    batch.updateExpiration(old, now.getExpire());
+                }
+            }
+            for ( Member m : db.members() ) {
+                if ( !kept.contains(m) ) {
+                    batch.remove(m);
+                }
+            }
+            batch.apply(false);
+        } finally {
+            lock.unlock();
+        }
+        applied = offset;
+        lastContact = System.currentTimeMillis();
+    }
+
+    /**
+     * Reads and applies a batch of entries.
+     * Stages every entry in one MemberBatch, then applies it while holding
+     * the lock once. An entry the database rejects means the replica no
+     * longer matches the primary, so nothing of the batch is applied and
+     * replication stops.
+     * @param header fields of the batch header.
+     * @param in to read the entries from.
+     * @throws IOException if reading fails or the batch doesn't start at
+     * the applied offset.
+     */
+    private void batch(String[] header, BufferedReader in) throws IOException {
+        long first = Long.parseLong(header[FIRST]);
+        int count = Integer.parseInt(header[COUNT]);
+        if ( first != applied ) {
+            throw new IOException("Batch starts at " + first + ", expected " + applied);
+        }
+        MemberJournal.Change[] changes = read(count, in);
+        long now = System.currentTimeMillis();
+        long last = 0;
+        MemberBatch batch = new MemberBatch(db);
+        for ( MemberJournal.Change c : changes ) {
+            MemberJournal.stage(batch, c);
+            last = c.getTime();
+            delay.record((now - last) * NANOS_PER_MILLI);
+        }
+        List<MemberBatch.Rejection> rejected;
+        lock.lock();
+        try {
+            rejected = batch.apply(true);
+        } finally {
+            lock.unlock();
+        }
+        if ( !rejected.isEmpty() ) {
+            throw new IllegalStateException("replica diverged, "
+                    + rejected.get(FIRST_REJECTION));
+        }
+        applied = first + count;
+        head = Math.max(head, Long.parseLong(header[HEAD]));
+        if ( applied >= head ) {
+            lagMillis = 0;
+        } else if ( count > 0 ) {
+            lagMillis = now - last;
+        }
+        lastContact = now;
+        batches++;
+    }
+
+    /**
+     * Stops replicating and disconnects from the primary.
+     * @throws IOException if the connection can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if ( thread != null ) {
+            thread.interrupt();
+        }
+        SocketChannel ch = channel;
+        if ( ch != null ) {
+            ch.close();
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public long getAppliedOffset() {
+        return applied;
+    }
+
+    @Override
+    public long getPrimaryOffset() {
+        return head;
+    }
+
+    @Override
+    public long getLagEntries() {
+        return Math.max(0, head - applied);
+    }
+
+    @Override
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public long getMillisSinceContact() {
+        return lastContact == 0 ? 0 : System.currentTimeMillis() - lastContact;
+    }
+
+    @Override
+    public long getBatches() {
+        return batches;
+    }
+
+    @Override
+    public long getReconnects() {
+        return reconnects;
+    }
+
+    @Override
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Runs a replica gym that reads commands from standard input.
+     * The replica starts with an empty database and gets every member from
+     * the primary, so commands that add, remove, load, or archive members
+     * are refused. The argument is the port or Unix domain socket path of
+     * the primary.
+     * @param args from the command line.
+     * @throws IOException if reading fails.
+     */
+    public static void main(String[] args) throws IOException {
+        GymManager gym = new GymManager();
+        gym.getSchedule().loadSchedule();
+        try ( ReplicationReplica replica = new ReplicationReplica(gym.getLock(),
+                gym.getDatabase(), args[ARG_ADDRESS]) ) {
+            replica.start();
+            ReplicationPrimary.commands(gym,
+                    new BufferedReader(new InputStreamReader(System.in)), PRIMARY_ONLY);
+        }
+    }
+}
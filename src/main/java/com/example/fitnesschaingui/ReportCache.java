@@ -0,0 +1,101 @@
+package com.example.fitnesschaingui;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches generated member reports by report name.
+ * Each report is stored with the version of the data it was generated
+ * from and the day it was generated on, since whether a membership shows
+ * as expired depends on the current date. A report is only returned while
+ * both still match. The total size of the cached reports is capped, and
+ * the least recently used reports are evicted to stay under the cap.
+ * @author Albert Zou, Rishabh Patel
+ */
+final class ReportCache {
+    private final LinkedHashMap<String, Entry> reports;
+    private final long maxChars;
+    private long chars;
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * A cached report along with the state it was generated from.
+     */
+    private static final class Entry {
+        private final String output;
+        private final long version;
+        private final long day;
+
+        /**
+         * Constructs Entry object.
+         * @param output the generated report.
+         * @param version of the data the report was generated from.
+         * @param day the report was generated on.
+         */
+        private Entry(String output, long version, long day) {
+            this.output = output;
+            this.version = version;
+            this.day = day;
+        }
+    }
+
+    /**
+     * Constructs an empty ReportCache.
+     * @param maxChars the most characters to keep across all reports.
+     * Reports larger than this are never cached.
+     */
+    ReportCache(long maxChars) {
+        reports = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Gets a cached report if it is still current.
+     * Drops the report if it is stale.
+     * @param name of the report.
+     * @param version of the data now.
+     * @param day today.
+     * @return the cached report, null if there is none or it is stale.
+     */
+    String get(String name, long version, long day) {
+        Entry e = reports.get(name);
+        if ( e == null ) {
+            return null;
+        } else if ( e.version != version || e.day != day ) {
+            reports.remove(name);
+            chars -= e.output.length();
+            return null;
+        }
+        return e.output;
+    }
+
+    /**
+     * Caches a report, replacing any earlier version of it.
+     * Evicts the least recently used reports until the cache fits.
+     * @param name of the report.
+     * @param output the generated report.
+     * @param version of the data the report was generated from.
+     * @param day the report was generated on.
+     * @return the report.
+     */
+    String put(String name, String output, long version, long day) {
+        Entry old = reports.remove(name);
+        if ( old != null ) {
+            chars -= old.output.length();
+        }
+        if ( output.length() > maxChars ) {
+            return output;
+        }
+        Iterator<Map.Entry<String, Entry>> it = reports.entrySet().iterator();
+        while ( chars + output.length() > maxChars && it.hasNext() ) {
+            chars -= it.next().getValue().output.length();
+            it.remove();
+        }
+        reports.put(name, new Entry(output, version, day));
+        chars += output.length();
+        return output;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.fitnesschaingui;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when a member report is sorted and
+ * generated.
+ * @author Albert Zou, Rishabh Patel
+ */
+@Name("com.example.fitnesschaingui.Report")
+@Label("Member Report")
+@Category("Gym Manager")
+@Description("Sorting and generation of a member report")
+class ReportEvent extends Event {
+    @Label("Report")
+    String report;
+
+    @Label("Members")
+    int members;
+
+    @Label("Length")
+    @DataAmount(DataAmount.BYTES)
+    long chars;
+}
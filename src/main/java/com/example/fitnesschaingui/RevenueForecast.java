@@ -0,0 +1,266 @@
+package com.example.fitnesschaingui;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Projects the renewal revenue of the members month by month.
+ * Every member is expected to renew when their membership expires and
+ * again every renewal period after that, a quarter for standard and
+ * family members and a year for premium members, paying their next bill
+ * fee each time. Members are bucketed by the month their membership
+ * expires, their renewal period, and their gym location, so a projection
+ * only walks the buckets, not the members. The buckets are built in one
+ * pass over the members and then kept up to date by the database as
+ * members are added, removed, and renewed. Members whose membership
+ * expired before the first projected month aren't expected to renew.
+ * Archiving a member takes them out of the buckets like a removal, and
+ * restoring them puts them back.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class RevenueForecast {
+    private final HashMap<Member, Entry> entries;
+    private final HashMap<Long, long[]> buckets;
+
+    private static final int MONTHS_YEAR = 12;
+    private static final int PERIOD_BITS = 8;
+    private static final int COUNT = Location.values().length;
+    private static final double CENTS = 100.0;
+
+    /**
+     * Constructs an empty RevenueForecast.
+     * Members are counted once it is set on a database.
+     */
+    public RevenueForecast() {
+        entries = new HashMap<>();
+        buckets = new HashMap<>();
+    }
+
+    /**
+     * The bucket a member was counted in.
+     */
+    private static final class Entry {
+        private final long bucket;
+        private final int location;
+        private final long cents;
+
+        /**
+         * Constructs Entry object for the current state of a member.
+         * @param m the member.
+         */
+        private Entry(Member m) {
+            bucket = (long) month(m.getExpire()) << PERIOD_BITS | m.renewalMonths();
+            location = m.getLocation().ordinal();
+            cents = Math.round(m.membershipFee(false) * CENTS);
+        }
+    }
+
+    /**
+     * Numbers a month so consecutive months have consecutive numbers.
+     * @param date in the month.
+     * @return the number of the month.
+     */
+    private static int month(Date date) {
+        return date.getYear() * MONTHS_YEAR + date.getMonth() - 1;
+    }
+
+    /**
+     * Counts a member added to the database.
+     * @param m the member.
+     */
+    void added(Member m) {
+        Entry e = new Entry(m);
+        Entry old = entries.put(m, e);
+        if ( old != null ) {
+            count(old, -1);
+        }
+        count(e, 1);
+    }
+
+    /**
+     * Stops counting a member removed from the database.
+     * @param m the member.
+     */
+    void removed(Member m) {
+        Entry old = entries.remove(m);
+        if ( old != null ) {
+            count(old, -1);
+        }
+    }
+
+    /**
+     * Moves a member whose expiration date changed to their new bucket.
+     * @param m the member.
+     */
+    void changed(Member m) {
+        if ( entries.containsKey(m) ) {
+            added(m);
+        }
+    }
+
+    /**
+     * Adds or takes a member's fee to or from their bucket.
+     * Each bucket holds the fees of each location followed by the number
+     * of members in it, and is dropped once it is empty.
+     * @param e the bucket and fee of the member.
+     * @param sign 1 to add the member, -1 to take them away.
+     */
+    private void count(Entry e, int sign) {
+        long[] bucket = buckets.computeIfAbsent(e.bucket, k -> new long[COUNT + 1]);
+        bucket[e.location] += sign * e.cents;
+        bucket[COUNT] += sign;
+        if ( bucket[COUNT] == 0 ) {
+            buckets.remove(e.bucket);
+        }
+    }
+
+    /**
+     * Gets the number of members counted.
+     * @return the count of members.
+     */
+    public int getMembers() {
+        return entries.size();
+    }
+
+    /**
+     * Projects the revenue of the twelve months starting this month.
+     * @return the projection.
+     */
+    public Projection project() {
+        return project(new Date(), MONTHS_YEAR);
+    }
+
+    /**
+     * Projects the revenue of consecutive months.
+     * Callers sharing the database with other threads should hold the same
+     * lock as those threads while projecting.
+     * @param from a date in the first month.
+     * @param months the number of months to project.
+     * @return the projection.
+     */
+    public Projection project(Date from, int months) {
+        int first = month(from);
+        long[][] cents = new long[months][COUNT];
+        for ( Map.Entry<Long, long[]> e : buckets.entrySet() ) {
+            int expires = (int) (e.getKey() >>> PERIOD_BITS);
+            int period = (int) (e.getKey() & ((1 << PERIOD_BITS) - 1));
+            if ( expires < first ) {
+                continue;
+            }
+            long[] fees = e.getValue();
+            for ( int m = expires - first; m < months; m += period ) {
+                for ( int l = 0; l < COUNT; l++ ) {
+                    cents[m][l] += fees[l];
+                }
+            }
+        }
+        return new Projection(first, cents);
+    }
+
+    /**
+     * The projected revenue of each month at each location.
+     */
+    public static final class Projection {
+        private final int first;
+        private final long[][] cents;
+
+        /**
+         * Constructs Projection object.
+         * @param first number of the first month.
+         * @param cents revenue of each month at each location, in cents.
+         */
+        private Projection(int first, long[][] cents) {
+            this.first = first;
+            this.cents = cents;
+        }
+
+        /**
+         * Gets the number of months projected.
+         * @return the count of months.
+         */
+        public int getMonths() {
+            return cents.length;
+        }
+
+        /**
+         * Names a projected month.
+         * @param month index of the month, starting at 0.
+         * @return the month and year, like 6/2025.
+         */
+        public String getMonth(int month) {
+            int m = first + month;
+            return (m % MONTHS_YEAR + 1) + "/" + m / MONTHS_YEAR;
+        }
+
+        /**
+         * Gets the revenue of a month at a location.
+         * @param month index of the month, starting at 0.
+         * @param location of the gym.
+         * @return the revenue in dollars.
+         */
+        public double getRevenue(int month, Location location) {
+            return cents[month][location.ordinal()] / CENTS;
+        }
+
+        /**
+         * Gets the revenue of a month at every location.
+         * @param month index of the month, starting at 0.
+         * @return the revenue in dollars.
+         */
+        public double getRevenue(int month) {
+            long total = 0;
+            for ( long c : cents[month] ) {
+                total += c;
+            }
+            return total / CENTS;
+        }
+
+        /**
+         * Gets the revenue of a location over every month.
+         * @param location of the gym.
+         * @return the revenue in dollars.
+         */
+        public double getRevenue(Location location) {
+            long total = 0;
+            for ( long[] month : cents ) {
+                total += month[location.ordinal()];
+            }
+            return total / CENTS;
+        }
+
+        /**
+         * Gets the revenue of every location over every month.
+         * @return the revenue in dollars.
+         */
+        public double getRevenue() {
+            long total = 0;
+            for ( long[] month : cents ) {
+                for ( long c : month ) {
+                    total += c;
+                }
+            }
+            return total / CENTS;
+        }
+
+        /**
+         * Represents the projection as a table.
+         * @return a line for each month and one for each location, followed
+         * by the total.
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for ( int m = 0; m < cents.length; m++ ) {
+                sb.append(getMonth(m)).append(String.format(": $%.2f", getRevenue(m)));
+                for ( Location l : Location.values() ) {
+                    sb.append(String.format(", %s $%.2f", l.name(), getRevenue(m, l)));
+                }
+                sb.append('\n');
+            }
+            for ( Location l : Location.values() ) {
+                sb.append(l.name()).append(String.format(": $%.2f", getRevenue(l))).append('\n');
+            }
+            return sb.append(String.format("Total: $%.2f", getRevenue())).toString();
+        }
+    }
+}
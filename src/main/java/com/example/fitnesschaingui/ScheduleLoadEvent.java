@@ -0,0 +1,26 @@
+package com.example.fitnesschaingui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when classes are loaded from a file.
+ * @author Albert Zou, Rishabh Patel
+ */
+@Name("com.example.fitnesschaingui.ScheduleLoad")
+@Label("Schedule Load")
+@Category("Gym Manager")
+@Description("Fitness classes loaded from a schedule file")
+class ScheduleLoadEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Rows Read")
+    int rows;
+
+    @Label("Classes Added")
+    int added;
+}
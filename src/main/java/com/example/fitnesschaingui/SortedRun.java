@@ -0,0 +1,437 @@
+package com.example.fitnesschaingui;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable file of records sorted by key, one level of the on-disk
+ * member store.
+ * Records are packed into fixed-size pages. The first key of every page
+ * and a Bloom filter of all keys are stored after the pages and kept in
+ * memory, so a lookup reads at most one page and lookups of missing keys
+ * usually read none. A record without a value is a tombstone marking a
+ * deleted key.
+ * @author Albert Zou, Rishabh Patel
+ */
+final class SortedRun {
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private final String[] firstKeys;
+    private final long[] bloom;
+    private final long entries;
+
+    /**
+     * Returned by get() for a key deleted in this run.
+     */
+    static final String DELETED = new String("");
+
+    static final int PAGE_SIZE = 4096;
+    private static final int MAGIC = 0x4753524E;
+    private static final int FOOTER_SIZE = Long.BYTES * 3 + Integer.BYTES;
+    private static final short TOMBSTONE = -1;
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASHES = 7;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int BYTE_MASK = 0xff;
+    private static final int WORD_SHIFT = 6;
+    private static final int HIGH_HALF = 32;
+
+    /**
+     * Constructs SortedRun object from its parts.
+     * @param id unique id of the run, larger for newer runs.
+     * @param path of the file.
+     * @param channel open for reading the file.
+     * @param firstKeys first key of each page.
+     * @param bloom filter bits of all keys.
+     * @param entries number of records.
+     */
+    private SortedRun(long id, Path path, FileChannel channel, String[] firstKeys,
+                      long[] bloom, long entries) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.firstKeys = firstKeys;
+        this.bloom = bloom;
+        this.entries = entries;
+    }
+
+    /**
+     * Writes records in key order to a new file.
+     * @param path of the file to create.
+     * @param id unique id of the run, larger for newer runs.
+     * @param records to write in increasing key order; a null value is a
+     * tombstone.
+     * @param expected upper bound on the number of records, used to size
+     * the Bloom filter.
+     * @return the run, open for reading.
+     * @throws IOException if writing fails.
+     */
+    static SortedRun write(Path path, long id, Iterator<Map.Entry<String, String>> records,
+                           long expected) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE, StandardOpenOption.READ);
+        long[] bloom = new long[(int) Math.max(1, (expected * BITS_PER_ENTRY >>> WORD_SHIFT) + 1)];
+        ArrayList<String> firstKeys = new ArrayList<>();
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        short count = 0;
+        long entries = 0;
+        long position = 0;
+        page.position(Short.BYTES);
+        while ( records.hasNext() ) {
+            Map.Entry<String, String> record = records.next();
+            byte[] key = record.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] value = record.getValue() == null ? null
+                    : record.getValue().getBytes(StandardCharsets.UTF_8);
+            int size = Short.BYTES * 2 + key.length + (value == null ? 0 : value.length);
+            if ( size > PAGE_SIZE - Short.BYTES ) {
+                throw new IllegalArgumentException("Record too large: " + record.getKey());
+            }
+            if ( page.remaining() < size ) {
+                position += writePage(channel, page, count, position);
+                count = 0;
+            }
+            if ( count == 0 ) {
+                firstKeys.add(record.getKey());
+            }
+            page.putShort((short) key.length).put(key);
+            if ( value == null ) {
+                page.putShort(TOMBSTONE);
+            } else {
+                page.putShort((short) value.length).put(value);
+            }
+            count++;
+            entries++;
+            addToBloom(bloom, key);
+        }
+        if ( count > 0 ) {
+            position += writePage(channel, page, count, position);
+        }
+        long indexOffset = position;
+        position += writeBlock(channel, index(firstKeys), position);
+        long bloomOffset = position;
+        ByteBuffer bits = ByteBuffer.allocate(bloom.length * Long.BYTES);
+        bits.asLongBuffer().put(bloom);
+        position += writeBlock(channel, bits, position);
+        ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+        footer.putLong(indexOffset).putLong(bloomOffset).putLong(entries).putInt(MAGIC).flip();
+        writeBlock(channel, footer, position);
+        channel.force(true);
+        return new SortedRun(id, path, channel, firstKeys.toArray(new String[0]), bloom, entries);
+    }
+
+    /**
+     * Writes a full or final page, padded to the page size.
+     * @param channel to write to.
+     * @param page holding the records after room for the count.
+     * @param count of records in the page.
+     * @param position in the file to write at.
+     * @return the number of bytes written.
+     * @throws IOException if writing fails.
+     */
+    private static int writePage(FileChannel channel, ByteBuffer page, short count,
+                                 long position) throws IOException {
+        page.putShort(0, count);
+        page.position(PAGE_SIZE).flip();
+        writeBlock(channel, page, position);
+        page.clear();
+        Arrays.fill(page.array(), (byte) 0);
+        page.position(Short.BYTES);
+        return PAGE_SIZE;
+    }
+
+    /**
+     * Writes a whole buffer.
+     * @param channel to write to.
+     * @param block to write, from its position to its limit.
+     * @param position in the file to write at.
+     * @return the number of bytes written.
+     * @throws IOException if writing fails.
+     */
+    private static int writeBlock(FileChannel channel, ByteBuffer block, long position)
+            throws IOException {
+        int length = block.remaining();
+        while ( block.hasRemaining() ) {
+            position += channel.write(block, position);
+        }
+        return length;
+    }
+
+    /**
+     * Encodes the first keys of the pages.
+     * @param firstKeys of each page.
+     * @return the encoded index, ready to write.
+     */
+    private static ByteBuffer index(ArrayList<String> firstKeys) {
+        ArrayList<byte[]> keys = new ArrayList<>(firstKeys.size());
+        int size = Integer.BYTES;
+        for ( String key : firstKeys ) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            keys.add(bytes);
+            size += Short.BYTES + bytes.length;
+        }
+        ByteBuffer index = ByteBuffer.allocate(size);
+        index.putInt(keys.size());
+        for ( byte[] key : keys ) {
+            index.putShort((short) key.length).put(key);
+        }
+        return index.flip();
+    }
+
+    /**
+     * Opens an existing run.
+     * @param path of the file.
+     * @param id unique id of the run, larger for newer runs.
+     * @return the run, open for reading.
+     * @throws IOException if the file can't be read or isn't a run.
+     */
+    static SortedRun open(Path path, long id) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if ( size < FOOTER_SIZE ) {
+            channel.close();
+            throw new IOException(path + " is not a member store file");
+        }
+        ByteBuffer footer = read(channel, size - FOOTER_SIZE, FOOTER_SIZE);
+        long indexOffset = footer.getLong();
+        long bloomOffset = footer.getLong();
+        long entries = footer.getLong();
+        if ( footer.getInt() != MAGIC ) {
+            channel.close();
+            throw new IOException(path + " is not a member store file");
+        }
+        ByteBuffer index = read(channel, indexOffset, (int) (bloomOffset - indexOffset));
+        String[] firstKeys = new String[index.getInt()];
+        for ( int i = 0; i < firstKeys.length; i++ ) {
+            byte[] key = new byte[index.getShort()];
+            index.get(key);
+            firstKeys[i] = new String(key, StandardCharsets.UTF_8);
+        }
+        ByteBuffer bits = read(channel, bloomOffset, (int) (size - FOOTER_SIZE - bloomOffset));
+        long[] bloom = new long[bits.remaining() / Long.BYTES];
+        bits.asLongBuffer().get(bloom);
+        return new SortedRun(id, path, channel, firstKeys, bloom, entries);
+    }
+
+    /**
+     * Reads a block of a file.
+     * @param channel to read from.
+     * @param position in the file of the block.
+     * @param length of the block.
+     * @return the block, ready to read.
+     * @throws IOException if reading fails or the file ends early.
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int length)
+            throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(length);
+        while ( block.hasRemaining() ) {
+            int n = channel.read(block, position + block.position());
+            if ( n < 0 ) {
+                throw new IOException("Unexpected end of member store file");
+            }
+        }
+        return block.flip();
+    }
+
+    /**
+     * Hashes a key for the Bloom filter.
+     * @param key bytes of the key.
+     * @return a 64-bit FNV-1a hash of the key.
+     */
+    private static long hash(byte[] key) {
+        long h = FNV_OFFSET;
+        for ( byte b : key ) {
+            h = (h ^ (b & BYTE_MASK)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Adds a key to a Bloom filter.
+     * @param bloom the filter bits.
+     * @param key bytes of the key.
+     */
+    private static void addToBloom(long[] bloom, byte[] key) {
+        long h = hash(key);
+        long bits = (long) bloom.length << WORD_SHIFT;
+        for ( int i = 0; i < HASHES; i++ ) {
+            long bit = Math.floorMod((int) h + i * ((h >>> HIGH_HALF) | 1), bits);
+            bloom[(int) (bit >>> WORD_SHIFT)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks if a key may be in the run.
+     * @param key bytes of the key.
+     * @return false if the key is certainly not in the run.
+     */
+    private boolean mayContain(byte[] key) {
+        long h = hash(key);
+        long bits = (long) bloom.length << WORD_SHIFT;
+        for ( int i = 0; i < HASHES; i++ ) {
+            long bit = Math.floorMod((int) h + i * ((h >>> HIGH_HALF) | 1), bits);
+            if ( (bloom[(int) (bit >>> WORD_SHIFT)] & 1L << bit) == 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Looks up the value of a key.
+     * Reads the one page that may hold the key through the cache.
+     * @param key to look up.
+     * @param cache of pages.
+     * @return the value, DELETED if the key was deleted in this run, null
+     * if the run doesn't have the key.
+     * @throws IOException if reading fails.
+     */
+    String get(String key, PageCache cache) throws IOException {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if ( !mayContain(bytes) ) {
+            return null;
+        }
+        int low = 0;
+        int high = firstKeys.length - 1;
+        int page = -1;
+        while ( low <= high ) {
+            int mid = (low + high) >>> 1;
+            if ( firstKeys[mid].compareTo(key) <= 0 ) {
+                page = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if ( page < 0 ) {
+            return null;
+        }
+        byte[] data = cache.get(id, page);
+        if ( data == null ) {
+            data = read(channel, (long) page * PAGE_SIZE, PAGE_SIZE).array();
+            cache.put(id, page, data);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int count = buffer.getShort();
+        for ( int i = 0; i < count; i++ ) {
+            int keyLength = buffer.getShort();
+            int keyStart = buffer.position();
+            buffer.position(keyStart + keyLength);
+            int valueLength = buffer.getShort();
+            boolean match = Arrays.equals(data, keyStart, keyStart + keyLength,
+                    bytes, 0, bytes.length);
+            if ( match ) {
+                return valueLength == TOMBSTONE ? DELETED
+                        : new String(data, buffer.position(), valueLength, StandardCharsets.UTF_8);
+            }
+            if ( valueLength != TOMBSTONE ) {
+                buffer.position(buffer.position() + valueLength);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads every record in key order, bypassing the page cache.
+     * @return an iterator over the records; a null value is a tombstone.
+     */
+    Iterator<Map.Entry<String, String>> scan() {
+        return new Iterator<>() {
+            private final int pages = firstKeys.length;
+            private int page;
+            private ByteBuffer buffer;
+            private int remaining;
+
+            @Override
+            public boolean hasNext() {
+                while ( remaining == 0 && page < pages ) {
+                    try {
+                        buffer = read(channel, (long) page * PAGE_SIZE, PAGE_SIZE);
+                    } catch ( IOException e ) {
+                        throw new UncheckedIOException(e);
+                    }
+                    page++;
+                    remaining = buffer.getShort();
+                }
+                return remaining > 0;
+            }
+
+            @Override
+            public Map.Entry<String, String> next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                byte[] key = new byte[buffer.getShort()];
+                buffer.get(key);
+                int valueLength = buffer.getShort();
+                String value = null;
+                if ( valueLength != TOMBSTONE ) {
+                    byte[] bytes = new byte[valueLength];
+                    buffer.get(bytes);
+                    value = new String(bytes, StandardCharsets.UTF_8);
+                }
+                return new AbstractMap.SimpleImmutableEntry<>(
+                        new String(key, StandardCharsets.UTF_8), value);
+            }
+        };
+    }
+
+    /**
+     * Gets the unique id of the run.
+     * @return the id property.
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the file of the run.
+     * @return the path property.
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the number of records in the run, including tombstones.
+     * @return the entries property.
+     */
+    long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Moves the file of the run, replacing any file at the target in one
+     * step.
+     * @param target the new path of the file.
+     * @return the run at its new path, sharing the open file.
+     * @throws IOException if the file can't be moved.
+     */
+    SortedRun moveTo(Path target) throws IOException {
+        Files.move(path, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new SortedRun(id, target, channel, firstKeys, bloom, entries);
+    }
+
+    /**
+     * Closes the file of the run.
+     * @throws IOException if closing fails.
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.fitnesschaingui;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Generates synthetic member files, schedule files, and command streams.
+ * Members follow a realistic mix of locations, ages, expiration dates and
+ * membership types, with a share of deliberate duplicates. Commands refer
+ * to the generated members and classes, so a stream generated after the
+ * files can be replayed against them with LoadReplay.
+ * @author Albert Zou, Rishabh Patel
+ */
+public class WorkloadGenerator {
+    private final Random random;
+    private final ArrayList<String[]> members;
+    private final ArrayList<String[]> classes;
+    private final EnumMap<Location, ArrayList<String[]>> classesAt;
+    private final LocalDate today;
+
+    private static final String[] FIRST_NAMES = {"John", "Jane", "April", "Mary",
+            "Duke", "Roy", "Kate", "Carl", "Paul", "Bill", "Emma", "Denise",
+            "Jennifer", "Kim", "Davis", "Albert", "Rishabh", "Priya", "Wei",
+            "Maria", "Jose", "Aisha", "Omar", "Olga", "Liam", "Noah", "Ava",
+            "Mia", "Lucas", "Sofia", "Ethan", "Chloe", "Raj", "Mei", "Ivan",
+            "Fatima", "Diego", "Hana", "Kofi", "Nina"};
+    private static final String[] LAST_NAMES = {"Doe", "March", "Lindsey",
+            "Ellington", "Brooks", "Brown", "Siegel", "Scanlan", "Smith",
+            "Johnson", "Williams", "Jones", "Garcia", "Miller", "Davis",
+            "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson",
+            "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Patel",
+            "Zou", "Nguyen", "Kim", "Chen", "Shah", "Singh", "Cohen", "Rossi",
+            "Murphy", "Kowalski", "Novak", "Okafor"};
+    private static final String[] CLASS_NAMES = {"Pilates", "Spinning", "Cardio",
+            "Yoga", "Zumba", "Boxing", "Barre", "Crossfit"};
+    private static final Location[] LOCATIONS = Location.values();
+    private static final int[] LOCATION_WEIGHTS = {30, 25, 20, 15, 10};
+    private static final int[] TYPE_WEIGHTS = {60, 25, 15};
+    private static final int MIN_AGE = 18;
+    private static final int AGE_SPREAD = 31;
+    private static final int AGE_TERMS = 2;
+    private static final int DAYS_IN_YEAR = 365;
+    private static final int EXPIRED_DAYS = 180;
+    private static final int ACTIVE_DAYS = 365;
+    private static final int PERCENT = 100;
+    private static final int ADD_PERCENT = 20;
+    private static final int REMOVE_PERCENT = 25;
+    private static final int CHECK_IN_PERCENT = 70;
+    private static final int GUEST_PERCENT = 80;
+    private static final int DONE_PERCENT = 95;
+    private static final int FIRST_NAME = 0;
+    private static final int LAST_NAME = 1;
+    private static final int DOB = 2;
+    private static final int EXPIRE = 3;
+    private static final int LOCATION = 4;
+    private static final int TYPE = 5;
+    private static final int CLASS_NAME = 0;
+    private static final int INSTRUCTOR = 1;
+    private static final int CLASS_LOCATION = 3;
+    private static final double DEFAULT_DUPLICATES = 0.02;
+    private static final int ARG_DIR = 0;
+    private static final int ARG_MEMBERS = 1;
+    private static final int ARG_CLASSES = 2;
+    private static final int ARG_COMMANDS = 3;
+    private static final int ARG_DUPLICATES = 4;
+    private static final int ARG_SEED = 5;
+
+    /**
+     * Constructs WorkloadGenerator object.
+     * The same seed always generates the same files.
+     * @param seed for the random generator.
+     */
+    public WorkloadGenerator(long seed) {
+        random = new Random(seed);
+        members = new ArrayList<>();
+        classes = new ArrayList<>();
+        classesAt = new EnumMap<>(Location.class);
+        for ( Location loc : LOCATIONS ) {
+            classesAt.put(loc, new ArrayList<>());
+        }
+        today = LocalDate.now();
+    }
+
+    /**
+     * Writes a member file in the format read by MemberDatabase.loadMembers.
+     * Each line includes the membership type. A share of the lines repeat
+     * the name and date of birth of an earlier line with a new expiration
+     * date, which the database rejects as duplicates.
+     * @param f file to write.
+     * @param count of lines to write.
+     * @param duplicates share of lines that are duplicates, between 0 and 1.
+     * @throws IOException if writing fails.
+     */
+    public void writeMembers(File f, int count, double duplicates) throws IOException {
+        try ( BufferedWriter out = new BufferedWriter(new FileWriter(f)) ) {
+            for ( int i = 0; i < count; i++ ) {
+                String[] m;
+                if ( !members.isEmpty() && random.nextDouble() < duplicates ) {
+                    m = members.get(random.nextInt(members.size())).clone();
+                    m[EXPIRE] = expiration();
+                } else {
+                    m = member();
+                    members.add(m);
+                }
+                out.write(String.join(" ", m));
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Generates the fields of a new member.
+     * @return first name, last name, date of birth, expiration date,
+     * location, and membership type.
+     */
+    private String[] member() {
+        int age = MIN_AGE;
+        for ( int i = 0; i < AGE_TERMS; i++ ) {
+            age += random.nextInt(AGE_SPREAD);
+        }
+        LocalDate dob = today.minusYears(age).minusDays(random.nextInt(DAYS_IN_YEAR));
+        return new String[] {
+                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                format(dob),
+                expiration(),
+                LOCATIONS[weighted(LOCATION_WEIGHTS)].name(),
+                MembershipType.values()[weighted(TYPE_WEIGHTS)].name()
+        };
+    }
+
+    /**
+     * Generates an expiration date between six months ago and a year ahead.
+     * @return the expiration date as "m/d/yyyy".
+     */
+    private String expiration() {
+        return format(today.plusDays(random.nextInt(EXPIRED_DAYS + ACTIVE_DAYS)
+                - EXPIRED_DAYS));
+    }
+
+    /**
+     * Writes a schedule file in the format read by ClassSchedule.loadSchedule.
+     * Instructors get numbered names once every combination of name,
+     * instructor, and location is used, so every line is a distinct class.
+     * @param f file to write.
+     * @param count of lines to write.
+     * @throws IOException if writing fails.
+     */
+    public void writeSchedule(File f, int count) throws IOException {
+        HashSet<String> seen = new HashSet<>();
+        try ( BufferedWriter out = new BufferedWriter(new FileWriter(f)) ) {
+            while ( classes.size() < count ) {
+                int n = classes.size() / (FIRST_NAMES.length * LOCATIONS.length);
+                String instructor = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+                        + (n == 0 ? "" : String.valueOf(n));
+                String[] c = {
+                        CLASS_NAMES[random.nextInt(CLASS_NAMES.length)],
+                        instructor,
+                        Time.values()[random.nextInt(Time.values().length)].name(),
+                        LOCATIONS[weighted(LOCATION_WEIGHTS)].name()
+                };
+                if ( seen.add(c[CLASS_NAME] + " " + c[INSTRUCTOR] + " " + c[CLASS_LOCATION]) ) {
+                    classes.add(c);
+                    classesAt.get(Location.valueOf(c[CLASS_LOCATION])).add(c);
+                    out.write(String.join(" ", c));
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a stream of commands in the format run by GymManager.
+     * Mixes adds of new members, removals, check-ins, guest check-ins and
+     * check-outs of the members and classes generated so far. Members are
+     * sent to classes at their own location, like most real visits.
+     * @param f file to write.
+     * @param count of commands to write.
+     * @throws IOException if writing fails.
+     */
+    public void writeCommands(File f, int count) throws IOException {
+        try ( BufferedWriter out = new BufferedWriter(new FileWriter(f)) ) {
+            for ( int i = 0; i < count; i++ ) {
+                out.write(command());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Generates a single command.
+     * Falls back to adding a member while there are no members or classes.
+     * @return the command line.
+     */
+    private String command() {
+        int kind = random.nextInt(PERCENT);
+        if ( kind < ADD_PERCENT || members.isEmpty() || classes.isEmpty() ) {
+            String[] m = member();
+            members.add(m);
+            String code = m[TYPE].equals(MembershipType.FAMILY.name()) ? "AF"
+                    : m[TYPE].equals(MembershipType.PREMIUM.name()) ? "AP" : "A";
+            return code + " " + m[FIRST_NAME] + " " + m[LAST_NAME] + " "
+                    + m[DOB] + " " + m[LOCATION];
+        }
+        String[] m = members.get(random.nextInt(members.size()));
+        if ( kind < REMOVE_PERCENT ) {
+            return "R " + m[FIRST_NAME] + " " + m[LAST_NAME] + " " + m[DOB];
+        }
+        ArrayList<String[]> local = classesAt.get(Location.valueOf(m[LOCATION]));
+        if ( local.isEmpty() ) {
+            local = classes;
+        }
+        String[] c = local.get(random.nextInt(local.size()));
+        String code = kind < CHECK_IN_PERCENT ? "C" : kind < GUEST_PERCENT ? "CG"
+                : kind < DONE_PERCENT ? "D" : "DG";
+        return code + " " + c[CLASS_NAME] + " " + c[INSTRUCTOR] + " "
+                + c[CLASS_LOCATION] + " " + m[FIRST_NAME] + " " + m[LAST_NAME]
+                + " " + m[DOB];
+    }
+
+    /**
+     * Picks an index at random according to the given weights.
+     * @param weights of each index, summing to 100.
+     * @return the index picked.
+     */
+    private int weighted(int[] weights) {
+        int pick = random.nextInt(PERCENT);
+        for ( int i = 0; i < weights.length; i++ ) {
+            pick -= weights[i];
+            if ( pick < 0 ) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Formats a date the way Date.toString does.
+     * @param date to format.
+     * @return the date as "m/d/yyyy".
+     */
+    private static String format(LocalDate date) {
+        return date.getMonthValue() + "/" + date.getDayOfMonth() + "/" + date.getYear();
+    }
+
+    /**
+     * Generates a member file, a schedule file, and a command stream.
+     * Arguments are the output directory, the number of members, classes,
+     * and commands, and optionally the share of duplicate members and the
+     * random seed.
+     * @param args from the command line.
+     * @throws IOException if writing fails.
+     */
+    public static void main(String[] args) throws IOException {
+        File dir = new File(args[ARG_DIR]);
+        int memberCount = Integer.parseInt(args[ARG_MEMBERS]);
+        int classCount = Integer.parseInt(args[ARG_CLASSES]);
+        int commandCount = Integer.parseInt(args[ARG_COMMANDS]);
+        double duplicates = args.length > ARG_DUPLICATES
+                ? Double.parseDouble(args[ARG_DUPLICATES]) : DEFAULT_DUPLICATES;
+        long seed = args.length > ARG_SEED
+                ? Long.parseLong(args[ARG_SEED]) : System.nanoTime();
+        dir.mkdirs();
+        WorkloadGenerator generator = new WorkloadGenerator(seed);
+        generator.writeMembers(new File(dir, "memberList.txt"), memberCount, duplicates);
+        generator.writeSchedule(new File(dir, "classSchedule.txt"), classCount);
+        generator.writeCommands(new File(dir, "commands.txt"), commandCount);
+    }
+}
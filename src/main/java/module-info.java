@@ -1,6 +1,9 @@
 module com.example.fitnesschaingui {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.management;
+    requires jdk.jfr;
+    requires jdk.httpserver;
 
     requires org.controlsfx.controls;
     requires org.kordamp.bootstrapfx.core;
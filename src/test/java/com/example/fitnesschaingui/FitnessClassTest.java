@@ -0,0 +1,83 @@
+package com.example.fitnesschaingui;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that class rosters stop finding members once they leave the
+ * database, even after their IDs are given to new members.
+ * @author Albert Zou, Rishabh Patel
+ */
+class FitnessClassTest {
+    private MemberDatabase db;
+    private FitnessClass course;
+
+    /**
+     * Creates an empty database and a class at Bridgewater.
+     */
+    @BeforeEach
+    void setUp() {
+        db = new MemberDatabase();
+        course = new FitnessClass(db, "Pilates", "Jennifer", Time.MORNING, Location.BRIDGEWATER);
+    }
+
+    /**
+     * Builds a standard member at Bridgewater and adds them to the database.
+     * @param fName first name of the member.
+     * @return the member.
+     */
+    private Member added(String fName) {
+        Member m = new Member(fName, "Lee", new Date("1/2/1990"), new Date("1/1/2030"),
+                Location.BRIDGEWATER);
+        db.add(m);
+        return m;
+    }
+
+    @Test
+    void aReusedIdDoesNotMatchTheOldRosterEntry() {
+        Member ann = added("Ann");
+        int id = db.id(ann);
+        assertTrue(course.checkIn(ann));
+        db.remove(ann);
+        Member bob = added("Bob");
+
+        assertEquals(id, db.id(bob));
+        assertEquals(-1, course.findMember(bob));
+        assertTrue(course.getParticipants().isEmpty());
+        assertTrue(course.checkIn(bob));
+        assertFalse(course.checkIn(bob));
+    }
+
+    @Test
+    void membersAddedBackAreNotStillCheckedIn() {
+        Member ann = added("Ann");
+        assertTrue(course.checkIn(ann));
+        db.remove(ann);
+        db.add(ann);
+
+        assertEquals(-1, course.findMember(ann));
+        assertFalse(course.done(ann));
+    }
+
+    @Test
+    void entriesOfRemovedMembersAreDroppedAsTheRosterFills() {
+        for ( int round = 0; round < 10; round++ ) {
+            Member[] members = new Member[8];
+            for ( int i = 0; i < members.length; i++ ) {
+                members[i] = added("N" + round + "x" + i);
+                assertTrue(course.checkIn(members[i]));
+            }
+            for ( Member m : members ) {
+                db.remove(m);
+            }
+        }
+        Member ann = added("Ann");
+        assertTrue(course.checkIn(ann));
+        assertEquals(1, course.getParticipants().size());
+        assertEquals(0, course.findMember(ann));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.fitnesschaingui;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests that guest passes are given back at the start of every billing
+ * period, driven through the GymManager with a ledger of its own.
+ * @author Albert Zou, Rishabh Patel
+ */
+class GuestPassLedgerTest {
+    @TempDir
+    Path dir;
+
+    private GymManager gym;
+    private GuestPassLedger ledger;
+    private long now;
+
+    private static final String DOB = "1/2/1990";
+    private static final long PAST_MONTH_END = TimeUnit.DAYS.toMillis(32);
+
+    /**
+     * Creates a gym with the bundled schedule and one family member whose
+     * guest passes are kept in a ledger following the test's clock.
+     */
+    @BeforeEach
+    void setUp() {
+        now = System.currentTimeMillis();
+        ledger = new GuestPassLedger(() -> now);
+        gym = new GymManager();
+        gym.getSchedule().loadSchedule();
+        gym.getDatabase().add(new Family("Ann", "Lee", new Date(DOB), Location.EDISON, ledger));
+    }
+
+    /**
+     * Checks a guest of the family member in to a class at Edison.
+     * @param course name of the class.
+     * @param instructor of the class.
+     * @return the outcome of the check-in.
+     */
+    private CheckInResult.Outcome guest(String course, String instructor) {
+        return gym.checkIn("Ann", "Lee", DOB, course, instructor, "Edison", true).getOutcome();
+    }
+
+    @Test
+    void passesResetWhenTheMonthChanges() {
+        assertEquals(CheckInResult.Outcome.GUEST_CHECKED_IN, guest("Pilates", "Davis"));
+        assertEquals(CheckInResult.Outcome.NO_GUEST_PASS, guest("Spinning", "Denise"));
+
+        int period = ledger.getPeriod();
+        now += PAST_MONTH_END;
+
+        assertEquals(CheckInResult.Outcome.GUEST_CHECKED_IN, guest("Spinning", "Denise"));
+        assertEquals(period + 1, ledger.getPeriod());
+        assertEquals(CheckInResult.Outcome.NO_GUEST_PASS, guest("Cardio", "Emma"));
+    }
+
+    @Test
+    void passesStayUsedWithinTheMonth() {
+        int period = ledger.getPeriod();
+        assertEquals(CheckInResult.Outcome.GUEST_CHECKED_IN, guest("Pilates", "Davis"));
+        assertEquals(CheckInResult.Outcome.NO_GUEST_PASS, guest("Spinning", "Denise"));
+        assertEquals(period, ledger.getPeriod());
+    }
+
+    @Test
+    void familiesWhoUsedPassesAreNotArchivedUntilTheNextPeriod() throws IOException {
+        try ( MemberStore archive = gym.openArchive(dir) ) {
+            Member ann = gym.getDatabase().inMemory(
+                    new Member("Ann", "Lee", new Date(DOB), new Date(), Location.EDISON));
+            assertEquals(CheckInResult.Outcome.GUEST_CHECKED_IN, guest("Pilates", "Davis"));
+            assertEquals("0 members archived.\n", gym.execute("AM 1/1/2100"));
+            assertSame(ann, gym.getDatabase().inMemory(ann));
+
+            now += PAST_MONTH_END;
+            assertEquals("1 members archived.\n", gym.execute("AM 1/1/2100"));
+            assertNull(gym.getDatabase().inMemory(ann));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.fitnesschaingui;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that each staged change of a batch is checked against the database
+ * as the earlier changes of the batch leave it.
+ * @author Albert Zou, Rishabh Patel
+ */
+class MemberBatchTest {
+    @TempDir
+    Path dir;
+
+    private MemberDatabase db;
+
+    /**
+     * Creates an empty database.
+     */
+    @BeforeEach
+    void setUp() {
+        db = new MemberDatabase();
+    }
+
+    /**
+     * Builds a standard member at Edison.
+     * @param fName first name of the member.
+     * @param expire expiration date as "mm/dd/yyyy".
+     * @return the member.
+     */
+    private static Member member(String fName, String expire) {
+        return new Member(fName, "Lee", new Date("1/2/1990"), new Date(expire), Location.EDISON);
+    }
+
+    @Test
+    void aMemberRemovedAndAddedBackIsReplaced() {
+        Member old = member("Ann", "1/1/2030");
+        db.add(old);
+        Member fresh = member("Ann", "2/2/2031");
+
+        List<MemberBatch.Rejection> rejected = new MemberBatch(db).remove(old).add(fresh).apply(true);
+
+        assertTrue(rejected.isEmpty());
+        assertEquals(1, db.count());
+        assertSame(fresh, db.inMemory(old));
+        assertEquals("2/2/2031", db.inMemory(old).getExpire().toString());
+    }
+
+    @Test
+    void aMemberAddedAndRemovedIsNeverAdded() {
+        Member ann = member("Ann", "1/1/2030");
+        Member bob = member("Bob", "1/1/2030");
+
+        List<MemberBatch.Rejection> rejected = new MemberBatch(db).add(ann).add(bob).remove(ann)
+                .apply(true);
+
+        assertTrue(rejected.isEmpty());
+        assertEquals(List.of(bob), List.copyOf(db.members()));
+        assertNull(db.inMemory(ann));
+    }
+
+    @Test
+    void anArchivedMemberRestoredAndRemovedLeavesBoth() throws IOException {
+        try ( MemberStore archive = new MemberStore(dir) ) {
+            db.setArchive(archive);
+            Member ann = member("Ann", "1/1/2000");
+            Member bob = member("Bob", "1/1/2030");
+            db.add(ann);
+            db.add(bob);
+            assertEquals(1, db.archive(m -> m == ann));
+
+            List<MemberBatch.Rejection> rejected = new MemberBatch(db)
+                    .updateExpiration(ann, new Date("1/1/2030")).remove(ann).apply(true);
+
+            assertTrue(rejected.isEmpty());
+            assertNull(db.inMemory(ann));
+            assertNull(archive.get(ann));
+            assertEquals(List.of(bob), List.copyOf(db.members()));
+        }
+    }
+
+    @Test
+    void anAtomicBatchWithARejectionChangesNothing() {
+        Member ann = member("Ann", "1/1/2030");
+        Member bob = member("Bob", "1/1/2030");
+        db.add(ann);
+
+        List<MemberBatch.Rejection> rejected = new MemberBatch(db).add(bob)
+                .updateExpiration(ann, new Date("2/2/2031")).add(member("Ann", "3/3/2032"))
+                .remove(member("Cal", "1/1/2030")).apply(true);
+
+        assertEquals(2, rejected.size());
+        assertEquals(2, rejected.get(0).getRow());
+        assertEquals(3, rejected.get(1).getRow());
+        assertEquals(List.of(ann), List.copyOf(db.members()));
+        assertEquals("1/1/2030", ann.getExpire().toString());
+    }
+
+    @Test
+    void aPartialBatchAppliesTheAcceptedChanges() {
+        Member ann = member("Ann", "1/1/2030");
+        Member bob = member("Bob", "1/1/2030");
+        db.add(ann);
+
+        List<MemberBatch.Rejection> rejected = new MemberBatch(db).add(bob)
+                .add(member("Ann", "3/3/2032")).apply(false);
+
+        assertEquals(1, rejected.size());
+        assertEquals(List.of(ann, bob), List.copyOf(db.members()));
+        assertSame(ann, db.inMemory(member("Ann", "3/3/2032")));
+    }
+}
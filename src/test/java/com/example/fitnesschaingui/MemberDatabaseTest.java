@@ -0,0 +1,143 @@
+package com.example.fitnesschaingui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that removed slots are skipped by readers and compacted away
+ * without losing the order of the members or changes made meanwhile.
+ * @author Albert Zou, Rishabh Patel
+ */
+class MemberDatabaseTest {
+    private MemberDatabase db;
+
+    private static final int MANY = 4096;
+
+    /**
+     * Creates an empty database.
+     */
+    @BeforeEach
+    void setUp() {
+        db = new MemberDatabase();
+    }
+
+    /**
+     * Builds a standard member at Edison.
+     * @param fName first name of the member.
+     * @return the member.
+     */
+    private static Member member(String fName) {
+        return new Member(fName, "Lee", new Date("1/2/1990"), new Date("1/1/2030"), Location.EDISON);
+    }
+
+    /**
+     * Adds members named by number.
+     * @param count of members.
+     * @return the members in the order they were added.
+     */
+    private List<Member> addMany(int count) {
+        List<Member> added = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            Member m = member("N" + i);
+            db.add(m);
+            added.add(m);
+        }
+        return added;
+    }
+
+    /**
+     * Checks the database holds exactly the expected members in order, and
+     * that the index and IDs agree with the slots.
+     * @param expected members in order.
+     */
+    private void assertMembers(List<Member> expected) {
+        assertEquals(expected, new ArrayList<>(db.members()));
+        assertEquals(expected.size(), db.members().size());
+        for ( Member m : expected ) {
+            assertSame(m, db.inMemory(m));
+            int id = db.id(m);
+            assertSame(m, db.member(id, db.generation(id)));
+        }
+    }
+
+    @Test
+    void membersSkipRemovedSlotsWithoutCopying() {
+        List<Member> added = addMany(10);
+        db.remove(added.get(0));
+        db.remove(added.get(4));
+        db.remove(added.get(9));
+        added.removeAll(List.of(added.get(9), added.get(4), added.get(0)));
+
+        assertEquals(10, db.slots().size());
+        assertNull(db.slots().get(0));
+        assertMembers(added);
+    }
+
+    @Test
+    void compactionRemovesHolesAndKeepsTheOrder() throws InterruptedException, ExecutionException {
+        List<Member> added = addMany(MANY);
+        List<Member> kept = new ArrayList<>();
+        for ( int i = 0; i < added.size(); i++ ) {
+            if ( i % 2 == 0 ) {
+                db.remove(added.get(i));
+            } else {
+                kept.add(added.get(i));
+            }
+        }
+        db.awaitCompaction();
+
+        assertTrue(db.slots().size() < added.size());
+        assertMembers(kept);
+    }
+
+    @Test
+    void compactionReplaysTheChangesMadeWhileItRan() {
+        Member ann = member("Ann");
+        Member bob = member("Bob");
+        Member cal = member("Cal");
+        Member dee = member("Dee");
+        MemberDatabase.Compaction compaction = new MemberDatabase.Compaction(
+                new Member[] {ann, null, bob, null, cal}, new int[] {0, 1, 2, 3, 4});
+
+        compaction.replay("RAAR", Arrays.asList(bob, dee, bob, dee), new int[] {2, 1, 3, 1});
+
+        assertEquals(Arrays.asList(ann, null, cal, null, bob), compaction.getSlots());
+        assertNull(compaction.getSlot(dee));
+        assertEquals(4, (int) compaction.getSlot(bob));
+        assertEquals(3, compaction.getId(compaction.getSlot(bob)));
+        assertEquals(4, compaction.getId(compaction.getSlot(cal)));
+    }
+
+    @Test
+    void sortingWhileACompactionRunsKeepsTheSortedOrder()
+            throws InterruptedException, ExecutionException {
+        List<Member> added = addMany(MANY);
+        List<Member> kept = new ArrayList<>();
+        for ( int i = 0; i < added.size(); i++ ) {
+            if ( i % 2 == 0 ) {
+                db.remove(added.get(i));
+            } else {
+                kept.add(added.get(i));
+            }
+        }
+        db.getPrintByName();
+        db.awaitCompaction();
+        Member late = member("Zed");
+        db.add(late);
+
+        kept.sort(Member::compareTo);
+        kept.add(late);
+        assertMembers(kept);
+        assertEquals(kept.size(), db.slots().size());
+    }
+}
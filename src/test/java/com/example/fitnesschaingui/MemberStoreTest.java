@@ -0,0 +1,235 @@
+package com.example.fitnesschaingui;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the on-disk member store keeps the newest state of every
+ * member across its log, its runs, merges, and reopening.
+ * @author Albert Zou, Rishabh Patel
+ */
+class MemberStoreTest {
+    @TempDir
+    Path dir;
+
+    private static final int CACHE_PAGES = 16;
+    private static final int TABLE_LIMIT = 1000;
+
+    /**
+     * Builds a standard member at Edison.
+     * @param fName first name of the member.
+     * @param lName last name of the member.
+     * @param expire expiration date as "mm/dd/yyyy".
+     * @return the member.
+     */
+    private static Member member(String fName, String lName, String expire) {
+        return new Member(fName, lName, new Date("1/2/1990"), new Date(expire), Location.EDISON);
+    }
+
+    /**
+     * Opens the store in the test directory.
+     * @return the store.
+     * @throws IOException if the store can't be opened.
+     */
+    private MemberStore open() throws IOException {
+        return new MemberStore(dir, CACHE_PAGES, TABLE_LIMIT);
+    }
+
+    /**
+     * Counts the files of the store with a suffix.
+     * @param suffix of the file names.
+     * @return the count of files.
+     * @throws IOException if the directory can't be read.
+     */
+    private long files(String suffix) throws IOException {
+        try ( Stream<Path> files = Files.list(dir) ) {
+            return files.filter(p -> p.toString().endsWith(suffix)).count();
+        }
+    }
+
+    @Test
+    void reopenReplaysTheLogOfAStoreNeverClosed() throws IOException {
+        MemberStore crashed = open();
+        crashed.put(member("Ann", "Lee", "1/1/2030"));
+        crashed.put(member("Bob", "Lee", "1/1/2030"));
+        crashed.remove(member("Bob", "Lee", "1/1/2030"));
+        crashed.put(member("Ann", "Lee", "2/2/2031"));
+
+        try ( MemberStore store = open() ) {
+            Member ann = store.get(member("ann", "LEE", "1/1/2000"));
+            assertNotNull(ann);
+            assertEquals("2/2/2031", ann.getExpire().toString());
+            assertNull(store.get(member("Bob", "Lee", "1/1/2030")));
+            assertEquals(0, store.getRuns());
+        }
+    }
+
+    @Test
+    void namesWithSpacesKeepTheirFields() throws IOException {
+        try ( MemberStore store = open() ) {
+            store.put(member("Mary Ann", "Lee", "1/1/2030"));
+            store.put(member("Mary", "Ann Lee", "2/2/2031"));
+        }
+        try ( MemberStore store = open() ) {
+            Member first = store.get(member("Mary Ann", "Lee", "1/1/2000"));
+            Member second = store.get(member("Mary", "Ann Lee", "1/1/2000"));
+            assertEquals("Mary Ann", first.getFName());
+            assertEquals("1/1/2030", first.getExpire().toString());
+            assertEquals("Ann Lee", second.getLName());
+            assertEquals("2/2/2031", second.getExpire().toString());
+        }
+    }
+
+    @Test
+    void deletesInNewerRunsHideOlderRuns() throws IOException {
+        try ( MemberStore store = open() ) {
+            store.put(member("Ann", "Lee", "1/1/2030"));
+            store.put(member("Bob", "Lee", "1/1/2030"));
+            store.flush();
+            assertTrue(store.remove(member("Ann", "Lee", "1/1/2030")));
+            store.flush();
+            assertEquals(2, store.getRuns());
+            assertNull(store.get(member("Ann", "Lee", "1/1/2030")));
+            assertFalse(store.remove(member("Ann", "Lee", "1/1/2030")));
+        }
+        try ( MemberStore store = open() ) {
+            assertNull(store.get(member("Ann", "Lee", "1/1/2030")));
+            assertNotNull(store.get(member("Bob", "Lee", "1/1/2030")));
+        }
+    }
+
+    @Test
+    void compactionKeepsTheNewestRecordsInOneRun() throws IOException {
+        try ( MemberStore store = open() ) {
+            store.put(member("Ann", "Lee", "1/1/2030"));
+            store.put(member("Bob", "Lee", "1/1/2030"));
+            store.flush();
+            store.put(member("Ann", "Lee", "2/2/2031"));
+            store.remove(member("Bob", "Lee", "1/1/2030"));
+            store.put(member("Cal", "Lee", "1/1/2030"));
+            store.flush();
+            store.compact();
+            assertEquals(1, store.getRuns());
+            assertEquals("2/2/2031", store.get(member("Ann", "Lee", "1/1/2030")).getExpire().toString());
+            assertNull(store.get(member("Bob", "Lee", "1/1/2030")));
+            assertNotNull(store.get(member("Cal", "Lee", "1/1/2030")));
+        }
+        assertEquals(1, files(".lsm"));
+        try ( MemberStore store = open() ) {
+            assertEquals(1, store.getRuns());
+            assertEquals("2/2/2031", store.get(member("Ann", "Lee", "1/1/2030")).getExpire().toString());
+            assertNull(store.get(member("Bob", "Lee", "1/1/2030")));
+        }
+    }
+
+    @Test
+    void fullTablesAreWrittenInTheBackground() throws IOException {
+        List<Member> members = new ArrayList<>();
+        for ( int i = 0; i < TABLE_LIMIT * 5 / 2; i++ ) {
+            members.add(member("First" + i, "Last", "1/1/2030"));
+        }
+        try ( MemberStore store = open() ) {
+            store.putAll(members);
+            for ( Member m : members ) {
+                assertNotNull(store.get(m));
+            }
+            store.flush();
+            assertEquals(3, store.getRuns());
+        }
+        assertEquals(0, files(".log"));
+        try ( MemberStore store = open() ) {
+            for ( Member m : members ) {
+                assertNotNull(store.get(m));
+            }
+        }
+    }
+
+    @Test
+    void runsAreMergedInTheBackgroundOnceTooManyPileUp() throws IOException {
+        List<Member> members = new ArrayList<>();
+        for ( int i = 0; i < TABLE_LIMIT * 11; i++ ) {
+            members.add(member("First" + i, "Last", "1/1/2030"));
+        }
+        try ( MemberStore store = open() ) {
+            for ( Member m : members ) {
+                store.put(m);
+            }
+        }
+        try ( MemberStore store = open() ) {
+            assertTrue(store.getRuns() <= 3);
+            for ( Member m : members ) {
+                assertNotNull(store.get(m));
+            }
+        }
+    }
+
+    @Test
+    void selectReadsTheNewestStateOfEveryMember() throws IOException {
+        try ( MemberStore store = open() ) {
+            store.put(member("Ann", "Lee", "1/1/2030"));
+            store.put(member("Bob", "Lee", "1/1/2030"));
+            store.put(member("Cal", "Lee", "1/1/2030"));
+            store.flush();
+            store.remove(member("Bob", "Lee", "1/1/2030"));
+            store.put(member("Cal", "Lee", "2/2/2031"));
+            store.put(member("Dee", "Lee", "1/1/2030"));
+
+            List<Member> all = store.select(m -> true);
+            assertEquals(3, all.size());
+            assertEquals("Ann", all.get(0).getFName());
+            assertEquals("2/2/2031", all.get(1).getExpire().toString());
+            assertEquals(List.of(all.get(0), all.get(2)),
+                    store.select(m -> m.getExpire().toString().equals("1/1/2030")));
+        }
+    }
+
+    @Test
+    void renewalsReachArchivedMembers() throws IOException {
+        GymManager gym = new GymManager();
+        MemberDatabase db = gym.getDatabase();
+        try ( MemberStore archive = gym.openArchive(dir) ) {
+            Member ann = member("Ann", "Lee", "1/1/2000");
+            Member bob = member("Bob", "Lee", "1/1/2000");
+            db.add(ann);
+            db.add(bob);
+            assertEquals(1, db.archive(m -> m == ann));
+
+            Predicate<Member> expired = RenewalJob.expiringBefore(new Date("1/1/2001"));
+            assertEquals(2, new RenewalJob(db, expired).run());
+
+            assertNull(archive.get(ann));
+            assertNotNull(db.inMemory(ann));
+            assertFalse(db.inMemory(ann).isExpired(new Date()));
+            assertFalse(bob.isExpired(new Date()));
+        }
+    }
+
+    @Test
+    void theGymArchivesExpiredMembersAndStillFindsThem() throws IOException {
+        GymManager gym = new GymManager();
+        try ( MemberStore archive = gym.openArchive(dir) ) {
+            assertEquals("Ann Lee added.\n", gym.addMember("Ann", "Lee", "1/2/1990", "Edison",
+                    MembershipType.STANDARD).getMessage());
+            assertEquals("1 members archived.\n", gym.execute("AM 1/1/2100"));
+            assertTrue(gym.getDatabase().isEmpty());
+            assertNotNull(archive.get(member("Ann", "Lee", "1/1/2030")));
+            assertEquals("Ann Lee removed.\n", gym.execute("R Ann Lee 1/2/1990"));
+            assertNull(archive.get(member("Ann", "Lee", "1/1/2030")));
+        }
+        assertEquals("No member archive is open!\n", new GymManager().execute("AM 1/1/2100"));
+    }
+}